@@ -0,0 +1,46 @@
+package benchmarks;
+
+import static benchmarks.GameClasses.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures what card counters add to each draw from a six-deck shoe, and the cost of reading a count.
+ * Compare drawCard against the NONE run; the target is under 2 ns per counted card.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardCounterBenchmark {
+    @Param({"NONE", "HI_LO", "KO", "OMEGA_II", "ZEN"})
+    String system;
+
+    private Object deck;
+    private Object counter;
+
+    @Setup
+    public void setUp() throws Throwable {
+        deck = (Object) NEW_DECK.invokeExact(6, 1.0, (Object) new SplittableRandom(42));
+        if (!system.equals("NONE")) {
+            counter = (Object) ADD_COUNTER.invokeExact(deck, countingSystem(system));
+        }
+    }
+
+    @Benchmark
+    public Object drawCard() throws Throwable {
+        if ((int) REMAINING_CARDS.invokeExact(deck) == 0) {
+            RESET.invokeExact(deck);
+        }
+        return (Object) DRAW_CARD.invokeExact(deck);
+    }
+
+    @Benchmark
+    public double trueCount() throws Throwable {
+        return counter == null ? 0 : (double) TRUE_COUNT.invokeExact(counter);
+    }
+}
@@ -0,0 +1,41 @@
+package benchmarks;
+
+import static benchmarks.GameClasses.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures shuffling and drawing from single- and multi-deck shoes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckBenchmark {
+    @Param({"1", "8"})
+    int decks;
+
+    private Object deck;
+
+    @Setup
+    public void setUp() throws Throwable {
+        deck = (Object) NEW_DECK.invokeExact(decks, 1.0, (Object) new SplittableRandom(42));
+    }
+
+    @Benchmark
+    public void shuffle() throws Throwable {
+        SHUFFLE.invokeExact(deck);
+    }
+
+    @Benchmark
+    public Object drawCard() throws Throwable {
+        if ((int) REMAINING_CARDS.invokeExact(deck) == 0) {
+            RESET.invokeExact(deck);
+        }
+        return (Object) DRAW_CARD.invokeExact(deck);
+    }
+}
@@ -0,0 +1,35 @@
+package benchmarks;
+
+import static benchmarks.GameClasses.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures a full round: dealing, the player staying, dealer play and settlement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    @Param({"1", "6"})
+    int decks;
+
+    private Object game;
+
+    @Setup
+    public void setUp() throws Throwable {
+        game = (Object) NEW_GAME.invokeExact(decks, 0.75, (Object) new SplittableRandom(42));
+        ADD_PLAYER.invokeExact(game, (Object) "Player");
+    }
+
+    @Benchmark
+    public void startNewRoundAndStay() throws Throwable {
+        START_NEW_ROUND.invokeExact(game);
+        STAY.invokeExact(game);
+    }
+}
@@ -0,0 +1,109 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Method handles for the game classes used by the benchmarks.
+ * The game lives in the unnamed package, which named packages cannot import,
+ * and JMH only accepts benchmarks in a named package. Static final handles are
+ * constant-folded by the JIT, so calls through them cost the same as direct calls.
+ * Every handle is erased to Object in place of game types; call them with invokeExact.
+ */
+final class GameClasses {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    static final Class<?> DECK = type("Deck");
+    static final Class<?> HAND = type("Hand");
+    static final Class<?> HAND_BATCH = type("HandBatch");
+    static final Class<?> CARD = type("Card");
+    static final Class<?> GAME = type("Game");
+    static final Class<?> PLAYER_POLICY = type("PlayerPolicy");
+    static final Class<?> CARD_COUNTER = type("CardCounter");
+    static final Class<?> COUNTING_SYSTEM = type("CardCounter$CountingSystem");
+
+    // Deck
+    static final MethodHandle NEW_DECK = constructor(DECK, int.class, double.class, RandomGenerator.class);
+    static final MethodHandle SHUFFLE = virtual(DECK, "shuffle", void.class);
+    static final MethodHandle DRAW_CARD = virtual(DECK, "drawCard", CARD);
+    static final MethodHandle RESET = virtual(DECK, "reset", void.class);
+    static final MethodHandle REMAINING_CARDS = virtual(DECK, "getRemainingCards", int.class);
+    static final MethodHandle ADD_COUNTER = virtual(DECK, "addCounter", CARD_COUNTER, COUNTING_SYSTEM);
+
+    // Card counters
+    static final MethodHandle RUNNING_COUNT = virtual(CARD_COUNTER, "getRunningCount", int.class);
+    static final MethodHandle TRUE_COUNT = virtual(CARD_COUNTER, "getTrueCount", double.class);
+
+    // Hand
+    static final MethodHandle NEW_HAND = constructor(HAND);
+    static final MethodHandle ADD_CARD = virtual(HAND, "addCard", void.class, CARD);
+    static final MethodHandle CALCULATE_VALUE = virtual(HAND, "calculateValue", int.class);
+    static final MethodHandle GET_CARDS = virtual(HAND, "getCards", List.class);
+    static final MethodHandle IS_BUST = virtual(HAND, "isBust", boolean.class);
+    static final MethodHandle IS_BLACKJACK = virtual(HAND, "isBlackjack", boolean.class);
+
+    // Hand batches
+    static final MethodHandle NEW_HAND_BATCH = constructor(HAND_BATCH, int.class, int.class);
+    static final MethodHandle BATCH_ADD = virtual(HAND_BATCH, "add", void.class, HAND);
+    static final MethodHandle BATCH_CLEAR = virtual(HAND_BATCH, "clear", void.class);
+    static final MethodHandle BATCH_EVALUATE = virtual(HAND_BATCH, "evaluate", void.class);
+    static final MethodHandle BATCH_VALUE = virtual(HAND_BATCH, "getValue", int.class, int.class);
+
+    // Game
+    static final MethodHandle NEW_GAME = constructor(GAME, int.class, double.class, RandomGenerator.class);
+    static final MethodHandle ADD_PLAYER = virtual(GAME, "addPlayer", void.class, String.class);
+    static final MethodHandle START_NEW_ROUND = virtual(GAME, "startNewRound", void.class);
+    static final MethodHandle STAY = virtual(GAME, "stay", void.class);
+    static final MethodHandle PLAY_TURN = virtual(GAME, "playTurn", void.class, PLAYER_POLICY);
+
+    // Player policies
+    static final MethodHandle NEW_BASIC_STRATEGY = constructor(type("BasicStrategy"));
+    static final MethodHandle NEW_NAIVE_BASIC_STRATEGY = constructor(type("NaiveBasicStrategy"));
+    static final MethodHandle DECIDE = virtual(PLAYER_POLICY, "decide", type("PlayerPolicy$Action"), HAND, CARD);
+
+    private GameClasses() {
+    }
+
+    /**
+     * Gets a counting system by name.
+     * @param name The name of a CardCounter.CountingSystem constant, such as HI_LO
+     * @return The constant
+     */
+    static Object countingSystem(String name) {
+        for (Object system : COUNTING_SYSTEM.getEnumConstants()) {
+            if (((Enum<?>) system).name().equals(name)) {
+                return system;
+            }
+        }
+        throw new IllegalArgumentException("No counting system " + name);
+    }
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> owner, Class<?>... parameters) {
+        try {
+            MethodHandle handle = LOOKUP.findConstructor(owner, MethodType.methodType(void.class, parameters));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle virtual(Class<?> owner, String name, Class<?> returnType, Class<?>... parameters) {
+        try {
+            MethodHandle handle = LOOKUP.findVirtual(owner, name, MethodType.methodType(returnType, parameters));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package benchmarks;
+
+import static benchmarks.GameClasses.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures valuing many hands one Hand at a time against one HandBatch pass over the same hands.
+ * Each hand is valued, checked for a bust and checked for a blackjack.
+ * copyAndEvaluate includes copying the hands' cards into the batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandBatchBenchmark {
+    @Param({"1000", "10000"})
+    int hands;
+
+    private Object[] handObjects;
+    private Object batch;
+
+    @Setup
+    public void setUp() throws Throwable {
+        SplittableRandom random = new SplittableRandom(42);
+        Object deck = (Object) NEW_DECK.invokeExact(8, 1.0, (Object) random);
+        handObjects = new Object[hands];
+        batch = (Object) NEW_HAND_BATCH.invokeExact(hands, 3);
+        for (int h = 0; h < hands; h++) {
+            Object hand = (Object) NEW_HAND.invokeExact();
+            int cards = 2 + random.nextInt(4);
+            for (int i = 0; i < cards; i++) {
+                if ((int) REMAINING_CARDS.invokeExact(deck) == 0) {
+                    SHUFFLE.invokeExact(deck);
+                }
+                ADD_CARD.invokeExact(hand, (Object) DRAW_CARD.invokeExact(deck));
+            }
+            handObjects[h] = hand;
+            BATCH_ADD.invokeExact(batch, hand);
+        }
+    }
+
+    @Benchmark
+    public int handByHand() throws Throwable {
+        int sum = 0;
+        for (Object hand : handObjects) {
+            sum += (int) CALCULATE_VALUE.invokeExact(hand);
+            if ((boolean) IS_BUST.invokeExact(hand)) {
+                sum++;
+            }
+            if ((boolean) IS_BLACKJACK.invokeExact(hand)) {
+                sum++;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int evaluate() throws Throwable {
+        BATCH_EVALUATE.invokeExact(batch);
+        return (int) BATCH_VALUE.invokeExact(batch, hands - 1);
+    }
+
+    @Benchmark
+    public int copyAndEvaluate() throws Throwable {
+        BATCH_CLEAR.invokeExact(batch);
+        for (Object hand : handObjects) {
+            BATCH_ADD.invokeExact(batch, hand);
+        }
+        BATCH_EVALUATE.invokeExact(batch);
+        return (int) BATCH_VALUE.invokeExact(batch, hands - 1);
+    }
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import static benchmarks.GameClasses.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures hand valuation and card access on hands of different sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandBenchmark {
+    @Param({"2", "5"})
+    int cards;
+
+    private Object hand;
+
+    @Setup
+    public void setUp() throws Throwable {
+        Object deck = (Object) NEW_DECK.invokeExact(1, 1.0, (Object) new SplittableRandom(42));
+        hand = (Object) NEW_HAND.invokeExact();
+        for (int i = 0; i < cards; i++) {
+            ADD_CARD.invokeExact(hand, (Object) DRAW_CARD.invokeExact(deck));
+        }
+    }
+
+    @Benchmark
+    public int calculateValue() throws Throwable {
+        return (int) CALCULATE_VALUE.invokeExact(hand);
+    }
+
+    @Benchmark
+    public Object getCards() throws Throwable {
+        return (Object) GET_CARDS.invokeExact(hand);
+    }
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import static benchmarks.GameClasses.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the simulator's throughput on one thread, in hands per second:
+ * each worker plays rounds of one player with BasicStrategy, as Simulator does.
+ * Multiply by the number of cores for a whole run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulatorBenchmark {
+    private static final int ROUNDS = 1000;
+
+    @Param({"1", "6"})
+    int decks;
+
+    private Object game;
+    private Object policy;
+
+    @Setup
+    public void setUp() throws Throwable {
+        game = (Object) NEW_GAME.invokeExact(decks, 0.75, (Object) new SplittableRandom(42));
+        ADD_PLAYER.invokeExact(game, (Object) "Simulated Player");
+        policy = (Object) NEW_BASIC_STRATEGY.invokeExact();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROUNDS)
+    public void hands() throws Throwable {
+        for (int i = 0; i < ROUNDS; i++) {
+            START_NEW_ROUND.invokeExact(game);
+            PLAY_TURN.invokeExact(game, policy);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import static benchmarks.GameClasses.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares the table-driven BasicStrategy with the rule-by-rule NaiveBasicStrategy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrategyBenchmark {
+    private static final int HANDS = 1024;
+    private static final int HANDS_PER_DECK = 100;
+
+    private final Object[] hands = new Object[HANDS];
+    private final Object[] upCards = new Object[HANDS];
+    private Object table;
+    private Object naive;
+    private int next;
+
+    @Setup
+    public void setUp() throws Throwable {
+        // Cards are views that are reused after a reset, so take a fresh shoe instead
+        Object deck = null;
+        for (int i = 0; i < HANDS; i++) {
+            if (i % HANDS_PER_DECK == 0) {
+                deck = (Object) NEW_DECK.invokeExact(8, 1.0, (Object) new SplittableRandom(i));
+            }
+            hands[i] = (Object) NEW_HAND.invokeExact();
+            ADD_CARD.invokeExact(hands[i], (Object) DRAW_CARD.invokeExact(deck));
+            ADD_CARD.invokeExact(hands[i], (Object) DRAW_CARD.invokeExact(deck));
+            upCards[i] = (Object) DRAW_CARD.invokeExact(deck);
+        }
+        table = (Object) NEW_BASIC_STRATEGY.invokeExact();
+        naive = (Object) NEW_NAIVE_BASIC_STRATEGY.invokeExact();
+    }
+
+    @Benchmark
+    public Object table() throws Throwable {
+        int i = next++ & (HANDS - 1);
+        return (Object) DECIDE.invokeExact(table, hands[i], upCards[i]);
+    }
+
+    @Benchmark
+    public Object naive() throws Throwable {
+        int i = next++ & (HANDS - 1);
+        return (Object) DECIDE.invokeExact(naive, hands[i], upCards[i]);
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * An immutable picture of an auto-play run at one point in time.
+ * Published by AutoPlayer and read by the window, so the two threads share nothing else.
+ */
+public final class AutoPlayProgress {
+    private final long roundsPlayed;
+    private final long rounds;
+    private final long elapsedNanos;
+    private final StatisticsSnapshot statistics;
+    private final String lastHand;
+    private final boolean done;
+
+    AutoPlayProgress(long roundsPlayed, long rounds, long elapsedNanos, StatisticsSnapshot statistics,
+                     String lastHand, boolean done) {
+        this.roundsPlayed = roundsPlayed;
+        this.rounds = rounds;
+        this.elapsedNanos = elapsedNanos;
+        this.statistics = statistics;
+        this.lastHand = lastHand;
+        this.done = done;
+    }
+
+    /**
+     * Gets the number of rounds played so far.
+     * @return The rounds played
+     */
+    public long getRoundsPlayed() {
+        return roundsPlayed;
+    }
+
+    /**
+     * Gets the number of rounds the run was asked to play.
+     * @return The rounds to play
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Gets the rate the rounds are being played at.
+     * @return The hands settled per second since the run started
+     */
+    public double getHandsPerSecond() {
+        return elapsedNanos == 0 ? 0 : statistics.getHands() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Gets the fraction of settled hands that were won.
+     * @return The win rate, from 0 to 1
+     */
+    public double getWinRate() {
+        long hands = statistics.getHands();
+        return hands == 0 ? 0 : (double) statistics.getWins() / hands;
+    }
+
+    /**
+     * Gets the outcomes of the hands played so far.
+     * @return The statistics of the run
+     */
+    public StatisticsSnapshot getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Gets a short description of the last round played.
+     * @return The player's and dealer's final values, or an empty string before the first round
+     */
+    public String getLastHand() {
+        return lastHand;
+    }
+
+    /**
+     * Checks if the run has finished, either after its last round or because it was stopped.
+     * @return true if no more rounds will be played
+     */
+    public boolean isDone() {
+        return done;
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Plays many rounds with a policy on a game of its own, off the Swing event thread.
+ * The game is never shown, so playing it fires no UI events; instead the player
+ * publishes a progress snapshot now and then, and the window polls the latest one
+ * at its own pace. However fast the rounds run, the window sees at most one
+ * snapshot per poll.
+ */
+public class AutoPlayer {
+    // Rounds between looks at the clock, so timing costs nothing per round
+    private static final int CLOCK_INTERVAL = 256;
+    private static final long PUBLISH_INTERVAL_NANOS = 10_000_000L;
+
+    private final Game game;
+    private final PlayerPolicy policy;
+    private final AtomicReference<AutoPlayProgress> progress;
+    private volatile boolean stopped;
+
+    /**
+     * Creates an auto-player at a table of its own.
+     * @param rules The rules of the table, usually those of the game on screen
+     * @param policy The policy that plays every hand
+     * @param playerName The name of the player
+     */
+    public AutoPlayer(RuleSet rules, PlayerPolicy policy, String playerName) {
+        this.game = new Game(rules, new SplittableRandom());
+        this.game.addPlayer(playerName);
+        this.policy = policy;
+        this.progress = new AtomicReference<>(
+                new AutoPlayProgress(0, 0, 0, game.getStatistics().snapshot(), "", false));
+    }
+
+    /**
+     * Plays rounds on the calling thread until the given number is reached or stop is called.
+     * @param rounds The number of rounds to play
+     * @return The final progress, which is also published
+     */
+    public AutoPlayProgress run(long rounds) {
+        long start = System.nanoTime();
+        long lastPublish = start;
+        long played = 0;
+        while (played < rounds && !stopped) {
+            game.startNewRound();
+            game.playTurn(policy);
+            played++;
+            if (played % CLOCK_INTERVAL == 0) {
+                long now = System.nanoTime();
+                if (now - lastPublish >= PUBLISH_INTERVAL_NANOS) {
+                    publish(played, rounds, now - start, false);
+                    lastPublish = now;
+                }
+            }
+        }
+        return publish(played, rounds, System.nanoTime() - start, true);
+    }
+
+    private AutoPlayProgress publish(long played, long rounds, long elapsedNanos, boolean done) {
+        String lastHand = "";
+        if (played > 0) {
+            lastHand = game.getPlayers().get(0).getHand().calculateValue()
+                    + " vs dealer " + game.getDealer().getHand().calculateValue();
+        }
+        AutoPlayProgress snapshot = new AutoPlayProgress(played, rounds, elapsedNanos,
+                game.getStatistics().snapshot(), lastHand, done);
+        progress.set(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Gets the latest progress published by the running player.
+     * Safe to call from any thread.
+     * @return The latest snapshot
+     */
+    public AutoPlayProgress getProgress() {
+        return progress.get();
+    }
+
+    /**
+     * Asks the player to stop after the round it is playing.
+     * Safe to call from any thread.
+     */
+    public void stop() {
+        stopped = true;
+    }
+}
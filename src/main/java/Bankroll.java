@@ -0,0 +1,84 @@
+/**
+ * Holds a player's money.
+ * Amounts are whole minor units (cents) in a long, so settling millions of hands
+ * stays exact and never allocates. The balance may go negative; the game doesn't
+ * refuse bets, so a simulation can read how far a player fell.
+ */
+public class Bankroll {
+    public static final long MINOR_UNITS = 100;
+    public static final long DEFAULT_BALANCE = 1000 * MINOR_UNITS;
+
+    private long balance;
+    private long lastBet;
+    private long lastResult;
+
+    /**
+     * Creates a bankroll with the default starting balance.
+     */
+    public Bankroll() {
+        this(DEFAULT_BALANCE);
+    }
+
+    /**
+     * Creates a bankroll.
+     * @param balance The starting balance, in minor units
+     */
+    public Bankroll(long balance) {
+        this.balance = balance;
+    }
+
+    /**
+     * Gets the current balance.
+     * @return The balance in minor units
+     */
+    public long getBalance() {
+        return balance;
+    }
+
+    /**
+     * Gets the bet placed on the last settled round.
+     * @return The bet in minor units, or 0 before the first round
+     */
+    public long getLastBet() {
+        return lastBet;
+    }
+
+    /**
+     * Gets the amount won or lost on the last settled round, over all of its hands.
+     * @return The net result in minor units, negative for a loss
+     */
+    public long getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Settles a round.
+     * @param bet The bet placed at the start of the round
+     * @param result The amount won or lost over all of the round's hands
+     */
+    void settle(long bet, long result) {
+        balance += result;
+        lastBet = bet;
+        lastResult = result;
+    }
+
+    /**
+     * Starts the bankroll over, as for a new player.
+     * @param balance The starting balance, in minor units
+     */
+    void reset(long balance) {
+        this.balance = balance;
+        lastBet = 0;
+        lastResult = 0;
+    }
+
+    /**
+     * Formats an amount of money for display.
+     * @param minorUnits The amount in minor units
+     * @return The amount as dollars and cents, such as -12.50
+     */
+    public static String format(long minorUnits) {
+        long abs = Math.abs(minorUnits);
+        return (minorUnits < 0 ? "-" : "") + abs / MINOR_UNITS + "." + String.format("%02d", abs % MINOR_UNITS);
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Basic strategy backed by precomputed decision tables.
+ * The tables are indexed by hard/soft total or pair and dealer up-card,
+ * so every decision is a few array loads.
+ */
+public class BasicStrategy implements PlayerPolicy {
+    // Hand totals 0-31 cover every hand that can still act
+    private static final int TOTALS = 32;
+    // Dealer up-card values 2-11, indexed directly by value
+    private static final int UP_CARDS = 12;
+
+    private static final Action[] ACTIONS = Action.values();
+    private static final byte[] TABLE = new byte[2 * TOTALS * UP_CARDS];
+    private static final boolean[] DOUBLE_TABLE = new boolean[2 * TOTALS * UP_CARDS];
+    private static final boolean[] SURRENDER_TABLE = new boolean[2 * TOTALS * UP_CARDS];
+    // Pair values 2-11, indexed directly by value
+    private static final boolean[] SPLIT_TABLE = new boolean[UP_CARDS * UP_CARDS];
+
+    static {
+        for (int soft = 0; soft < 2; soft++) {
+            for (int total = 0; total < TOTALS; total++) {
+                for (int up = 2; up < UP_CARDS; up++) {
+                    int index = index(total, soft == 1, up);
+                    Action action = NaiveBasicStrategy.decide(total, soft == 1, up);
+                    TABLE[index] = (byte) action.ordinal();
+                    DOUBLE_TABLE[index] = NaiveBasicStrategy.shouldDouble(total, soft == 1, up);
+                    SURRENDER_TABLE[index] = NaiveBasicStrategy.shouldSurrender(total, soft == 1, up);
+                }
+            }
+        }
+        for (int pair = 2; pair < UP_CARDS; pair++) {
+            for (int up = 2; up < UP_CARDS; up++) {
+                SPLIT_TABLE[pair * UP_CARDS + up] = NaiveBasicStrategy.shouldSplit(pair, up);
+            }
+        }
+    }
+
+    private static int index(int total, boolean soft, int dealerUpValue) {
+        return ((soft ? TOTALS : 0) + total) * UP_CARDS + dealerUpValue;
+    }
+
+    @Override
+    public Action decide(Hand hand, Card dealerUpCard) {
+        return ACTIONS[TABLE[index(hand.calculateValue(), hand.isSoft(), dealerUpCard.getValue())]];
+    }
+
+    @Override
+    public Action hitOrStay(Hand hand, Card dealerUpCard) {
+        return decide(hand, dealerUpCard);
+    }
+
+    @Override
+    public Action decide(Hand hand, Card dealerUpCard, boolean canDouble, boolean canSplit, boolean canSurrender) {
+        int up = dealerUpCard.getValue();
+        if (canSplit && hand.isPair() && SPLIT_TABLE[hand.getCards().get(0).getValue() * UP_CARDS + up]) {
+            return Action.SPLIT;
+        }
+        int index = index(hand.calculateValue(), hand.isSoft(), up);
+        if (canSurrender && SURRENDER_TABLE[index]) {
+            return Action.SURRENDER;
+        }
+        if (canDouble && DOUBLE_TABLE[index]) {
+            return Action.DOUBLE;
+        }
+        return ACTIONS[TABLE[index]];
+    }
+}
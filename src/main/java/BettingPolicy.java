@@ -0,0 +1,22 @@
+/**
+ * Decides how much a player bets on each round.
+ * The bet is placed once, before the cards are dealt; doubles and splits add
+ * the same amount again to the hands they make.
+ */
+public interface BettingPolicy {
+    /**
+     * Bets the same amount on every round.
+     * @param bet The bet in minor units
+     * @return The betting policy
+     */
+    static BettingPolicy flat(long bet) {
+        return bankroll -> bet;
+    }
+
+    /**
+     * Decides the bet for the next round.
+     * @param bankroll The player's bankroll, with the result of the last round
+     * @return The bet in minor units, greater than 0
+     */
+    long nextBet(Bankroll bankroll);
+}
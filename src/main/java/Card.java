@@ -25,9 +25,8 @@ public class Card {
         }
     }
 
-    private final Suit suit;
-    private final Rank rank;
-    private boolean faceUp;
+    // Packed rank, suit and face-up bit, see PackedCard
+    private byte code;
 
     /**
      * Creates a new card with the specified suit and rank.
@@ -35,9 +34,32 @@ public class Card {
      * @param rank The rank of the card
      */
     public Card(Suit suit, Rank rank) {
-        this.suit = suit;
-        this.rank = rank;
-        this.faceUp = true;
+        this.code = PackedCard.of(suit, rank);
+    }
+
+    /**
+     * Creates a card as a view on a packed card code.
+     * @param code The packed card code
+     */
+    Card(byte code) {
+        this.code = code;
+    }
+
+    /**
+     * Gets the packed code of the card.
+     * @return The packed rank, suit and face-up bit
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Points this view at another packed card.
+     * Used by Deck to reuse card objects between shuffles.
+     * @param code The packed card code
+     */
+    void setCode(byte code) {
+        this.code = code;
     }
 
     /**
@@ -45,7 +67,7 @@ public class Card {
      * @return The numeric value of the card
      */
     public int getValue() {
-        return rank.getValue();
+        return PackedCard.value(code);
     }
 
     /**
@@ -53,7 +75,7 @@ public class Card {
      * @return The suit of the card
      */
     public Suit getSuit() {
-        return suit;
+        return PackedCard.suit(code);
     }
 
     /**
@@ -61,7 +83,7 @@ public class Card {
      * @return The rank of the card
      */
     public Rank getRank() {
-        return rank;
+        return PackedCard.rank(code);
     }
 
     /**
@@ -69,7 +91,7 @@ public class Card {
      * @return true if the card is face up, false otherwise
      */
     public boolean isFaceUp() {
-        return faceUp;
+        return PackedCard.isFaceUp(code);
     }
 
     /**
@@ -77,7 +99,7 @@ public class Card {
      * @param faceUp true to show the card face up, false to show it face down
      */
     public void setFaceUp(boolean faceUp) {
-        this.faceUp = faceUp;
+        this.code = PackedCard.withFaceUp(code, faceUp);
     }
 
     /**
@@ -85,6 +107,7 @@ public class Card {
      * @return Color.RED for hearts and diamonds, Color.BLACK for clubs and spades
      */
     public Color getColor() {
+        Suit suit = getSuit();
         return (suit == Suit.HEARTS || suit == Suit.DIAMONDS) ? Color.RED : Color.BLACK;
     }
 
@@ -93,7 +116,7 @@ public class Card {
      * @return The Unicode symbol for the suit
      */
     public String getSuitSymbol() {
-        switch (suit) {
+        switch (getSuit()) {
             case HEARTS:
                 return "♥";
             case DIAMONDS:
@@ -112,6 +135,7 @@ public class Card {
      * @return The string representation of the rank
      */
     public String getRankString() {
+        Rank rank = getRank();
         switch (rank) {
             case ACE:
                 return "A";
@@ -132,9 +156,9 @@ public class Card {
      */
     @Override
     public String toString() {
-        if (!faceUp) {
+        if (!isFaceUp()) {
             return "XX";
         }
-        return rank + " of " + suit;
+        return getRank() + " of " + getSuit();
     }
 } 
\ No newline at end of file
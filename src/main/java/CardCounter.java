@@ -0,0 +1,157 @@
+/**
+ * Keeps the running and true count of a shoe under one counting system.
+ * A counter is attached to a deck with Deck.addCounter and is told about every
+ * card as it is drawn, the dealer's hole card included, so between rounds it
+ * holds the count of every card that has been seen.
+ * Each card costs one table lookup and two additions; reading a count is a field read.
+ */
+public class CardCounter {
+    /**
+     * Represents the counting systems, with the tag each system gives to each value rank.
+     * Tags are listed in PackedCard.valueRank order: ace, two to nine, ten-valued cards.
+     */
+    public enum CountingSystem {
+        HI_LO(true, -1, 1, 1, 1, 1, 1, 0, 0, 0, -1),   // Hi-Lo, level 1, balanced
+        KO(false, -1, 1, 1, 1, 1, 1, 1, 0, 0, -1),     // Knock-Out, level 1, unbalanced
+        OMEGA_II(true, 0, 1, 1, 2, 2, 2, 1, 0, -1, -2), // Omega II, level 2, balanced, ace-neutral
+        ZEN(true, -1, 1, 1, 2, 2, 2, 1, 0, 0, -2);     // Zen Count, level 2, balanced
+
+        private final boolean balanced;
+        private final byte[] tags;
+
+        CountingSystem(boolean balanced, int... valueRankTags) {
+            this.balanced = balanced;
+            this.tags = new byte[valueRankTags.length];
+            for (int i = 0; i < tags.length; i++) {
+                tags[i] = (byte) valueRankTags[i];
+            }
+        }
+
+        /**
+         * Checks if the tags of a full deck add up to zero.
+         * @return true for balanced systems, false for unbalanced ones such as KO
+         */
+        public boolean isBalanced() {
+            return balanced;
+        }
+
+        /**
+         * Gets the tag of a card.
+         * @param valueRank The card's value rank, as in PackedCard.valueRank
+         * @return The amount the card adds to the running count
+         */
+        public int getTag(int valueRank) {
+            return tags[valueRank];
+        }
+
+        /**
+         * Gets the running count of a freshly shuffled shoe.
+         * Balanced systems start at zero; KO starts at 4 - 4 * decks so that its pivot is +4.
+         * @param numberOfDecks The number of decks in the shoe
+         * @return The initial running count
+         */
+        public int initialCount(int numberOfDecks) {
+            return balanced ? 0 : 4 - 4 * numberOfDecks;
+        }
+    }
+
+    private static final int CARDS_PER_DECK = PackedCard.CARDS_PER_DECK;
+
+    private final CountingSystem system;
+    // Tags by rank index, so a card is counted without grouping the ten-valued ranks first
+    private final byte[] rankTags;
+    private final int numberOfDecks;
+    private final int shoeSize;
+    private int runningCount;
+    private int cardsSeen;
+
+    /**
+     * Creates a counter for a freshly shuffled shoe.
+     * @param system The counting system
+     * @param numberOfDecks The number of decks in the shoe
+     */
+    CardCounter(CountingSystem system, int numberOfDecks) {
+        this.system = system;
+        this.rankTags = new byte[Card.Rank.values().length];
+        for (int i = 0; i < rankTags.length; i++) {
+            rankTags[i] = (byte) system.getTag(Math.min(i, 9));
+        }
+        this.numberOfDecks = numberOfDecks;
+        this.shoeSize = numberOfDecks * CARDS_PER_DECK;
+        shuffled();
+    }
+
+    /**
+     * Counts a card drawn from the shoe.
+     * @param code The packed code of the card
+     */
+    void cardDrawn(byte code) {
+        runningCount += rankTags[PackedCard.rankIndex(code)];
+        cardsSeen++;
+    }
+
+    /**
+     * Starts the count again for a freshly shuffled shoe.
+     */
+    void shuffled() {
+        runningCount = system.initialCount(numberOfDecks);
+        cardsSeen = 0;
+    }
+
+    /**
+     * Sets the count from the cards left in the shoe, as after the shoe is restored.
+     * @param remaining The cards left by value rank, as filled by Deck.countRemainingCards
+     */
+    void recount(int[] remaining) {
+        int count = system.initialCount(numberOfDecks);
+        int left = 0;
+        for (int valueRank = 0; valueRank < PackedCard.VALUE_RANKS; valueRank++) {
+            int full = numberOfDecks * (valueRank == 9 ? 16 : 4);
+            count += system.getTag(valueRank) * (full - remaining[valueRank]);
+            left += remaining[valueRank];
+        }
+        runningCount = count;
+        cardsSeen = shoeSize - left;
+    }
+
+    /**
+     * Gets the counting system.
+     * @return The system whose tags this counter adds up
+     */
+    public CountingSystem getSystem() {
+        return system;
+    }
+
+    /**
+     * Gets the running count.
+     * @return The initial count plus the tags of every card seen since the shuffle
+     */
+    public int getRunningCount() {
+        return runningCount;
+    }
+
+    /**
+     * Gets the number of decks not yet dealt.
+     * @return The cards left in the shoe, in decks
+     */
+    public double getDecksRemaining() {
+        return (double) (shoeSize - cardsSeen) / CARDS_PER_DECK;
+    }
+
+    /**
+     * Gets the true count, the running count per deck left in the shoe.
+     * @return The true count, or the running count once less than a card is left
+     */
+    public double getTrueCount() {
+        int left = shoeSize - cardsSeen;
+        return left == 0 ? runningCount : (double) runningCount * CARDS_PER_DECK / left;
+    }
+
+    /**
+     * Gets the true count rounded down, as used to size bets.
+     * @return The largest whole number not above the true count
+     */
+    public int getTrueCountFloor() {
+        return (int) Math.floor(getTrueCount());
+    }
+}
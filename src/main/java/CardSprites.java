@@ -0,0 +1,102 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared cache of pre-rendered card images.
+ * The 52 faces and the card back are rendered once per screen scale into
+ * images compatible with the screen, so painting a card is a single drawImage.
+ * Java2D keeps compatible images accelerated in video memory where it can.
+ */
+public final class CardSprites {
+    public static final int CARD_WIDTH = 100;
+    public static final int CARD_HEIGHT = 140;
+
+    private static final int BACK = PackedCard.CARDS_PER_DECK;
+    private static final Color BACK_COLOR = new Color(0, 100, 0);
+    private static final Font FONT = new Font("Arial", Font.BOLD, 20);
+
+    private static final Map<Double, Image[]> SPRITES = new ConcurrentHashMap<>();
+
+    private CardSprites() {
+    }
+
+    /**
+     * Draws a card at the top-left corner of a graphics context.
+     * @param g2d The graphics context to draw on
+     * @param card The card to draw, face up or face down
+     */
+    public static void draw(Graphics2D g2d, Card card) {
+        double scale = g2d.getTransform().getScaleX();
+        Image[] sprites = SPRITES.computeIfAbsent(scale, s -> render(g2d.getDeviceConfiguration(), s));
+        int index = card.isFaceUp() ? PackedCard.deckIndex(card.getCode()) : BACK;
+        g2d.drawImage(sprites[index], 0, 0, CARD_WIDTH, CARD_HEIGHT, null);
+    }
+
+    /**
+     * Renders every sprite for one screen scale.
+     * @param config The screen the sprites will be drawn on
+     * @param scale The number of device pixels per logical pixel
+     * @return The 52 faces in packed-card order followed by the back
+     */
+    private static Image[] render(GraphicsConfiguration config, double scale) {
+        int width = (int) Math.ceil(CARD_WIDTH * scale);
+        int height = (int) Math.ceil(CARD_HEIGHT * scale);
+
+        Image[] sprites = new Image[BACK + 1];
+        for (int i = 0; i <= BACK; i++) {
+            Image image = config != null
+                    ? config.createCompatibleImage(width, height, Transparency.OPAQUE)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = (Graphics2D) image.getGraphics();
+            try {
+                g2d.scale(scale, scale);
+                paint(g2d, i == BACK ? null : new Card(PackedCard.ofIndex(i)));
+            } finally {
+                g2d.dispose();
+            }
+            sprites[i] = image;
+        }
+        return sprites;
+    }
+
+    /**
+     * Paints one card in logical coordinates.
+     * @param g2d The graphics context to paint on
+     * @param card The card to paint, or null for the card back
+     */
+    private static void paint(Graphics2D g2d, Card card) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        // Draw card background
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, CARD_WIDTH, CARD_HEIGHT);
+        g2d.fillRoundRect(0, 0, CARD_WIDTH, CARD_HEIGHT, 10, 10);
+        g2d.setColor(Color.BLACK);
+        g2d.drawRoundRect(0, 0, CARD_WIDTH, CARD_HEIGHT, 10, 10);
+
+        if (card == null) {
+            // Draw card back
+            g2d.setColor(BACK_COLOR);
+            g2d.fillRoundRect(5, 5, CARD_WIDTH - 10, CARD_HEIGHT - 10, 5, 5);
+            return;
+        }
+
+        // Draw rank and suit
+        String rank = card.getRankString();
+        String suit = card.getSuitSymbol();
+        g2d.setColor(card.getColor());
+        g2d.setFont(FONT);
+
+        // Draw top-left rank and suit
+        g2d.drawString(rank, 10, 25);
+        g2d.drawString(suit, 10, 45);
+
+        // Draw bottom-right rank and suit (rotated)
+        g2d.rotate(Math.PI, CARD_WIDTH / 2, CARD_HEIGHT / 2);
+        g2d.drawString(rank, -CARD_WIDTH + 10, -CARD_HEIGHT + 25);
+        g2d.drawString(suit, -CARD_WIDTH + 10, -CARD_HEIGHT + 45);
+    }
+}
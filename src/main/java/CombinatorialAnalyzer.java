@@ -0,0 +1,321 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Works out the exact expected value of every action on every starting hand by
+ * walking every order the remaining cards can come out in, instead of sampling rounds.
+ * Hands follow the same values as Hand: aces count as 1, and one of them as 11 while that
+ * keeps the hand at 21 or under. The dealer plays by the table's soft 17 rule through
+ * DealerOutcomeCalculator.
+ * Each up-card is analysed by its own fork-join task. A task memoizes the value of every
+ * hand it reaches by the composition of the cards left, so each one is worked out once.
+ * Two approximations are made, as most combinatorial analyzers do: a split pair is split
+ * once and both hands are valued from the same cards, and the player's draws don't take
+ * into account what the dealer's peek reveals about the hole card.
+ */
+public class CombinatorialAnalyzer {
+    private static final int RANKS = PackedCard.VALUE_RANKS;
+    private static final int TEN = RANKS - 1;
+    private static final int DEALER_CACHE_CAPACITY = 1 << 18;
+
+    private final RuleSet rules;
+    private final int[] shoe;
+
+    /**
+     * Creates an analyzer for a freshly shuffled shoe.
+     * @param rules The rules of the table, including its number of decks
+     */
+    public CombinatorialAnalyzer(RuleSet rules) {
+        this(rules, fullShoe(rules.getNumberOfDecks()));
+    }
+
+    /**
+     * Creates an analyzer for a partly dealt shoe.
+     * @param rules The rules of the table
+     * @param shoe The cards in the shoe by value rank, as filled by Deck.countRemainingCards
+     */
+    public CombinatorialAnalyzer(RuleSet rules, int[] shoe) {
+        if (shoe.length != RANKS) {
+            throw new IllegalArgumentException("shoe must have a count for each of the " + RANKS + " value ranks");
+        }
+        this.rules = rules;
+        this.shoe = shoe.clone();
+    }
+
+    private static int[] fullShoe(int numberOfDecks) {
+        int[] shoe = new int[RANKS];
+        for (int rank = 0; rank < RANKS; rank++) {
+            shoe[rank] = numberOfDecks * (rank == TEN ? 16 : 4);
+        }
+        return shoe;
+    }
+
+    /**
+     * Analyses every starting hand on the common fork-join pool.
+     * @return The values of every action
+     */
+    public ExactValueTable analyze() {
+        return analyze(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Analyses every starting hand, one up-card per task.
+     * @param pool The pool to run the tasks on
+     * @return The values of every action
+     */
+    public ExactValueTable analyze(ForkJoinPool pool) {
+        ExactValueTable table = new ExactValueTable();
+        List<UpCardTask> tasks = IntStream.range(0, RANKS)
+                .mapToObj(upRank -> new UpCardTask(table, upRank))
+                .collect(Collectors.toList());
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+        // Each task wrote only its own up-card's cells, and joining them publishes the writes
+        double expectedValue = 0;
+        for (UpCardTask task : tasks) {
+            expectedValue += task.expectedValue;
+        }
+        table.setExpectedValue(expectedValue);
+        return table;
+    }
+
+    /**
+     * Analyses every starting hand against one up-card.
+     */
+    private class UpCardTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ExactValueTable table;
+        private final int upRank;
+        private final DealerOutcomeCalculator dealer;
+        private final Map<Long, Double> bestValues;
+        private final int[] counts;
+        private double expectedValue;
+
+        UpCardTask(ExactValueTable table, int upRank) {
+            this.table = table;
+            this.upRank = upRank;
+            this.dealer = new DealerOutcomeCalculator(DEALER_CACHE_CAPACITY, rules.isDealerHitsSoft17());
+            this.bestValues = new HashMap<>();
+            this.counts = shoe.clone();
+        }
+
+        @Override
+        protected void compute() {
+            int total = sum(counts);
+            if (counts[upRank] == 0) {
+                return;
+            }
+            double pUp = (double) counts[upRank] / total;
+            counts[upRank]--;
+            total--;
+            for (int first = 0; first < RANKS; first++) {
+                if (counts[first] == 0) continue;
+                double pFirst = (double) counts[first] / total;
+                counts[first]--;
+                for (int second = first; second < RANKS; second++) {
+                    if (counts[second] == 0) continue;
+                    double p = pUp * pFirst * counts[second] / (total - 1) * (first == second ? 1 : 2);
+                    counts[second]--;
+                    table.setProbability(first, second, upRank, p);
+                    expectedValue += p * analyzeHand(first, second, total - 2);
+                    counts[second]++;
+                }
+                counts[first]++;
+            }
+            counts[upRank]++;
+        }
+
+        /**
+         * Fills in the values of one starting hand, whose cards are already out of the counts.
+         * @return The expected result of the round, playing the hand's best action
+         */
+        private double analyzeHand(int first, int second, int total) {
+            double pBlackjack = DealerOutcomeCalculator.blackjackProbability(counts, upRank);
+            int hard = first + second + 2;
+            boolean ace = first == 0 || second == 0;
+
+            if (ace && hard == 11) {
+                // A blackjack only pushes against the dealer's
+                double value = (1 - pBlackjack) * rules.getBlackjackPayoutMilliUnits() / Statistics.UNIT;
+                table.setValue(first, second, upRank, PlayerPolicy.Action.STAY, value);
+                return value;
+            }
+
+            double stand = dealer.standValue(counts, upRank, value(hard, ace), true);
+            double hit = hitValue(total, hard, ace);
+            double doubled = doubleValue(total, hard, ace);
+            double split = first == second ? 2 * splitHandValue(first, total) : Double.NaN;
+            double surrender = rules.isSurrender() ? -0.5 : Double.NaN;
+
+            double best;
+            if (rules.isDealerPeek()) {
+                // The player only acts once the dealer has shown no blackjack
+                best = max(stand, hit, doubled, split, surrender);
+                best = -pBlackjack + (1 - pBlackjack) * best;
+            } else {
+                // A dealer blackjack takes every bet on the table, surrendered ones included
+                double pPlay = 1 - pBlackjack;
+                stand = pPlay * stand - pBlackjack;
+                hit = pPlay * hit - pBlackjack;
+                doubled = pPlay * doubled - 2 * pBlackjack;
+                split = pPlay * split - 2 * pBlackjack;
+                surrender = pPlay * surrender - pBlackjack;
+                best = max(stand, hit, doubled, split, surrender);
+            }
+            table.setValue(first, second, upRank, PlayerPolicy.Action.STAY, stand);
+            table.setValue(first, second, upRank, PlayerPolicy.Action.HIT, hit);
+            table.setValue(first, second, upRank, PlayerPolicy.Action.DOUBLE, doubled);
+            table.setValue(first, second, upRank, PlayerPolicy.Action.SPLIT, split);
+            table.setValue(first, second, upRank, PlayerPolicy.Action.SURRENDER, surrender);
+            return best;
+        }
+
+        /**
+         * Gets the value of a hand played perfectly from here, standing or hitting.
+         */
+        private double bestValue(int total, int hard, boolean ace) {
+            int value = value(hard, ace);
+            if (value > 21) {
+                return -1;
+            }
+            // Within a task, the cards left and the hand fix the rest of the round
+            long key = (DealerOutcomeCalculator.compositionKey(counts) * 32 + hard) * 2 + (ace ? 1 : 0);
+            Double cached = bestValues.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            double best = dealer.standValue(counts, upRank, value, true);
+            if (value < 21) {
+                best = Math.max(best, hitValue(total, hard, ace));
+            }
+            bestValues.put(key, best);
+            return best;
+        }
+
+        /**
+         * Gets the value of taking a card and then playing perfectly.
+         */
+        private double hitValue(int total, int hard, boolean ace) {
+            double value = 0;
+            for (int rank = 0; rank < RANKS; rank++) {
+                int count = counts[rank];
+                if (count == 0) continue;
+                counts[rank]--;
+                value += (double) count / total * bestValue(total - 1, hard + rank + 1, ace || rank == 0);
+                counts[rank]++;
+            }
+            return value;
+        }
+
+        /**
+         * Gets the value of doubling the bet and taking exactly one card.
+         */
+        private double doubleValue(int total, int hard, boolean ace) {
+            double value = 0;
+            for (int rank = 0; rank < RANKS; rank++) {
+                int count = counts[rank];
+                if (count == 0) continue;
+                counts[rank]--;
+                value += (double) count / total
+                        * dealer.standValue(counts, upRank, value(hard + rank + 1, ace || rank == 0), true);
+                counts[rank]++;
+            }
+            return 2 * value;
+        }
+
+        /**
+         * Gets the value of one hand of a split pair, dealt its second card from the cards left.
+         * Split aces get one card each; other split hands may hit, and double if the rules allow.
+         */
+        private double splitHandValue(int pairRank, int total) {
+            double value = 0;
+            for (int rank = 0; rank < RANKS; rank++) {
+                int count = counts[rank];
+                if (count == 0) continue;
+                counts[rank]--;
+                int hard = pairRank + rank + 2;
+                boolean ace = pairRank == 0 || rank == 0;
+                double hand;
+                if (pairRank == 0) {
+                    hand = dealer.standValue(counts, upRank, value(hard, ace), true);
+                } else {
+                    hand = bestValue(total - 1, hard, ace);
+                    if (rules.isDoubleAfterSplit()) {
+                        hand = Math.max(hand, doubleValue(total - 1, hard, ace));
+                    }
+                }
+                value += (double) count / total * hand;
+                counts[rank]++;
+            }
+            return value;
+        }
+    }
+
+    private static int value(int hard, boolean ace) {
+        return ace && hard <= 11 ? hard + 10 : hard;
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the largest of some values, skipping the NaN of actions that aren't allowed.
+     */
+    private static double max(double... values) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : values) {
+            if (value > max) {
+                max = value;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Prints the best action and its value for every starting total against every up-card.
+     * Usage: java CombinatorialAnalyzer [decks] [H17] [6:5] [NODAS] [NOSURRENDER] [NOPEEK]
+     */
+    public static void main(String[] args) {
+        RuleSet rules = RuleSet.DEFAULT.withNumberOfDecks(args.length > 0 ? Integer.parseInt(args[0]) : 1);
+        for (int i = 1; i < args.length; i++) {
+            String option = args[i].toUpperCase();
+            if (option.equals("H17")) {
+                rules = rules.withDealerHitsSoft17(true);
+            } else if (option.equals("NODAS")) {
+                rules = rules.withDoubleAfterSplit(false);
+            } else if (option.equals("NOSURRENDER")) {
+                rules = rules.withSurrender(false);
+            } else if (option.equals("NOPEEK")) {
+                rules = rules.withDealerPeek(false);
+            } else if (option.contains(":")) {
+                String[] payout = option.split(":");
+                rules = rules.withBlackjackPayout(Integer.parseInt(payout[0]), Integer.parseInt(payout[1]));
+            } else {
+                throw new IllegalArgumentException("Unknown rule " + args[i]);
+            }
+        }
+
+        long start = System.nanoTime();
+        ExactValueTable table = new CombinatorialAnalyzer(rules).analyze();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(rules);
+        System.out.print(table.format());
+        System.out.printf("Analysed in %.2fs%n", seconds);
+    }
+}
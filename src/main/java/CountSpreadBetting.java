@@ -0,0 +1,33 @@
+import java.util.function.IntSupplier;
+
+/**
+ * Spreads bets with the true count, as a card counter does.
+ * At a true count of 1 or less the minimum bet is placed; every count above
+ * that adds one more minimum bet, up to the top of the spread.
+ */
+public class CountSpreadBetting implements BettingPolicy {
+    private final IntSupplier trueCount;
+    private final long minimumBet;
+    private final int spread;
+
+    /**
+     * Creates a count spread.
+     * @param trueCount Gives the true count of the shoe before the round is dealt
+     * @param minimumBet The bet at a neutral or negative count, in minor units
+     * @param spread The largest bet as a multiple of the minimum, such as 8 for a 1-8 spread
+     */
+    public CountSpreadBetting(IntSupplier trueCount, long minimumBet, int spread) {
+        if (minimumBet <= 0 || spread < 1) {
+            throw new IllegalArgumentException("minimumBet and spread must be positive");
+        }
+        this.trueCount = trueCount;
+        this.minimumBet = minimumBet;
+        this.spread = spread;
+    }
+
+    @Override
+    public long nextBet(Bankroll bankroll) {
+        int units = Math.max(1, Math.min(spread, trueCount.getAsInt()));
+        return units * minimumBet;
+    }
+}
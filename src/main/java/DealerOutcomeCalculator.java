@@ -0,0 +1,286 @@
+import java.util.*;
+
+/**
+ * Calculates the exact probabilities of the dealer's final hand.
+ * Follows the same rules as the game's DealerStrategy: the dealer draws until the hand is worth
+ * 17 or more, and on soft 17 too at H17 tables.
+ * Results are cached by shoe composition and up-card in a bounded LRU cache.
+ */
+public class DealerOutcomeCalculator {
+    // Outcome indices: dealer finishes on 17, 18, 19, 20, 21 or busts
+    public static final int OUTCOMES = 6;
+    public static final int BUST = 5;
+
+    private static final int STAND_ON = 17;
+    // Radix of each rank's count in a composition key: up to 32 of each rank and 128 ten-valued cards
+    private static final int RANK_RADIX = 4 * Deck.MAX_DECKS + 1;
+    private static final int TEN_RADIX = 16 * Deck.MAX_DECKS + 1;
+    // The number of distinct composition keys
+    static final long COMPOSITION_KEYS = (long) Math.pow(RANK_RADIX, PackedCard.VALUE_RANKS - 1) * TEN_RADIX;
+
+    private final boolean hitsSoft17;
+    private final Map<Long, double[]> cache;
+
+    /**
+     * Creates a calculator for a dealer who stands on soft 17 that caches up to the given number of results.
+     * @param capacity The maximum number of cached results
+     */
+    public DealerOutcomeCalculator(int capacity) {
+        this(capacity, false);
+    }
+
+    /**
+     * Creates a calculator that caches up to the given number of results.
+     * @param capacity The maximum number of cached results
+     * @param hitsSoft17 true if the dealer hits soft 17, as in RuleSet.isDealerHitsSoft17
+     */
+    public DealerOutcomeCalculator(int capacity, boolean hitsSoft17) {
+        this.hitsSoft17 = hitsSoft17;
+        this.cache = new LinkedHashMap<Long, double[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, double[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets the probabilities of each dealer outcome.
+     * @param counts The unseen cards by value rank, indexed as in PackedCard.valueRank
+     * @param upCard The dealer's face-up card
+     * @return The probabilities indexed by outcome: 0-4 for 17-21, BUST for a bust
+     */
+    public double[] dealerOutcomes(int[] counts, Card upCard) {
+        return dealerOutcomes(counts, PackedCard.valueRank(upCard.getCode()));
+    }
+
+    /**
+     * Gets the probabilities of each dealer outcome.
+     * The returned array is shared with the cache and must not be modified.
+     * @param counts The unseen cards by value rank, indexed as in PackedCard.valueRank
+     * @param upRank The value rank of the dealer's face-up card
+     * @return The probabilities indexed by outcome: 0-4 for 17-21, BUST for a bust
+     */
+    public double[] dealerOutcomes(int[] counts, int upRank) {
+        return dealerOutcomes(counts, upRank, false);
+    }
+
+    /**
+     * Gets the probabilities of each dealer outcome, optionally given that the dealer has no blackjack,
+     * as once the dealer has peeked under an ace or ten.
+     * The returned array is shared with the cache and must not be modified.
+     * @param counts The unseen cards by value rank, indexed as in PackedCard.valueRank
+     * @param upRank The value rank of the dealer's face-up card
+     * @param noBlackjack true to leave out hole cards that would make a blackjack
+     * @return The probabilities indexed by outcome: 0-4 for 17-21, BUST for a bust
+     */
+    public synchronized double[] dealerOutcomes(int[] counts, int upRank, boolean noBlackjack) {
+        int excluded = noBlackjack ? blackjackRank(upRank) : -1;
+        long key = key(counts, upRank) * 2 + (excluded >= 0 ? 1 : 0);
+        double[] outcomes = cache.get(key);
+        if (outcomes == null) {
+            outcomes = new double[OUTCOMES];
+            int[] remaining = counts.clone();
+            int total = 0;
+            for (int count : remaining) {
+                total += count;
+            }
+            if (excluded < 0) {
+                draw(remaining, total, rankValue(upRank), upRank == 0, 1.0, outcomes);
+            } else {
+                // Deal the hole card from every rank but the one that makes a blackjack
+                int holeCards = total - remaining[excluded];
+                for (int rank = 0; rank < PackedCard.VALUE_RANKS; rank++) {
+                    int count = remaining[rank];
+                    if (rank == excluded || count == 0) continue;
+                    remaining[rank]--;
+                    draw(remaining, total - 1, rankValue(upRank) + rankValue(rank), upRank == 0 || rank == 0,
+                            (double) count / holeCards, outcomes);
+                    remaining[rank]++;
+                }
+            }
+            cache.put(key, outcomes);
+        }
+        return outcomes;
+    }
+
+    /**
+     * Gets the probability that the dealer's hole card makes a blackjack.
+     * @param counts The unseen cards by value rank
+     * @param upRank The value rank of the dealer's face-up card
+     * @return The probability, 0 unless the up-card is an ace or a ten
+     */
+    public static double blackjackProbability(int[] counts, int upRank) {
+        int rank = blackjackRank(upRank);
+        if (rank < 0) {
+            return 0;
+        }
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total == 0 ? 0 : (double) counts[rank] / total;
+    }
+
+    /**
+     * Gets the value rank of the hole card that makes a blackjack with an up-card.
+     * @return The rank, or -1 if no hole card does
+     */
+    private static int blackjackRank(int upRank) {
+        if (upRank == 0) {
+            return PackedCard.VALUE_RANKS - 1;
+        }
+        return upRank == PackedCard.VALUE_RANKS - 1 ? 0 : -1;
+    }
+
+    /**
+     * Gets the expected result of standing, in units of the bet.
+     * @param counts The unseen cards by value rank
+     * @param upRank The value rank of the dealer's face-up card
+     * @param playerValue The value of the player's hand
+     * @return The probability of winning minus the probability of losing
+     */
+    public double standValue(int[] counts, int upRank, int playerValue) {
+        return standValue(counts, upRank, playerValue, false);
+    }
+
+    /**
+     * Gets the expected result of standing, optionally given that the dealer has no blackjack.
+     * @param counts The unseen cards by value rank
+     * @param upRank The value rank of the dealer's face-up card
+     * @param playerValue The value of the player's hand
+     * @param noBlackjack true to leave out hole cards that would make a blackjack
+     * @return The probability of winning minus the probability of losing
+     */
+    public double standValue(int[] counts, int upRank, int playerValue, boolean noBlackjack) {
+        if (playerValue > 21) {
+            return -1.0;
+        }
+        double[] outcomes = dealerOutcomes(counts, upRank, noBlackjack);
+        double value = outcomes[BUST];
+        for (int i = 0; i < BUST; i++) {
+            int dealerValue = STAND_ON + i;
+            if (playerValue > dealerValue) {
+                value += outcomes[i];
+            } else if (playerValue < dealerValue) {
+                value -= outcomes[i];
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Gets the expected result of taking exactly one more card and then standing.
+     * @param counts The unseen cards by value rank
+     * @param upRank The value rank of the dealer's face-up card
+     * @param playerValue The value of the player's hand
+     * @param soft true if an ace in the player's hand is counted as 11
+     * @return The expected result in units of the bet
+     */
+    public double hitOnceValue(int[] counts, int upRank, int playerValue, boolean soft) {
+        return hitOnceValue(counts, upRank, playerValue, soft, false);
+    }
+
+    /**
+     * Gets the expected result of taking exactly one more card and then standing,
+     * optionally given that the dealer has no blackjack.
+     * @param counts The unseen cards by value rank, the dealer's hole card among them
+     * @param upRank The value rank of the dealer's face-up card
+     * @param playerValue The value of the player's hand
+     * @param soft true if an ace in the player's hand is counted as 11
+     * @param noBlackjack true to leave out hole cards that would make a blackjack
+     * @return The expected result in units of the bet
+     */
+    public double hitOnceValue(int[] counts, int upRank, int playerValue, boolean soft, boolean noBlackjack) {
+        int[] remaining = counts.clone();
+        int total = 0;
+        for (int count : remaining) {
+            total += count;
+        }
+        int excluded = noBlackjack ? blackjackRank(upRank) : -1;
+        int holeCards = excluded < 0 ? total : total - remaining[excluded];
+
+        // The hole card is one of the unseen cards, so knowing it is not the blackjack card
+        // makes that card likelier to be drawn: weigh each card by the hole cards left beside it
+        double weights = 0.0;
+        for (int rank = 0; rank < PackedCard.VALUE_RANKS; rank++) {
+            weights += (double) remaining[rank] * holeCardsBeside(rank, excluded, holeCards);
+        }
+
+        int hardValue = soft ? playerValue - 10 : playerValue;
+        double value = 0.0;
+        for (int rank = 0; rank < PackedCard.VALUE_RANKS; rank++) {
+            if (remaining[rank] == 0) continue;
+            double p = remaining[rank] * holeCardsBeside(rank, excluded, holeCards) / weights;
+            int newHard = hardValue + rankValue(rank);
+            int newValue = (soft || rank == 0) && newHard <= 11 ? newHard + 10 : newHard;
+            remaining[rank]--;
+            value += p * standValue(remaining, upRank, newValue, noBlackjack);
+            remaining[rank]++;
+        }
+        return value;
+    }
+
+    /**
+     * Gets the number of cards that can be the hole card once a card of the given rank is drawn.
+     */
+    private static double holeCardsBeside(int rank, int excluded, int holeCards) {
+        return rank == excluded ? holeCards : holeCards - 1;
+    }
+
+    /**
+     * Deals the dealer's next cards recursively, adding the probability of every final hand.
+     * @param counts The cards left to draw from, restored before returning
+     * @param total The number of cards left to draw from
+     * @param hardValue The dealer's hand value counting aces as 1
+     * @param ace true if the dealer's hand contains an ace
+     * @param p The probability of reaching this hand
+     * @param outcomes Receives the probabilities of each outcome
+     */
+    private void draw(int[] counts, int total, int hardValue, boolean ace, double p, double[] outcomes) {
+        boolean soft = ace && hardValue <= 11;
+        int value = soft ? hardValue + 10 : hardValue;
+        if (value > 21) {
+            outcomes[BUST] += p;
+            return;
+        }
+        if (value > STAND_ON || value == STAND_ON && !(soft && hitsSoft17)) {
+            outcomes[value - STAND_ON] += p;
+            return;
+        }
+        if (total == 0) {
+            // The shoe would be reshuffled; too rare to model
+            return;
+        }
+
+        for (int rank = 0; rank < PackedCard.VALUE_RANKS; rank++) {
+            int count = counts[rank];
+            if (count == 0) continue;
+            counts[rank]--;
+            draw(counts, total - 1, hardValue + rankValue(rank), ace || rank == 0, p * count / total, outcomes);
+            counts[rank]++;
+        }
+    }
+
+    private static int rankValue(int rank) {
+        return rank + 1;
+    }
+
+    private static long key(int[] counts, int upRank) {
+        return upRank * COMPOSITION_KEYS + compositionKey(counts);
+    }
+
+    /**
+     * Packs a shoe composition into a number, one digit per value rank.
+     * Two compositions of up to eight decks have the same key only if they are equal.
+     * @param counts The cards by value rank
+     * @return The key, from 0 to COMPOSITION_KEYS - 1
+     */
+    static long compositionKey(int[] counts) {
+        long key = 0;
+        for (int rank = 0; rank < PackedCard.VALUE_RANKS - 1; rank++) {
+            key = key * RANK_RADIX + counts[rank];
+        }
+        return key * TEN_RADIX + counts[PackedCard.VALUE_RANKS - 1];
+    }
+}
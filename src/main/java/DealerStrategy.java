@@ -0,0 +1,43 @@
+/**
+ * How the dealer plays out their hand.
+ * A game picks one strategy from its rules when it is created, so the dealer's
+ * turn doesn't look at the rules again.
+ */
+enum DealerStrategy {
+    /**
+     * Stands on every 17, hard or soft (S17).
+     */
+    STAND_ON_SOFT_17 {
+        @Override
+        boolean hits(Hand hand) {
+            return hand.calculateValue() < 17;
+        }
+    },
+
+    /**
+     * Hits soft 17 and stands on hard 17 (H17).
+     */
+    HIT_SOFT_17 {
+        @Override
+        boolean hits(Hand hand) {
+            int value = hand.calculateValue();
+            return value < 17 || value == 17 && hand.isSoft();
+        }
+    };
+
+    /**
+     * Decides whether the dealer takes another card.
+     * @param hand The dealer's hand, with every card face up
+     * @return true if the dealer hits
+     */
+    abstract boolean hits(Hand hand);
+
+    /**
+     * Picks the dealer strategy for a table's rules.
+     * @param rules The table's rules
+     * @return The strategy the dealer plays by
+     */
+    static DealerStrategy of(RuleSet rules) {
+        return rules.isDealerHitsSoft17() ? HIT_SOFT_17 : STAND_ON_SOFT_17;
+    }
+}
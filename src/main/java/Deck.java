@@ -1,62 +1,280 @@
-import java.util.*;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
- * Represents a deck of playing cards.
+ * Represents a shoe of one or more decks of playing cards.
  * Handles card dealing and deck management.
+ * A cut card is placed at the configured penetration; once it comes out,
+ * the shoe is reshuffled before the next round.
+ * Cards are kept packed in a PackedDeck; the Card objects handed out are
+ * views that are reused after the deck is reset.
+ * Every drawn card is published to the deck's card counters, if any.
  */
 public class Deck {
-    private final List<Card> cards;
-    private static final int NUMBER_OF_DECKS = 1;
+    public static final int MIN_DECKS = 1;
+    public static final int MAX_DECKS = 8;
+    public static final int DEFAULT_NUMBER_OF_DECKS = 1;
+    public static final double DEFAULT_PENETRATION = 0.75;
+    private static final CardCounter[] NO_COUNTERS = new CardCounter[0];
+
+    private final PackedDeck cards;
+    private RandomGenerator random;
+    private final int numberOfDecks;
+    private final double penetration;
+    private final int cutCard;
+    private Card[] views;
+    private long shoeSeed;
+    private CardCounter[] counters;
 
     /**
      * Creates a new deck and initializes it with cards.
      */
     public Deck() {
-        this.cards = new ArrayList<>();
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Creates a new deck that shuffles with the given random source.
+     * Two decks created with equally seeded sources deal the same cards.
+     * The source is owned by the deck and must not be shared between threads.
+     * @param random The random source used for shuffling
+     */
+    public Deck(RandomGenerator random) {
+        this(DEFAULT_NUMBER_OF_DECKS, DEFAULT_PENETRATION, random);
+    }
+
+    /**
+     * Creates a new shoe with the given number of decks and cut-card position.
+     * @param numberOfDecks The number of decks in the shoe, from 1 to 8
+     * @param penetration The fraction of the shoe dealt before the cut card comes out
+     * @param random The random source used for shuffling
+     */
+    public Deck(int numberOfDecks, double penetration, RandomGenerator random) {
+        if (numberOfDecks < MIN_DECKS || numberOfDecks > MAX_DECKS) {
+            throw new IllegalArgumentException("numberOfDecks must be between " + MIN_DECKS + " and " + MAX_DECKS);
+        }
+        if (!(penetration > 0 && penetration <= 1)) {
+            throw new IllegalArgumentException("penetration must be greater than 0 and at most 1");
+        }
+        this.cards = new PackedDeck(numberOfDecks);
+        this.random = random;
+        this.numberOfDecks = numberOfDecks;
+        this.penetration = penetration;
+        this.cutCard = Math.max(1, (int) Math.round(cards.size() * penetration));
+        this.views = createViews();
+        this.counters = NO_COUNTERS;
         initializeDeck();
     }
 
+    /**
+     * Creates one reusable Card view per card in the deck.
+     * @return The card views
+     */
+    private Card[] createViews() {
+        Card[] views = new Card[cards.size()];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = new Card(PackedCard.ofIndex(i % PackedCard.CARDS_PER_DECK));
+        }
+        return views;
+    }
+
     /**
      * Initializes the deck with cards from all suits and ranks.
-     * Creates NUMBER_OF_DECKS copies of each card.
+     * Puts numberOfDecks copies of each card back in the deck.
      */
     private void initializeDeck() {
-        cards.clear();
-        for (int i = 0; i < NUMBER_OF_DECKS; i++) {
-            for (Card.Suit suit : Card.Suit.values()) {
-                for (Card.Rank rank : Card.Rank.values()) {
-                    cards.add(new Card(suit, rank));
-                }
-            }
-        }
         shuffle();
     }
 
     /**
-     * Shuffles the deck using Java's built-in shuffle algorithm.
+     * Shuffles the deck with a single Fisher-Yates pass.
+     * Every shuffle starts from opened-box order and is driven by a fresh shoe seed
+     * taken from the random source, so the seed alone determines the order of the shoe.
      */
     public void shuffle() {
-        for (int i = 0; i<10; i++){
-            Collections.shuffle(cards);
+        GameEvents.Shuffle event = GameEvents.beginShuffle();
+        shoeSeed = random.nextLong();
+        cards.reset();
+        cards.shuffle(shoeSeed);
+        for (CardCounter counter : counters) {
+            counter.shuffled();
+        }
+        if (event != null) {
+            event.finish(cards.size());
+        }
+    }
+
+    /**
+     * Puts the shoe back into the state it had after a known shuffle and number of draws.
+     * Cards drawn before the restore must no longer be in use.
+     * @param shoeSeed The seed of the shuffle, as returned by getShoeSeed
+     * @param position The number of cards drawn since that shuffle
+     */
+    public void restore(long shoeSeed, int position) {
+        // Drawing never reorders the shoe, so the same seed only needs the cursor moved
+        if (shoeSeed != this.shoeSeed) {
+            this.shoeSeed = shoeSeed;
+            cards.reset();
+            cards.shuffle(shoeSeed);
+        }
+        cards.setPosition(position);
+        recountCounters();
+    }
+
+    /**
+     * Starts counting the cards drawn from the shoe.
+     * The counter starts with the count of the cards already drawn since the last shuffle.
+     * @param system The counting system to count with
+     * @return The counter, updated on every draw
+     */
+    public CardCounter addCounter(CardCounter.CountingSystem system) {
+        CardCounter counter = new CardCounter(system, numberOfDecks);
+        counters = Arrays.copyOf(counters, counters.length + 1);
+        counters[counters.length - 1] = counter;
+        recountCounters();
+        return counter;
+    }
+
+    /**
+     * Stops updating a counter.
+     * @param counter The counter returned by addCounter
+     */
+    public void removeCounter(CardCounter counter) {
+        for (int i = 0; i < counters.length; i++) {
+            if (counters[i] == counter) {
+                CardCounter[] remaining = new CardCounter[counters.length - 1];
+                System.arraycopy(counters, 0, remaining, 0, i);
+                System.arraycopy(counters, i + 1, remaining, i, remaining.length - i);
+                counters = remaining;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops updating every counter.
+     */
+    void clearCounters() {
+        counters = NO_COUNTERS;
+    }
+
+    /**
+     * Replaces the random source and reshuffles the shoe with it.
+     * Cards drawn before must no longer be in use.
+     * @param random The random source used for shuffling from now on
+     */
+    void setRandom(RandomGenerator random) {
+        this.random = random;
+        initializeDeck();
+    }
+
+    private void recountCounters() {
+        if (counters.length == 0) {
+            return;
+        }
+        int[] remaining = new int[PackedCard.VALUE_RANKS];
+        cards.countRemaining(remaining);
+        for (CardCounter counter : counters) {
+            counter.recount(remaining);
         }
     }
 
+    /**
+     * Gets the seed of the current shuffle.
+     * @return The seed that determines the order of the shoe
+     */
+    public long getShoeSeed() {
+        return shoeSeed;
+    }
+
+    /**
+     * Gets the number of cards drawn since the last shuffle.
+     * @return The position of the next card in the shoe
+     */
+    public int getPosition() {
+        return cards.position();
+    }
+
     /**
      * Draws a card from the top of the deck.
      * If the deck is empty, it reinitializes the deck.
+     * The returned card is only valid until the deck is reset.
      * @return The drawn card
      */
     public Card drawCard() {
         if (cards.isEmpty()) {
+            // Cards still on the table keep their old views
+            views = createViews();
             initializeDeck();
         }
-        return cards.remove(0);
+        Card card = views[cards.position()];
+        byte code = cards.draw();
+        card.setCode(code);
+        for (CardCounter counter : counters) {
+            counter.cardDrawn(code);
+        }
+        return card;
     }
 
     /**
      * Resets the deck by reinitializing it.
+     * Cards drawn before the reset must no longer be in use.
      */
     public void reset() {
         initializeDeck();
     }
-} 
\ No newline at end of file
+
+    /**
+     * Reshuffles the shoe if the cut card has come out.
+     * Meant to be called between rounds, once no drawn cards are in use.
+     * @return true if the shoe was reshuffled, false otherwise
+     */
+    public boolean reshuffleIfNeeded() {
+        if (!isCutCardReached()) {
+            return false;
+        }
+        initializeDeck();
+        return true;
+    }
+
+    /**
+     * Checks if the cut card has come out.
+     * @return true if the shoe should be reshuffled before the next round
+     */
+    public boolean isCutCardReached() {
+        return cards.position() >= cutCard;
+    }
+
+    /**
+     * Gets the number of cards left to deal before the shoe runs out.
+     * @return The number of remaining cards
+     */
+    public int getRemainingCards() {
+        return cards.remaining();
+    }
+
+    /**
+     * Counts the cards left in the shoe by value rank.
+     * @param counts Receives the counts, indexed as in PackedCard.valueRank
+     */
+    public void countRemainingCards(int[] counts) {
+        cards.countRemaining(counts);
+    }
+
+    /**
+     * Gets the number of decks in the shoe.
+     * @return The number of decks
+     */
+    public int getNumberOfDecks() {
+        return numberOfDecks;
+    }
+
+    /**
+     * Gets the fraction of the shoe dealt before reshuffling.
+     * @return The penetration, greater than 0 and at most 1
+     */
+    public double getPenetration() {
+        return penetration;
+    }
+}
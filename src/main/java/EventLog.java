@@ -0,0 +1,119 @@
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Describes the binary format of round event logs.
+ * A log starts with a header and holds one record per event, each a type byte
+ * followed by fixed-size fields in big-endian order:
+ * <pre>
+ * header      int magic, short version, byte decks, double penetration,
+ *             byte hits soft 17, byte blackjack payout numerator, byte denominator,
+ *             byte double after split, byte surrender, byte dealer peek,
+ *             byte players, then per player a short length and UTF-8 name
+ * ROUND_START long round, long shoe seed, short position
+ * DRAW        byte card
+ * HIT         byte player
+ * STAY        byte player
+ * SHUFFLE     long shoe seed
+ * SETTLE      byte player, byte hand, byte outcome
+ * ROUND_END   (no fields)
+ * DOUBLE      byte player
+ * SPLIT       byte player
+ * SURRENDER   byte player
+ * </pre>
+ * Every few rounds the offset of a ROUND_START record is added to a sparse index file
+ * next to the log, as a pair of longs (round, offset).
+ */
+final class EventLog {
+    static final int MAGIC = 0x424A4C47; // "BJLG"
+    static final short VERSION = 3;
+
+    // Event types
+    static final byte ROUND_START = 1;
+    static final byte DRAW = 2;
+    static final byte HIT = 3;
+    static final byte STAY = 4;
+    static final byte SHUFFLE = 5;
+    static final byte SETTLE = 6;
+    static final byte ROUND_END = 7;
+    static final byte DOUBLE = 8;
+    static final byte SPLIT = 9;
+    static final byte SURRENDER = 10;
+
+    // Returned by readers at the end of the log
+    static final byte END = -1;
+
+    // Size of the rules in the header
+    static final int RULES_BYTES = 1 + 8 + 6;
+
+    private EventLog() {
+    }
+
+    /**
+     * Writes a table's rules as they are stored in the header.
+     * @param buffer The buffer to write to
+     * @param rules The rules
+     */
+    static void putRules(ByteBuffer buffer, RuleSet rules) {
+        buffer.put((byte) rules.getNumberOfDecks()).putDouble(rules.getPenetration());
+        buffer.put((byte) (rules.isDealerHitsSoft17() ? 1 : 0));
+        buffer.put((byte) rules.getBlackjackPayoutNumerator()).put((byte) rules.getBlackjackPayoutDenominator());
+        buffer.put((byte) (rules.isDoubleAfterSplit() ? 1 : 0));
+        buffer.put((byte) (rules.isSurrender() ? 1 : 0));
+        buffer.put((byte) (rules.isDealerPeek() ? 1 : 0));
+    }
+
+    /**
+     * Reads a table's rules as they are stored in the header.
+     * @param buffer The buffer to read from, with RULES_BYTES remaining
+     * @return The rules
+     */
+    static RuleSet getRules(ByteBuffer buffer) {
+        int numberOfDecks = buffer.get();
+        double penetration = buffer.getDouble();
+        boolean dealerHitsSoft17 = buffer.get() != 0;
+        int payoutNumerator = buffer.get();
+        int payoutDenominator = buffer.get();
+        boolean doubleAfterSplit = buffer.get() != 0;
+        boolean surrender = buffer.get() != 0;
+        boolean dealerPeek = buffer.get() != 0;
+        return new RuleSet(dealerHitsSoft17, numberOfDecks, penetration, payoutNumerator, payoutDenominator,
+                doubleAfterSplit, surrender, dealerPeek);
+    }
+
+    /**
+     * Gets the size of an event record.
+     * @param type The event type
+     * @return The number of bytes in the record, including the type byte
+     */
+    static int recordSize(byte type) {
+        switch (type) {
+            case ROUND_START:
+                return 1 + 8 + 8 + 2;
+            case DRAW:
+            case HIT:
+            case STAY:
+            case DOUBLE:
+            case SPLIT:
+            case SURRENDER:
+                return 1 + 1;
+            case SHUFFLE:
+                return 1 + 8;
+            case SETTLE:
+                return 1 + 3;
+            case ROUND_END:
+                return 1;
+            default:
+                throw new IllegalStateException("Unknown event type " + type);
+        }
+    }
+
+    /**
+     * Gets the path of the sparse round index that belongs to a log.
+     * @param log The path of the log
+     * @return The path of its index
+     */
+    static Path indexPath(Path log) {
+        return log.resolveSibling(log.getFileName() + ".idx");
+    }
+}
@@ -0,0 +1,272 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads a binary event log written by EventLogWriter, one event at a time.
+ * next returns the type of each event and the getters return its fields,
+ * so reading never allocates. A record cut short at the end of the log,
+ * as left by a crash, is treated as the end of the log.
+ */
+public class EventLogReader implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Game.Outcome[] OUTCOMES = Game.Outcome.values();
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final RuleSet rules;
+    private final List<String> playerNames;
+    private long[] indexRounds;
+    private long[] indexOffsets;
+
+    // Fields of the current event
+    private byte type;
+    private long round;
+    private long shoeSeed;
+    private int position;
+    private int player;
+    private int hand;
+    private byte card;
+    private Game.Outcome outcome;
+    private boolean pending;
+
+    /**
+     * Opens a log and reads its header.
+     * @param path The log to read
+     * @throws IOException If the log cannot be read or is not an event log
+     */
+    public EventLogReader(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.limit(0);
+        try {
+            if (!fill(4 + 2 + EventLog.RULES_BYTES + 1) || buffer.getInt() != EventLog.MAGIC) {
+                throw new IOException(path + " is not an event log");
+            }
+            short version = buffer.getShort();
+            if (version != EventLog.VERSION) {
+                throw new IOException("Unsupported event log version " + version);
+            }
+            rules = EventLog.getRules(buffer);
+            int players = buffer.get();
+            List<String> names = new ArrayList<>(players);
+            for (int i = 0; i < players; i++) {
+                if (!fill(2)) {
+                    throw new IOException("Truncated event log header");
+                }
+                byte[] name = new byte[buffer.getShort()];
+                if (!fill(name.length)) {
+                    throw new IOException("Truncated event log header");
+                }
+                buffer.get(name);
+                names.add(new String(name, StandardCharsets.UTF_8));
+            }
+            playerNames = Collections.unmodifiableList(names);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next event.
+     * @return The type of the event, one of the EventLog event types, or EventLog.END at the end of the log
+     * @throws IOException If the log cannot be read
+     */
+    public byte next() throws IOException {
+        if (pending) {
+            pending = false;
+            return type;
+        }
+        if (!fill(1)) {
+            return type = EventLog.END;
+        }
+        byte next = buffer.get(buffer.position());
+        if (!fill(EventLog.recordSize(next))) {
+            return type = EventLog.END;
+        }
+        buffer.get();
+        switch (next) {
+            case EventLog.ROUND_START:
+                round = buffer.getLong();
+                shoeSeed = buffer.getLong();
+                position = buffer.getShort() & 0xFFFF;
+                break;
+            case EventLog.DRAW:
+                card = buffer.get();
+                break;
+            case EventLog.HIT:
+            case EventLog.STAY:
+            case EventLog.DOUBLE:
+            case EventLog.SPLIT:
+            case EventLog.SURRENDER:
+                player = buffer.get();
+                break;
+            case EventLog.SHUFFLE:
+                shoeSeed = buffer.getLong();
+                break;
+            case EventLog.SETTLE:
+                player = buffer.get();
+                hand = buffer.get();
+                outcome = OUTCOMES[buffer.get()];
+                break;
+            default:
+                break;
+        }
+        return type = next;
+    }
+
+    /**
+     * Moves to the start of a round, so that the next event read is its ROUND_START.
+     * Jumps to the closest indexed round at or before it and reads forward from there.
+     * @param roundNumber The round to move to
+     * @return true if the round was found, false if the log doesn't hold it
+     * @throws IOException If the log cannot be read
+     */
+    public boolean seekToRound(long roundNumber) throws IOException {
+        if (indexRounds == null) {
+            loadIndex();
+        }
+        int entry = -1;
+        for (int low = 0, high = indexRounds.length - 1; low <= high; ) {
+            int mid = (low + high) >>> 1;
+            if (indexRounds[mid] <= roundNumber) {
+                entry = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (entry < 0) {
+            return false;
+        }
+
+        channel.position(indexOffsets[entry]);
+        buffer.limit(0);
+        pending = false;
+        for (byte event = next(); event != EventLog.END; event = next()) {
+            if (event == EventLog.ROUND_START && round >= roundNumber) {
+                pending = round == roundNumber;
+                return pending;
+            }
+        }
+        return false;
+    }
+
+    private void loadIndex() throws IOException {
+        Path indexPath = EventLog.indexPath(path);
+        ByteBuffer index = ByteBuffer.wrap(Files.exists(indexPath) ? Files.readAllBytes(indexPath) : new byte[0]);
+        int entries = index.remaining() / 16;
+        indexRounds = new long[entries];
+        indexOffsets = new long[entries];
+        for (int i = 0; i < entries; i++) {
+            indexRounds[i] = index.getLong();
+            indexOffsets[i] = index.getLong();
+        }
+    }
+
+    /**
+     * Makes sure the buffer holds at least the given number of unread bytes.
+     * @param size The number of bytes needed
+     * @return false if the log ends first
+     */
+    private boolean fill(int size) throws IOException {
+        if (buffer.remaining() >= size) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < size) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= size;
+    }
+
+    /**
+     * Gets the rules of the recorded table.
+     * @return The rules
+     */
+    public RuleSet getRuleSet() {
+        return rules;
+    }
+
+    /**
+     * Gets the names of the recorded players, in seat order.
+     * @return The player names
+     */
+    public List<String> getPlayerNames() {
+        return playerNames;
+    }
+
+    /**
+     * Gets the round number of the current ROUND_START event.
+     * @return The round number
+     */
+    public long getRound() {
+        return round;
+    }
+
+    /**
+     * Gets the shoe seed of the current ROUND_START or SHUFFLE event.
+     * @return The shoe seed
+     */
+    public long getShoeSeed() {
+        return shoeSeed;
+    }
+
+    /**
+     * Gets the shoe position of the current ROUND_START event.
+     * @return The number of cards drawn since the shuffle
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Gets the player of the current action or SETTLE event.
+     * @return The index of the player
+     */
+    public int getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets the player's hand of the current SETTLE event.
+     * @return The index of the hand
+     */
+    public int getHand() {
+        return hand;
+    }
+
+    /**
+     * Gets the card of the current DRAW event.
+     * @return The packed code of the card
+     */
+    public byte getCard() {
+        return card;
+    }
+
+    /**
+     * Gets the outcome of the current SETTLE event.
+     * @return The outcome
+     */
+    public Game.Outcome getOutcome() {
+        return outcome;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,236 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends every round of a game to a binary event log, in the format described by EventLog.
+ * Events are collected in a direct buffer and written to the file channel when it fills up.
+ * The log is forced to disk at the end of a round once the sync interval has passed,
+ * so a crash loses at most that much play. Index entries are held back until the log
+ * bytes they point at have been forced to disk, so the index never points past the log.
+ * Not thread-safe: use one writer per game.
+ */
+public class EventLogWriter implements RoundRecorder, AutoCloseable {
+    public static final int DEFAULT_INDEX_INTERVAL = 1024;
+    public static final long DEFAULT_SYNC_INTERVAL_NANOS = 1_000_000_000L;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Keeps the header within one buffer and player indexes within a byte
+    private static final int MAX_PLAYERS = 64;
+    private static final int MAX_NAME_BYTES = 512;
+
+    private final Game game;
+    private final FileChannel channel;
+    private final FileChannel indexChannel;
+    private final ByteBuffer buffer;
+    private final int indexInterval;
+    private final long syncIntervalNanos;
+    // Index entries whose log bytes are not yet on disk
+    private ByteBuffer pendingIndex;
+    private boolean headerWritten;
+    private long roundsWritten;
+    private long lastSync;
+
+    /**
+     * Creates a log that indexes every 1024th round and syncs once a second.
+     * @param path The file to write, replacing any existing file
+     * @param game The game being recorded
+     * @throws IOException If the log or its index cannot be created
+     */
+    public EventLogWriter(Path path, Game game) throws IOException {
+        this(path, game, DEFAULT_INDEX_INTERVAL, DEFAULT_SYNC_INTERVAL_NANOS);
+    }
+
+    /**
+     * Creates a log.
+     * The header lists the game's players when the first round starts,
+     * so players must not join after that.
+     * @param path The file to write, replacing any existing file
+     * @param game The game being recorded
+     * @param indexInterval The number of rounds between index entries
+     * @param syncIntervalNanos The least time between forcing the log to disk
+     * @throws IOException If the log or its index cannot be created
+     */
+    public EventLogWriter(Path path, Game game, int indexInterval, long syncIntervalNanos) throws IOException {
+        if (indexInterval < 1) {
+            throw new IllegalArgumentException("indexInterval must be at least 1");
+        }
+        this.game = game;
+        this.indexInterval = indexInterval;
+        this.syncIntervalNanos = syncIntervalNanos;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.indexChannel = FileChannel.open(EventLog.indexPath(path), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.pendingIndex = ByteBuffer.allocate(16 * 16);
+        this.lastSync = System.nanoTime();
+    }
+
+    @Override
+    public void roundStarted(long roundNumber, long shoeSeed, int position) {
+        if (!headerWritten) {
+            writeHeader();
+            headerWritten = true;
+        }
+        ensureRemaining(19);
+        if (roundsWritten++ % indexInterval == 0) {
+            addIndexEntry(roundNumber);
+        }
+        buffer.put(EventLog.ROUND_START).putLong(roundNumber).putLong(shoeSeed).putShort((short) position);
+    }
+
+    @Override
+    public void cardDrawn(byte card) {
+        ensureRemaining(2);
+        buffer.put(EventLog.DRAW).put(card);
+    }
+
+    @Override
+    public void shoeShuffled(long shoeSeed) {
+        ensureRemaining(9);
+        buffer.put(EventLog.SHUFFLE).putLong(shoeSeed);
+    }
+
+    @Override
+    public void playerHit(int player) {
+        ensureRemaining(2);
+        buffer.put(EventLog.HIT).put((byte) player);
+    }
+
+    @Override
+    public void playerStayed(int player) {
+        ensureRemaining(2);
+        buffer.put(EventLog.STAY).put((byte) player);
+    }
+
+    @Override
+    public void playerDoubled(int player) {
+        ensureRemaining(2);
+        buffer.put(EventLog.DOUBLE).put((byte) player);
+    }
+
+    @Override
+    public void playerSplit(int player) {
+        ensureRemaining(2);
+        buffer.put(EventLog.SPLIT).put((byte) player);
+    }
+
+    @Override
+    public void playerSurrendered(int player) {
+        ensureRemaining(2);
+        buffer.put(EventLog.SURRENDER).put((byte) player);
+    }
+
+    @Override
+    public void handSettled(int player, int hand, Game.Outcome outcome, long netMilliUnits) {
+        ensureRemaining(4);
+        buffer.put(EventLog.SETTLE).put((byte) player).put((byte) hand).put((byte) outcome.ordinal());
+    }
+
+    @Override
+    public void roundEnded() {
+        ensureRemaining(1);
+        buffer.put(EventLog.ROUND_END);
+
+        long now = System.nanoTime();
+        if (now - lastSync >= syncIntervalNanos) {
+            sync();
+            lastSync = now;
+        }
+    }
+
+    /**
+     * Writes everything recorded so far and forces the log and its index to disk.
+     * The log goes first, so every index entry written points at log bytes already on disk.
+     */
+    public void sync() {
+        try {
+            flush();
+            channel.force(false);
+            pendingIndex.flip();
+            while (pendingIndex.hasRemaining()) {
+                indexChannel.write(pendingIndex);
+            }
+            pendingIndex.clear();
+            indexChannel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Syncs and closes the log.
+     * @throws IOException If the log cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (channel.isOpen()) {
+                sync();
+            }
+        } finally {
+            channel.close();
+            indexChannel.close();
+        }
+    }
+
+    private void writeHeader() {
+        List<Player> players = game.getPlayers();
+        if (players.size() > MAX_PLAYERS) {
+            throw new IllegalStateException("Cannot log more than " + MAX_PLAYERS + " players");
+        }
+        buffer.putInt(EventLog.MAGIC).putShort(EventLog.VERSION);
+        EventLog.putRules(buffer, game.getRuleSet());
+        buffer.put((byte) players.size());
+        for (Player player : players) {
+            byte[] name = player.getName().getBytes(StandardCharsets.UTF_8);
+            if (name.length > MAX_NAME_BYTES) {
+                throw new IllegalStateException("Player name is too long: " + player.getName());
+            }
+            buffer.putShort((short) name.length).put(name);
+        }
+    }
+
+    /**
+     * Queues an index entry for the next sync.
+     */
+    private void addIndexEntry(long roundNumber) {
+        long offset;
+        try {
+            offset = channel.position() + buffer.position();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (pendingIndex.remaining() < 16) {
+            ByteBuffer larger = ByteBuffer.allocate(pendingIndex.capacity() * 2);
+            pendingIndex.flip();
+            larger.put(pendingIndex);
+            pendingIndex = larger;
+        }
+        pendingIndex.putLong(roundNumber).putLong(offset);
+    }
+
+    private void ensureRemaining(int size) {
+        if (buffer.remaining() < size) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        try {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+import java.util.Arrays;
+
+/**
+ * Holds the exact expected value of every action for every two-card starting hand
+ * against every dealer up-card, as worked out by CombinatorialAnalyzer.
+ * Cards are given as value ranks, as in PackedCard.valueRank.
+ */
+public class ExactValueTable {
+    private static final int RANKS = PackedCard.VALUE_RANKS;
+    private static final PlayerPolicy.Action[] ACTIONS = PlayerPolicy.Action.values();
+
+    private final double[] probabilities;
+    private final double[] values;
+    private double expectedValue;
+
+    /**
+     * Creates a table with no action allowed anywhere.
+     */
+    public ExactValueTable() {
+        this.probabilities = new double[RANKS * RANKS * RANKS];
+        this.values = new double[RANKS * RANKS * RANKS * ACTIONS.length];
+        Arrays.fill(values, Double.NaN);
+    }
+
+    /**
+     * Gets the probability of being dealt a starting hand against an up-card.
+     * @param first The value rank of one of the player's cards
+     * @param second The value rank of the other card
+     * @param upRank The value rank of the dealer's up-card
+     * @return The probability of the three cards, in either order for the player's two
+     */
+    public double getProbability(int first, int second, int upRank) {
+        return probabilities[cell(first, second, upRank)];
+    }
+
+    /**
+     * Gets the expected result of an action on a starting hand, played on perfectly from there.
+     * When the dealer peeks, this is the value once the dealer is known not to have blackjack;
+     * otherwise a dealer blackjack takes every bet the action puts down.
+     * @param first The value rank of one of the player's cards
+     * @param second The value rank of the other card
+     * @param upRank The value rank of the dealer's up-card
+     * @param action The first action taken
+     * @return The expected result in bets, or NaN if the action isn't allowed
+     */
+    public double getValue(int first, int second, int upRank, PlayerPolicy.Action action) {
+        return values[cell(first, second, upRank) * ACTIONS.length + action.ordinal()];
+    }
+
+    /**
+     * Gets the action with the highest expected result on a starting hand.
+     * @param first The value rank of one of the player's cards
+     * @param second The value rank of the other card
+     * @param upRank The value rank of the dealer's up-card
+     * @return The best action
+     */
+    public PlayerPolicy.Action getBestAction(int first, int second, int upRank) {
+        int base = cell(first, second, upRank) * ACTIONS.length;
+        PlayerPolicy.Action best = PlayerPolicy.Action.STAY;
+        for (PlayerPolicy.Action action : ACTIONS) {
+            if (values[base + action.ordinal()] > values[base + best.ordinal()]) {
+                best = action;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the expected result of a whole round played perfectly, blackjacks and dealer peeks included.
+     * @return The expected result in bets, negative when the house has the edge
+     */
+    public double getExpectedValue() {
+        return expectedValue;
+    }
+
+    void setProbability(int first, int second, int upRank, double probability) {
+        probabilities[cell(first, second, upRank)] = probability;
+    }
+
+    void setValue(int first, int second, int upRank, PlayerPolicy.Action action, double value) {
+        values[cell(first, second, upRank) * ACTIONS.length + action.ordinal()] = value;
+    }
+
+    void setExpectedValue(double expectedValue) {
+        this.expectedValue = expectedValue;
+    }
+
+    /**
+     * Formats the table with one line per hard total, soft total and pair, and one column per up-card.
+     * Each cell shows the best action and its value, averaged over the hands that make up the line.
+     * @return The formatted table
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder("Start ");
+        for (int up = 2; up <= 11; up++) {
+            text.append(String.format("%8s", up == 11 ? "A" : String.valueOf(up)));
+        }
+        text.append('\n');
+        for (int total = 5; total <= 19; total++) {
+            appendLine(text, "H" + total, total, false, false);
+        }
+        for (int total = 13; total <= 20; total++) {
+            appendLine(text, "S" + total, total, true, false);
+        }
+        for (int rank = 1; rank <= RANKS; rank++) {
+            int pairRank = rank % RANKS;
+            String name = pairRank == 0 ? "A" : pairRank == RANKS - 1 ? "T" : String.valueOf(pairRank + 1);
+            appendLine(text, name + "," + name, pairRank, false, true);
+        }
+        text.append(String.format("Expected value: %+.4f%%%n", 100 * expectedValue));
+        return text.toString();
+    }
+
+    /**
+     * Appends the line of every non-blackjack starting hand with a total, or of one pair.
+     */
+    private void appendLine(StringBuilder text, String name, int key, boolean soft, boolean pair) {
+        text.append(String.format("%-6s", name));
+        for (int up = 1; up <= RANKS; up++) {
+            // Show the ace column last, as tables usually do
+            int upRank = up % RANKS;
+            double weight = 0;
+            double[] sums = new double[ACTIONS.length];
+            for (int first = 0; first < RANKS; first++) {
+                for (int second = first; second < RANKS; second++) {
+                    boolean isPair = first == second;
+                    boolean isSoft = first == 0 && !isPair;
+                    int total = first + second + 2 + (isSoft ? 10 : 0);
+                    boolean matches = pair ? isPair && first == key
+                            : !isPair && isSoft == soft && total == key;
+                    double p = getProbability(first, second, upRank);
+                    if (!matches || p == 0) continue;
+                    weight += p;
+                    for (PlayerPolicy.Action action : ACTIONS) {
+                        sums[action.ordinal()] += p * getValue(first, second, upRank, action);
+                    }
+                }
+            }
+            PlayerPolicy.Action best = PlayerPolicy.Action.STAY;
+            for (PlayerPolicy.Action action : ACTIONS) {
+                if (sums[action.ordinal()] > sums[best.ordinal()]) {
+                    best = action;
+                }
+            }
+            text.append(weight == 0 ? String.format("%8s", "-")
+                    : String.format(" %c%+.3f", letter(best), sums[best.ordinal()] / weight));
+        }
+        text.append('\n');
+    }
+
+    /**
+     * Gets the letter strategy charts use for an action.
+     */
+    private static char letter(PlayerPolicy.Action action) {
+        switch (action) {
+            case HIT:
+                return 'H';
+            case DOUBLE:
+                return 'D';
+            case SPLIT:
+                return 'P';
+            case SURRENDER:
+                return 'R';
+            default:
+                return 'S';
+        }
+    }
+
+    private static int cell(int first, int second, int upRank) {
+        int low = Math.min(first, second);
+        int high = Math.max(first, second);
+        return (low * RANKS + high) * RANKS + upRank;
+    }
+}
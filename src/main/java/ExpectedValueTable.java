@@ -0,0 +1,99 @@
+/**
+ * Totals the results of hands by the player's starting total and the dealer's up-card.
+ * Filled per segment by ResultStore scans and merged afterwards.
+ */
+public class ExpectedValueTable {
+    private static final int TOTALS = 32;
+    private static final int CELLS = 2 * TOTALS * PackedCard.VALUE_RANKS;
+
+    private final long[] hands;
+    private final long[] netMilliUnits;
+
+    /**
+     * Creates an empty table.
+     */
+    public ExpectedValueTable() {
+        this.hands = new long[CELLS];
+        this.netMilliUnits = new long[CELLS];
+    }
+
+    /**
+     * Adds every row of a segment.
+     * @param segment The segment to add
+     */
+    public void add(ResultSegment segment) {
+        for (int row = 0, size = segment.size(); row < size; row++) {
+            int cell = cell(segment.getStartTotal(row), segment.isSoftStart(row), segment.getUpRank(row));
+            hands[cell]++;
+            netMilliUnits[cell] += segment.getNetMilliUnits(row);
+        }
+    }
+
+    /**
+     * Adds the totals of another table to this one.
+     * @param other The table to merge
+     * @return This table
+     */
+    public ExpectedValueTable merge(ExpectedValueTable other) {
+        for (int i = 0; i < CELLS; i++) {
+            hands[i] += other.hands[i];
+            netMilliUnits[i] += other.netMilliUnits[i];
+        }
+        return this;
+    }
+
+    /**
+     * Gets the number of hands that started from a total against an up-card.
+     * @param total The starting total
+     * @param soft Whether the starting total is soft
+     * @param upRank The value rank of the up-card
+     * @return The number of hands
+     */
+    public long getHands(int total, boolean soft, int upRank) {
+        return hands[cell(total, soft, upRank)];
+    }
+
+    /**
+     * Gets the average result of hands that started from a total against an up-card.
+     * @param total The starting total
+     * @param soft Whether the starting total is soft
+     * @param upRank The value rank of the up-card
+     * @return The average result in bets, or 0 if no hand started there
+     */
+    public double getExpectedValue(int total, boolean soft, int upRank) {
+        int cell = cell(total, soft, upRank);
+        return hands[cell] == 0 ? 0 : netMilliUnits[cell] / (double) Statistics.UNIT / hands[cell];
+    }
+
+    /**
+     * Formats the table with one line per starting total and one column per up-card.
+     * @return The formatted table
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder("Start ");
+        for (int up = 2; up <= 11; up++) {
+            text.append(String.format("%7s", up == 11 ? "A" : String.valueOf(up)));
+        }
+        text.append('\n');
+        for (int soft = 0; soft < 2; soft++) {
+            for (int total = 4; total <= 21; total++) {
+                long row = 0;
+                StringBuilder line = new StringBuilder(String.format("%-6s", (soft == 1 ? "S" : "H") + total));
+                for (int up = 1; up <= PackedCard.VALUE_RANKS; up++) {
+                    // Show the ace column last, as tables usually do
+                    int upRank = up % PackedCard.VALUE_RANKS;
+                    row += getHands(total, soft == 1, upRank);
+                    line.append(String.format("%+7.3f", getExpectedValue(total, soft == 1, upRank)));
+                }
+                if (row > 0) {
+                    text.append(line).append('\n');
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    private static int cell(int total, boolean soft, int upRank) {
+        return ((soft ? TOTALS : 0) + total) * PackedCard.VALUE_RANKS + upRank;
+    }
+}
@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents the main game logic and state.
@@ -6,12 +7,22 @@ import java.util.*;
  */
 public class Game {
     private final Deck deck;
+    private final RuleSet rules;
+    private final DealerStrategy dealerStrategy;
+    private final Settlement settlement;
     private final List<Player> players;
+    // Players who left when the game was last reset, reused by the next to join
+    private final List<Player> retiredPlayers;
+    private long[] seatNets;
     private Player dealer;
     private Player currentPlayer;
     private GameState gameState;
-    private int wins;
-    private int losses;
+    private final Statistics statistics;
+    private final List<GameListener> listeners;
+    private RoundRecorder recorder;
+    private long roundNumber;
+    // Only set while a Flight Recorder recording has round events enabled
+    private GameEvents.Round roundEvent;
 
     /**
      * Represents the possible states of the game.
@@ -22,16 +33,82 @@ public class Game {
         ROUND_OVER  // Round is complete
     }
 
+    /**
+     * Represents the result of a settled hand.
+     */
+    public enum Outcome {
+        WIN,      // The player is paid
+        LOSS,     // The player loses their bet
+        PUSH,     // The bet is returned
+        SURRENDER // The player gave up half their bet
+    }
+
     /**
      * Creates a new game with a deck and dealer.
      */
     public Game() {
-        this.deck = new Deck();
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Creates a new game whose deck shuffles with the given random source.
+     * Games created with equally seeded sources play out identically.
+     * @param random The random source used by the deck
+     */
+    public Game(RandomGenerator random) {
+        this(RuleSet.DEFAULT, random);
+    }
+
+    /**
+     * Creates a new game played by a table's rules.
+     * @param rules The rules of the table
+     * @param random The random source used by the shoe
+     */
+    public Game(RuleSet rules, RandomGenerator random) {
+        this(rules, random, null);
+    }
+
+    /**
+     * Creates a new game dealt from a multi-deck shoe.
+     * @param numberOfDecks The number of decks in the shoe, from 1 to 8
+     * @param penetration The fraction of the shoe dealt before reshuffling
+     * @param random The random source used by the shoe
+     */
+    public Game(int numberOfDecks, double penetration, RandomGenerator random) {
+        this(numberOfDecks, penetration, random, null);
+    }
+
+    /**
+     * Creates a new game whose statistics are rolled up into shared statistics,
+     * such as those of a whole server or simulation.
+     * @param numberOfDecks The number of decks in the shoe, from 1 to 8
+     * @param penetration The fraction of the shoe dealt before reshuffling
+     * @param random The random source used by the shoe
+     * @param parentStatistics The statistics to roll this table's up into, or null
+     */
+    public Game(int numberOfDecks, double penetration, RandomGenerator random, Statistics parentStatistics) {
+        this(RuleSet.DEFAULT.withNumberOfDecks(numberOfDecks).withPenetration(penetration), random, parentStatistics);
+    }
+
+    /**
+     * Creates a new game played by a table's rules, whose statistics are rolled up into shared statistics.
+     * The dealer's play and the payouts are fixed from the rules here, once.
+     * @param rules The rules of the table
+     * @param random The random source used by the shoe
+     * @param parentStatistics The statistics to roll this table's up into, or null
+     */
+    public Game(RuleSet rules, RandomGenerator random, Statistics parentStatistics) {
+        this.rules = rules;
+        this.dealerStrategy = DealerStrategy.of(rules);
+        this.settlement = new Settlement(rules);
+        this.deck = new Deck(rules.getNumberOfDecks(), rules.getPenetration(), random);
         this.players = new ArrayList<>();
+        this.retiredPlayers = new ArrayList<>();
+        this.seatNets = new long[0];
         this.dealer = new Player("Dealer", true);
         this.gameState = GameState.PLAYING;
-        this.wins = 0;
-        this.losses = 0;
+        this.statistics = new Statistics(parentStatistics);
+        this.listeners = new ArrayList<>();
     }
 
     /**
@@ -39,19 +116,113 @@ public class Game {
      * @param name The name of the player to add
      */
     public void addPlayer(String name) {
-        players.add(new Player(name, false));
+        Player player;
+        if (retiredPlayers.isEmpty()) {
+            player = new Player(name, false, statistics);
+        } else {
+            player = retiredPlayers.remove(retiredPlayers.size() - 1);
+            player.reset(name);
+        }
+        players.add(player);
+        if (seatNets.length < players.size()) {
+            seatNets = Arrays.copyOf(seatNets, players.size());
+        }
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).playerAdded(this, player);
+        }
+    }
+
+    /**
+     * Puts the game back the way it was created, so it can be reused for a new table.
+     * Every player leaves, but their objects and hands are kept for the next players to join.
+     * Listeners and the recorder are dropped, the shoe is reshuffled with no counters attached,
+     * and the statistics start again from zero; whatever they already rolled up into the
+     * parent statistics stays there.
+     */
+    void reset() {
+        listeners.clear();
+        recorder = null;
+        roundEvent = null;
+        for (int i = players.size() - 1; i >= 0; i--) {
+            retiredPlayers.add(players.get(i));
+        }
+        players.clear();
+        dealer.reset(dealer.getName());
+        currentPlayer = null;
+        gameState = GameState.PLAYING;
+        roundNumber = 0;
+        statistics.reset();
+        deck.clearCounters();
+        deck.reset();
+    }
+
+    /**
+     * Registers a listener to be told about changes to the game.
+     * @param listener The listener to add
+     */
+    public void addGameListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stops telling a listener about changes to the game.
+     * @param listener The listener to remove
+     */
+    public void removeGameListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sets the recorder that receives every event of every round, such as an event log.
+     * @param recorder The recorder, or null to stop recording
+     */
+    public void setRecorder(RoundRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Tells every listener that the game has changed.
+     */
+    private void fireGameChanged() {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).gameChanged(this);
+        }
     }
 
     /**
      * Starts a new round of the game.
-     * Resets the deck, clears hands, and deals initial cards.
+     * Clears hands, reshuffles the shoe if the cut card has come out, places every player's bet
+     * and deals initial cards.
+     * If the dealer peeks and has blackjack, the round ends before any player acts.
      */
     public void startNewRound() {
-        deck.reset();
+        roundEvent = GameEvents.beginRound();
         clearAllHands();
+        deck.reshuffleIfNeeded();
+        for (int i = 0; i < players.size(); i++) {
+            players.get(i).placeBet();
+        }
+        roundNumber++;
+        if (recorder != null) {
+            recorder.roundStarted(roundNumber, deck.getShoeSeed(), deck.getPosition());
+        }
         dealInitialCards();
         gameState = GameState.PLAYING;
         currentPlayer = players.get(0);
+        if (rules.isDealerPeek() && dealerHasBlackjack()) {
+            dealer.getHand().revealAllCards();
+            evaluateRound();
+        }
+        fireGameChanged();
+    }
+
+    /**
+     * Checks the dealer's two cards for blackjack, including the face-down card.
+     * @return true if the dealer has blackjack
+     */
+    private boolean dealerHasBlackjack() {
+        List<Card> cards = dealer.getHand().getCards();
+        return PackedCard.value(cards.get(0).getCode()) + PackedCard.value(cards.get(1).getCode()) == 21;
     }
 
     /**
@@ -71,68 +242,247 @@ public class Game {
     private void dealInitialCards() {
         // Deal two cards to each player
         for (Player player : players) {
-            player.getHand().addCard(deck.drawCard());
-            player.getHand().addCard(deck.drawCard());
+            player.getHand().addCard(drawCard());
+            player.getHand().addCard(drawCard());
         }
 
         // Deal two cards to dealer (second card face down)
-        dealer.getHand().addCard(deck.drawCard());
-        Card dealerSecondCard = deck.drawCard();
+        dealer.getHand().addCard(drawCard());
+        Card dealerSecondCard = drawCard();
         dealerSecondCard.setFaceUp(false);
         dealer.getHand().addCard(dealerSecondCard);
     }
 
+    /**
+     * Draws a card from the shoe and records it.
+     * @return The drawn card
+     */
+    private Card drawCard() {
+        if (recorder == null) {
+            return deck.drawCard();
+        }
+        boolean exhausted = deck.getRemainingCards() == 0;
+        Card card = deck.drawCard();
+        if (exhausted) {
+            // The shoe ran out mid-round and was shuffled again
+            recorder.shoeShuffled(deck.getShoeSeed());
+        }
+        recorder.cardDrawn(card.getCode());
+        return card;
+    }
+
     /**
      * Player hits (takes another card).
-     * If the player busts, the round ends.
+     * If the player busts, their turn ends.
      */
     public void hit() {
         if (gameState != GameState.PLAYING) return;
 
-        currentPlayer.getHand().addCard(deck.drawCard());
+        if (recorder != null) {
+            recorder.playerHit(players.indexOf(currentPlayer));
+        }
+        Hand hand = currentPlayer.getActiveHand();
+        hand.addCard(drawCard());
         
-        if (currentPlayer.getHand().isBust()) {
-            // If player busts, end the round immediately
-            gameState = GameState.ROUND_OVER;
-            losses++;
-            return;
+        if (hand.isBust()) {
+            // If player busts, this hand is over
+            nextHand();
+        }
+        fireGameChanged();
+    }
+
+    /**
+     * Player doubles down: doubles the bet, takes exactly one more card and ends the hand.
+     * Does nothing unless canDouble allows it.
+     */
+    public void doubleDown() {
+        if (!canDouble()) return;
+
+        if (recorder != null) {
+            recorder.playerDoubled(players.indexOf(currentPlayer));
+        }
+        Hand hand = currentPlayer.getActiveHand();
+        hand.setDoubled();
+        hand.addCard(drawCard());
+        nextHand();
+        fireGameChanged();
+    }
+
+    /**
+     * Player splits a pair into two hands, each dealt a second card.
+     * Split aces take one card each and can't act further.
+     * Does nothing unless canSplit allows it.
+     */
+    public void split() {
+        if (!canSplit()) return;
+
+        if (recorder != null) {
+            recorder.playerSplit(players.indexOf(currentPlayer));
+        }
+        Hand hand = currentPlayer.getActiveHand();
+        Hand newHand = currentPlayer.splitActiveHand();
+        hand.addCard(drawCard());
+        newHand.addCard(drawCard());
+        if (hand.isSplitAces()) {
+            nextHand();
+        }
+        fireGameChanged();
+    }
+
+    /**
+     * Player surrenders, giving up half the bet and ending their turn.
+     * Does nothing unless canSurrender allows it.
+     */
+    public void surrender() {
+        if (!canSurrender()) return;
+
+        if (recorder != null) {
+            recorder.playerSurrendered(players.indexOf(currentPlayer));
+        }
+        currentPlayer.getActiveHand().setSurrendered();
+        nextHand();
+        fireGameChanged();
+    }
+
+    /**
+     * Checks if the current player may double down on the hand they are playing.
+     * @return true if the hand has exactly two cards, and isn't split unless the rules allow doubling after a split
+     */
+    public boolean canDouble() {
+        if (gameState != GameState.PLAYING || currentPlayer == null) {
+            return false;
+        }
+        Hand hand = currentPlayer.getActiveHand();
+        return hand.getCards().size() == 2 && (!hand.isSplit() || rules.isDoubleAfterSplit());
+    }
+
+    /**
+     * Checks if the current player may split the hand they are playing.
+     * @return true if the hand is a pair and the player has a free hand slot
+     */
+    public boolean canSplit() {
+        return gameState == GameState.PLAYING && currentPlayer != null && currentPlayer.canSplit();
+    }
+
+    /**
+     * Checks if the current player may surrender.
+     * Only the first decision on the two dealt cards may be a surrender.
+     * @return true if the rules allow surrender and the player hasn't acted yet
+     */
+    public boolean canSurrender() {
+        return rules.isSurrender() && gameState == GameState.PLAYING && currentPlayer != null
+                && currentPlayer.getHandCount() == 1
+                && currentPlayer.getActiveHand().getCards().size() == 2;
+    }
+
+    /**
+     * Plays the current player's turn automatically.
+     * Asks the policy for an action until the player stays or busts.
+     * @param policy The policy that decides each action
+     */
+    public void playTurn(PlayerPolicy policy) {
+        if (gameState != GameState.PLAYING) return;
+
+        Player player = currentPlayer;
+        Card dealerUpCard = dealer.getHand().getCards().get(0);
+        while (gameState == GameState.PLAYING && currentPlayer == player) {
+            PlayerPolicy.Action action = policy.decide(player.getActiveHand(), dealerUpCard,
+                    canDouble(), canSplit(), canSurrender());
+            switch (action) {
+                case HIT:
+                    hit();
+                    break;
+                case DOUBLE:
+                    doubleDown();
+                    break;
+                case SPLIT:
+                    split();
+                    break;
+                case SURRENDER:
+                    surrender();
+                    break;
+                default:
+                    stay();
+                    break;
+            }
         }
     }
 
     /**
      * Player stays (ends their turn).
      * Moves to the next player or dealer's turn.
-     *
      */
     public void stay() {
         if (gameState != GameState.PLAYING) return;
-//        nextPlayer();
-        dealerTurn();
+        if (recorder != null) {
+            recorder.playerStayed(players.indexOf(currentPlayer));
+        }
+        nextHand();
+        fireGameChanged();
+    }
+
+    /**
+     * Moves to the current player's next hand that can still act,
+     * or to the next player once they have none left.
+     */
+    private void nextHand() {
+        while (currentPlayer.nextHand()) {
+            if (!currentPlayer.getActiveHand().isSplitAces()) {
+                return;
+            }
+        }
+        nextPlayer();
     }
 
     /**
      * Moves to the next player or dealer's turn.
-     * Was not used for this blackjack, could be implemented
+     * If every player has bust, the dealer doesn't play and the round ends.
      */
     private void nextPlayer() {
         int currentIndex = players.indexOf(currentPlayer);
         if (currentIndex < players.size() - 1) {
             currentPlayer = players.get(currentIndex + 1);
+        } else if (allPlayersBust()) {
+            // The dealer doesn't draw, but the hole card still settles surrenders
+            dealer.getHand().revealAllCards();
+            evaluateRound();
         } else {
             dealerTurn();
         }
     }
 
+    /**
+     * Checks if every player's hands have bust or been surrendered.
+     * @return true if no hand is left for the dealer to play against
+     */
+    private boolean allPlayersBust() {
+        for (Player player : players) {
+            for (int h = 0; h < player.getHandCount(); h++) {
+                Hand hand = player.getHand(h);
+                if (!hand.isBust() && !hand.isSurrendered()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     /**
      * Handles the dealer's turn.
-     * Dealer hits until their total is 17 or higher.
+     * Dealer hits until their total is 17 or higher, and on soft 17 if the rules say so.
      */
     private void dealerTurn() {
         gameState = GameState.DEALER_TURN;
         dealer.getHand().revealAllCards();
 
-        while (dealer.getHand().calculateValue() < 17) {
-            dealer.getHand().addCard(deck.drawCard());
+        GameEvents.DealerTurn event = GameEvents.beginDealerTurn();
+        int cardsDrawn = 0;
+        while (dealerStrategy.hits(dealer.getHand())) {
+            dealer.getHand().addCard(drawCard());
+            cardsDrawn++;
+        }
+        if (event != null) {
+            event.finish(cardsDrawn, dealer.getHand());
         }
 
         evaluateRound();
@@ -140,35 +490,99 @@ public class Game {
 
     /**
      * Evaluates the round and determines winners.
-     * Compares each player's hand to the dealer's hand.
+     * Compares each player's hand to the dealer's hand, then pays every seat in one pass.
      */
     private void evaluateRound() {
         int dealerValue = dealer.getHand().calculateValue();
         boolean dealerBust = dealer.getHand().isBust();
+        boolean dealerBlackjack = dealer.getHand().isBlackjack();
 
-        for (Player player : players) {
-            int playerValue = player.getHand().calculateValue();
-            boolean playerBust = player.getHand().isBust();
-            
-            if (playerBust) {
-                // Player busts, they lose
-                losses++;
-            } else if (dealerBust) {
-                // Dealer busts, player wins
-                wins++;
-            } else if (player.getHand().isBlackjack() && !dealer.getHand().isBlackjack()) {
-                // Player has blackjack and dealer doesn't
-                wins++;
-            } else if (playerValue > dealerValue) {
-                // Player's hand is higher than dealer's
-                wins++;
-            } else if (playerValue < dealerValue) {
-                // Player's hand is lower than dealer's
-                losses++;
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            Statistics stats = player.getStatistics();
+            long seatNet = 0;
+            for (int h = 0; h < player.getHandCount(); h++) {
+                Hand hand = player.getHand(h);
+                int playerValue = hand.calculateValue();
+                boolean playerBlackjack = hand.isBlackjack();
+                Outcome outcome;
+
+                if (playerBlackjack) {
+                    stats.recordBlackjack();
+                }
+
+                if (hand.isSurrendered() && !dealerBlackjack) {
+                    // Player gave up, half the bet is returned
+                    outcome = Outcome.SURRENDER;
+                } else if (hand.isSurrendered()) {
+                    // Without a peek, surrender comes too late to save half the bet from a blackjack
+                    outcome = Outcome.LOSS;
+                } else if (hand.isBust()) {
+                    // Player busts, they lose
+                    stats.recordBust();
+                    outcome = Outcome.LOSS;
+                } else if (dealerBust) {
+                    // Dealer busts, player wins
+                    outcome = Outcome.WIN;
+                } else if (playerBlackjack && !dealerBlackjack) {
+                    // Player has blackjack and dealer doesn't
+                    outcome = Outcome.WIN;
+                } else if (dealerBlackjack && !playerBlackjack) {
+                    // Dealer's blackjack beats any other 21, and every extra bet made against it
+                    outcome = Outcome.LOSS;
+                } else if (playerValue > dealerValue) {
+                    // Player's hand is higher than dealer's
+                    outcome = Outcome.WIN;
+                } else if (playerValue < dealerValue) {
+                    // Player's hand is lower than dealer's
+                    outcome = Outcome.LOSS;
+                } else {
+                    // Same value, the bet is returned
+                    outcome = Outcome.PUSH;
+                }
+
+                long net = settlement.net(hand, outcome);
+                seatNet += net;
+                if (net > 0) {
+                    stats.recordWin(net);
+                } else if (net < 0) {
+                    stats.recordLoss(-net);
+                } else {
+                    stats.recordPush();
+                }
+                if (recorder != null) {
+                    recorder.handSettled(i, h, outcome, net);
+                }
+                if (roundEvent != null) {
+                    roundEvent.handSettled(net);
+                }
             }
+            seatNets[i] = seatNet;
         }
+        settlement.pay(players, seatNets);
 
         gameState = GameState.ROUND_OVER;
+        if (recorder != null) {
+            recorder.roundEnded();
+        }
+        if (roundEvent != null) {
+            roundEvent.finish(roundNumber, players.size(), dealer.getHand());
+            roundEvent = null;
+        }
+    }
+
+    /**
+     * Counts the cards a player cannot see by value rank:
+     * the cards left in the shoe plus the dealer's face-down cards.
+     * @param counts Receives the counts, indexed as in PackedCard.valueRank
+     */
+    public void countUnseenCards(int[] counts) {
+        deck.countRemainingCards(counts);
+        for (Card card : dealer.getHand().getCards()) {
+            if (!card.isFaceUp()) {
+                counts[PackedCard.valueRank(card.getCode())]++;
+            }
+        }
     }
 
     /**
@@ -179,6 +593,38 @@ public class Game {
         return gameState;
     }
 
+    /**
+     * Gets the rules the game is played by.
+     * @return The table's rules
+     */
+    public RuleSet getRuleSet() {
+        return rules;
+    }
+
+    /**
+     * Gets the number of rounds started so far.
+     * @return The number of the current round, or 0 before the first round
+     */
+    public long getRoundNumber() {
+        return roundNumber;
+    }
+
+    /**
+     * Sets the number of rounds started so far, as when a table is restored from a journal.
+     * @param roundNumber The number of the last round started
+     */
+    void setRoundNumber(long roundNumber) {
+        this.roundNumber = roundNumber;
+    }
+
+    /**
+     * Gets the shoe the game deals from.
+     * @return The deck
+     */
+    public Deck getDeck() {
+        return deck;
+    }
+
     /**
      * Gets the current player.
      * @return The current player
@@ -195,6 +641,20 @@ public class Game {
         return dealer;
     }
 
+    /**
+     * Finds a player by name.
+     * @param name The name of the player
+     * @return The player, or null if no player has that name
+     */
+    public Player getPlayer(String name) {
+        for (Player player : players) {
+            if (player.getName().equals(name)) {
+                return player;
+            }
+        }
+        return null;
+    }
+
     /**
      * Gets all players in the game.
      * @return A list of all players
@@ -203,19 +663,35 @@ public class Game {
         return new ArrayList<>(players);
     }
 
+    /**
+     * Gets the statistics of every player at the table.
+     * @return The table's statistics
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
     /**
      * Gets the number of wins.
      * @return The number of wins
      */
-    public int getWins() {
-        return wins;
+    public long getWins() {
+        return statistics.getWins();
     }
 
     /**
      * Gets the number of losses.
      * @return The number of losses
      */
-    public int getLosses() {
-        return losses;
+    public long getLosses() {
+        return statistics.getLosses();
+    }
+
+    /**
+     * Gets the number of pushes.
+     * @return The number of pushes
+     */
+    public long getPushes() {
+        return statistics.getPushes();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,261 @@
+import jdk.jfr.*;
+
+import java.util.function.Supplier;
+
+/**
+ * JDK Flight Recorder events for the hot paths of a game and its window.
+ * Every event is disabled by default. Event classes are instrumented as they load,
+ * and escape analysis does not remove their objects, so hot paths begin events through
+ * the methods here: until Flight Recorder has been started they allocate nothing,
+ * costing one static read each.
+ * Enable the events with the settings in blackjack.jfc, for example:
+ * java -XX:StartFlightRecording:settings=default,settings=src/main/resources/blackjack.jfc,filename=game.jfr ...
+ */
+final class GameEvents {
+    private static final String CATEGORY = "Blackjack";
+
+    private GameEvents() {
+    }
+
+    /**
+     * Checks whether Flight Recorder has been started, by a command line option or by jcmd.
+     * @return true if events may be recorded
+     */
+    static boolean isRecording() {
+        return FlightRecorder.isInitialized();
+    }
+
+    /**
+     * Starts timing a round, if round events are being recorded.
+     * @return The begun event, or null if round events are disabled
+     */
+    static Round beginRound() {
+        return begin(Round::new);
+    }
+
+    /**
+     * Starts timing a shuffle, if shuffle events are being recorded.
+     * @return The begun event, or null if shuffle events are disabled
+     */
+    static Shuffle beginShuffle() {
+        return begin(Shuffle::new);
+    }
+
+    /**
+     * Starts timing the dealer's turn, if dealer turn events are being recorded.
+     * @return The begun event, or null if dealer turn events are disabled
+     */
+    static DealerTurn beginDealerTurn() {
+        return begin(DealerTurn::new);
+    }
+
+    /**
+     * Starts timing a refresh of the window, if UI update events are being recorded.
+     * @return The begun event, or null if UI update events are disabled
+     */
+    static UiUpdate beginUiUpdate() {
+        return begin(UiUpdate::new);
+    }
+
+    private static <T extends Event> T begin(Supplier<T> type) {
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        T event = type.get();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * A round, from dealing the first card to settling the last hand.
+     */
+    @Name("blackjack.Round")
+    @Label("Round")
+    @Description("A round from the deal to settlement, with its outcome")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Round extends Event {
+        @Label("Round Number")
+        long roundNumber;
+
+        @Label("Players")
+        int players;
+
+        @Label("Hands")
+        int hands;
+
+        @Label("Wins")
+        int wins;
+
+        @Label("Losses")
+        int losses;
+
+        @Label("Pushes")
+        int pushes;
+
+        @Label("Net Units")
+        @Description("The players' combined result, in bets")
+        double net;
+
+        @Label("Dealer Value")
+        int dealerValue;
+
+        @Label("Dealer Bust")
+        boolean dealerBust;
+
+        /**
+         * Counts one settled hand.
+         * @param net The hand's result in milli-units
+         */
+        void handSettled(long net) {
+            hands++;
+            if (net > 0) {
+                wins++;
+            } else if (net < 0) {
+                losses++;
+            } else {
+                pushes++;
+            }
+            this.net += (double) net / Statistics.UNIT;
+        }
+
+        /**
+         * Ends the round and commits it if it passes the recording's threshold.
+         * @param roundNumber The number of the round
+         * @param players The number of players dealt in
+         * @param dealerHand The dealer's final hand
+         */
+        void finish(long roundNumber, int players, Hand dealerHand) {
+            end();
+            if (shouldCommit()) {
+                this.roundNumber = roundNumber;
+                this.players = players;
+                this.dealerValue = dealerHand.calculateValue();
+                this.dealerBust = dealerHand.isBust();
+                commit();
+            }
+        }
+    }
+
+    /**
+     * A shuffle of the whole shoe.
+     */
+    @Name("blackjack.Shuffle")
+    @Label("Shuffle")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Shuffle extends Event {
+        @Label("Cards")
+        int cards;
+
+        /**
+         * Ends the shuffle and commits it if it passes the recording's threshold.
+         * @param cards The number of cards shuffled
+         */
+        void finish(int cards) {
+            end();
+            if (shouldCommit()) {
+                this.cards = cards;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * The dealer playing out their hand.
+     */
+    @Name("blackjack.DealerTurn")
+    @Label("Dealer Turn")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class DealerTurn extends Event {
+        @Label("Cards Drawn")
+        int cardsDrawn;
+
+        @Label("Dealer Value")
+        int dealerValue;
+
+        @Label("Bust")
+        boolean bust;
+
+        /**
+         * Ends the dealer's turn and commits it if it passes the recording's threshold.
+         * @param cardsDrawn The number of cards the dealer drew
+         * @param dealerHand The dealer's final hand
+         */
+        void finish(int cardsDrawn, Hand dealerHand) {
+            end();
+            if (shouldCommit()) {
+                this.cardsDrawn = cardsDrawn;
+                this.dealerValue = dealerHand.calculateValue();
+                this.bust = dealerHand.isBust();
+                commit();
+            }
+        }
+    }
+
+    /**
+     * The window refreshing its labels and buttons after the game changed.
+     */
+    @Name("blackjack.UiUpdate")
+    @Label("UI Update")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class UiUpdate extends Event {
+        @Label("Game State")
+        String gameState;
+
+        /**
+         * Ends the refresh and commits it if it passes the recording's threshold.
+         * @param gameState The state the window now shows
+         */
+        void finish(Game.GameState gameState) {
+            end();
+            if (shouldCommit()) {
+                this.gameState = gameState.name();
+                commit();
+            }
+        }
+    }
+
+    /**
+     * The time from a player's action in the window to the change being painted.
+     */
+    @Name("blackjack.ActionRender")
+    @Label("Action to Render")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class ActionRender extends Event {
+        @Label("Action")
+        String action;
+
+        @Label("Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        long latency;
+
+        /**
+         * Records an action's latency, if action to render events are being recorded.
+         * @param action The name of the action
+         * @param latency The time from the action to the change being painted, in nanoseconds
+         */
+        static void record(String action, long latency) {
+            if (!isRecording()) {
+                return;
+            }
+            ActionRender event = new ActionRender();
+            if (event.shouldCommit()) {
+                event.action = action;
+                event.latency = latency;
+                event.commit();
+            }
+        }
+    }
+}
@@ -1,7 +1,12 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class GameFrame extends JFrame implements GameListener {
+    private static final int AUTO_PLAY_REFRESH_MILLIS = 1000 / 30;
 
-public class GameFrame extends JFrame {
     private final Game game;
     private final JPanel mainPanel;
     private final HandPanel dealerPanel;
@@ -9,13 +14,61 @@ public class GameFrame extends JFrame {
     private final JPanel controlPanel;
     private final JLabel statusLabel;
     private final JLabel winLossLabel;
+    private final JLabel evLabel;
+    private final JLabel countLabel;
+    // A read-only window only watches its game, which is driven from elsewhere
+    private final boolean readOnly;
+    private final JButton hitButton;
+    private final JButton stayButton;
+    private final JButton doubleButton;
+    private final JButton splitButton;
+    private final JButton surrenderButton;
+    private final JButton newGameButton;
+    private final Metrics metrics;
+    private final DealerOutcomeCalculator outcomeCalculator;
+    private final int[] unseenCards;
+    private final CardCounter counter;
+
+    // Auto-play runs on its own game and thread; the EDT only polls its progress
+    private final ExecutorService autoPlayExecutor;
+    private final JSpinner autoPlayRounds;
+    private final JButton autoPlayButton;
+    private final JLabel autoPlayLabel;
+    private final Timer autoPlayTimer;
+    private AutoPlayer autoPlayer;
+
+    // Time from a button press to the change being painted, only touched on the EDT
+    private final LatencyHistogram renderLatencies;
 
     public GameFrame(String playerName) {
-        game = new Game();
-        game.addPlayer(playerName);
-        game.startNewRound();
+        this(newGame(playerName), "Blackjack - " + playerName, false);
+    }
+
+    /**
+     * Creates a read-only window that shows a game driven from elsewhere, such as a replay.
+     * The actions are disabled, since playing one would take the game away from whatever drives it.
+     * The game must already have its players and a round in progress.
+     * @param game The game to show
+     * @param title The title of the window
+     */
+    public GameFrame(Game game, String title) {
+        this(game, title, true);
+    }
 
-        setTitle("Blackjack - " + playerName);
+    private GameFrame(Game game, String title, boolean readOnly) {
+        this.game = game;
+        this.readOnly = readOnly;
+        metrics = new Metrics();
+        metrics.register("table", "local", game.getStatistics());
+        for (Player player : game.getPlayers()) {
+            metrics.register("player", player.getName(), player.getStatistics());
+        }
+        outcomeCalculator = new DealerOutcomeCalculator(4096, game.getRuleSet().isDealerHitsSoft17());
+        unseenCards = new int[PackedCard.VALUE_RANKS];
+        counter = game.getDeck().addCounter(CardCounter.CountingSystem.HI_LO);
+        renderLatencies = new LatencyHistogram();
+
+        setTitle(title);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
 
@@ -31,34 +84,46 @@ public class GameFrame extends JFrame {
         playersPanel = new JPanel();
         playersPanel.setLayout(new BoxLayout(playersPanel, BoxLayout.Y_AXIS));
         playersPanel.setBackground(new Color(0, 100, 0));
-        updatePlayersPanel();
+        for (Player player : game.getPlayers()) {
+            addPlayerPanel(player);
+        }
         mainPanel.add(playersPanel);
 
         // Control panel
         controlPanel = new JPanel();
         controlPanel.setBackground(new Color(0, 100, 0));
         
-        JButton hitButton = new JButton("Hit");
-        hitButton.addActionListener(e -> {
-            game.hit();
-            updateGame();
-        });
+        hitButton = new JButton("Hit");
+        hitButton.addActionListener(e -> act("hit", game::hit));
 
-        JButton stayButton = new JButton("Stay");
-        stayButton.addActionListener(e -> {
-            game.stay();
-            updateGame();
-        });
+        stayButton = new JButton("Stay");
+        stayButton.addActionListener(e -> act("stay", game::stay));
 
-        JButton newGameButton = new JButton("New Game");
-        newGameButton.addActionListener(e -> {
-            game.startNewRound();
-            updateGame();
-        });
+        doubleButton = new JButton("Double");
+        doubleButton.addActionListener(e -> act("double", game::doubleDown));
+
+        splitButton = new JButton("Split");
+        splitButton.addActionListener(e -> act("split", game::split));
+
+        surrenderButton = new JButton("Surrender");
+        surrenderButton.addActionListener(e -> act("surrender", game::surrender));
+
+        newGameButton = new JButton("New Game");
+        newGameButton.addActionListener(e -> act("new round", game::startNewRound));
 
         controlPanel.add(hitButton);
         controlPanel.add(stayButton);
+        controlPanel.add(doubleButton);
+        controlPanel.add(splitButton);
+        controlPanel.add(surrenderButton);
         controlPanel.add(newGameButton);
+        updateActionButtons();
+
+        // Expected value label
+        evLabel = new JLabel();
+        evLabel.setForeground(Color.WHITE);
+        controlPanel.add(evLabel);
+        updateEvLabel();
 
         // Status label
         statusLabel = new JLabel("Welcome to Blackjack!");
@@ -67,31 +132,110 @@ public class GameFrame extends JFrame {
         controlPanel.add(statusLabel);
 
         // Win/Loss label
-        winLossLabel = new JLabel("Wins: 0 | Losses: 0");
+        winLossLabel = new JLabel("Wins: 0 | Losses: 0 | Pushes: 0 | Bankroll: " + Bankroll.format(Bankroll.DEFAULT_BALANCE));
         winLossLabel.setForeground(Color.WHITE);
         controlPanel.add(winLossLabel);
 
+        // Count label, shown between rounds once every card on the table is face up
+        countLabel = new JLabel();
+        countLabel.setForeground(Color.WHITE);
+        controlPanel.add(countLabel);
+        updateCountLabel();
+
+        // Auto-play panel
+        JPanel autoPlayPanel = new JPanel();
+        autoPlayPanel.setBackground(new Color(0, 80, 0));
+        autoPlayRounds = new JSpinner(new SpinnerNumberModel(1_000_000, 1, Integer.MAX_VALUE, 100_000));
+        autoPlayButton = new JButton("Auto-play");
+        autoPlayButton.addActionListener(e -> toggleAutoPlay());
+        autoPlayLabel = new JLabel("Basic strategy on a separate table");
+        autoPlayLabel.setForeground(Color.WHITE);
+        autoPlayPanel.add(autoPlayRounds);
+        JLabel roundsLabel = new JLabel("rounds");
+        roundsLabel.setForeground(Color.WHITE);
+        autoPlayPanel.add(roundsLabel);
+        autoPlayPanel.add(autoPlayButton);
+        autoPlayPanel.add(autoPlayLabel);
+        autoPlayExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "auto-play");
+            thread.setDaemon(true);
+            return thread;
+        });
+        autoPlayTimer = new Timer(AUTO_PLAY_REFRESH_MILLIS, e -> updateAutoPlay());
+
+        add(autoPlayPanel, BorderLayout.NORTH);
         add(mainPanel, BorderLayout.CENTER);
         add(controlPanel, BorderLayout.SOUTH);
 
+        game.addGameListener(this);
+
+        // F12 prints the action to render latencies
+        getRootPane().registerKeyboardAction(e -> dumpRenderLatencies(),
+                KeyStroke.getKeyStroke(KeyEvent.VK_F12, 0), JComponent.WHEN_IN_FOCUSED_WINDOW);
+
         pack();
         setLocationRelativeTo(null);
         setVisible(true);
     }
 
-    private void updatePlayersPanel() {
-        playersPanel.removeAll();
-        for (Player player : game.getPlayers()) {
-            playersPanel.add(new HandPanel(player));
+    private static Game newGame(String playerName) {
+        Game game = new Game();
+        game.addPlayer(playerName);
+        game.startNewRound();
+        return game;
+    }
+
+    @Override
+    public void playerAdded(Game game, Player player) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            addPlayerPanel(player);
+        } else {
+            SwingUtilities.invokeLater(() -> addPlayerPanel(player));
+        }
+    }
+
+    @Override
+    public void gameChanged(Game game) {
+        // Hand panels follow their hands; only the labels need refreshing here
+        if (SwingUtilities.isEventDispatchThread()) {
+            updateGame();
+        } else {
+            SwingUtilities.invokeLater(this::updateGame);
         }
+    }
+
+    private void addPlayerPanel(Player player) {
+        playersPanel.add(new HandPanel(player));
         playersPanel.revalidate();
-        playersPanel.repaint();
+    }
+
+    /**
+     * Runs a player's action and measures how long it takes to show.
+     * Painting is queued on the EDT as the action changes components,
+     * so a task queued after the action runs once the change has been painted.
+     * @param action The name of the action
+     * @param move The action
+     */
+    private void act(String action, Runnable move) {
+        long start = System.nanoTime();
+        move.run();
+        SwingUtilities.invokeLater(() -> actionRendered(action, System.nanoTime() - start));
+    }
+
+    private void actionRendered(String action, long latency) {
+        renderLatencies.record(latency);
+        GameEvents.ActionRender.record(action, latency);
+    }
+
+    /**
+     * Prints the action to render latencies recorded so far.
+     */
+    private void dumpRenderLatencies() {
+        System.out.println("Action to render: " + renderLatencies.summary("ms", 1_000_000.0));
     }
 
     private void updateGame() {
-        dealerPanel.updateHand();
-        updatePlayersPanel();
-        
+        GameEvents.UiUpdate event = GameEvents.beginUiUpdate();
         if (game.getCurrentPlayer() != null) {
             switch (game.getGameState()) {
                 case PLAYING:
@@ -101,11 +245,86 @@ public class GameFrame extends JFrame {
                     statusLabel.setText("Dealer's turn");
                     break;
                 case ROUND_OVER:
-                    statusLabel.setText("Round over! Click 'New Game' to play again");
-                    winLossLabel.setText("Wins: " + game.getWins() + " | Losses: " + game.getLosses());
+                    statusLabel.setText(readOnly ? "Round over" : "Round over! Click 'New Game' to play again");
+                    winLossLabel.setText("Wins: " + game.getWins() + " | Losses: " + game.getLosses()
+                            + " | Pushes: " + game.getPushes()
+                            + " | Bankroll: " + Bankroll.format(game.getCurrentPlayer().getBankroll().getBalance()));
+                    updateCountLabel();
                     break;
             }
         }
+        updateActionButtons();
+        updateEvLabel();
+        if (event != null) {
+            event.finish(game.getGameState());
+        }
+    }
+
+    private void toggleAutoPlay() {
+        if (autoPlayer != null) {
+            autoPlayer.stop();
+            autoPlayButton.setEnabled(false);
+            return;
+        }
+        long rounds = ((Number) autoPlayRounds.getValue()).longValue();
+        AutoPlayer player = new AutoPlayer(game.getRuleSet(), new BasicStrategy(), "Auto-play");
+        autoPlayer = player;
+        autoPlayButton.setText("Stop");
+        autoPlayRounds.setEnabled(false);
+        autoPlayExecutor.execute(() -> player.run(rounds));
+        autoPlayTimer.start();
+    }
+
+    private void updateAutoPlay() {
+        AutoPlayProgress progress = autoPlayer.getProgress();
+        StatisticsSnapshot statistics = progress.getStatistics();
+        autoPlayLabel.setText(String.format("%,d / %,d rounds | %,.0f hands/sec | win rate %.1f%% | EV %+.3f | last %s",
+                progress.getRoundsPlayed(), progress.getRounds(), progress.getHandsPerSecond(),
+                100 * progress.getWinRate(), statistics.getExpectedValue(), progress.getLastHand()));
+        if (progress.isDone()) {
+            autoPlayTimer.stop();
+            autoPlayer = null;
+            autoPlayButton.setText("Auto-play");
+            autoPlayButton.setEnabled(true);
+            autoPlayRounds.setEnabled(true);
+        }
+    }
+
+    private void updateActionButtons() {
+        hitButton.setEnabled(!readOnly);
+        stayButton.setEnabled(!readOnly);
+        newGameButton.setEnabled(!readOnly);
+        doubleButton.setEnabled(!readOnly && game.canDouble());
+        splitButton.setEnabled(!readOnly && game.canSplit());
+        surrenderButton.setEnabled(!readOnly && game.canSurrender());
+    }
+
+    private void updateCountLabel() {
+        // The counter has already seen the dealer's hole card, so hide the count until it is turned over
+        if (game.getGameState() != Game.GameState.ROUND_OVER) {
+            countLabel.setText("Hi-Lo: -");
+            return;
+        }
+        countLabel.setText(String.format("Hi-Lo running: %+d | true: %+.1f",
+                counter.getRunningCount(), counter.getTrueCount()));
+    }
+
+    private void updateEvLabel() {
+        if (game.getGameState() != Game.GameState.PLAYING) {
+            evLabel.setText("");
+            return;
+        }
+
+        Hand hand = game.getCurrentPlayer().getActiveHand();
+        Card upCard = game.getDealer().getHand().getCards().get(0);
+        int upRank = PackedCard.valueRank(upCard.getCode());
+        game.countUnseenCards(unseenCards);
+
+        // A dealer who peeks and is still playing is known not to hold a blackjack
+        boolean noBlackjack = game.getRuleSet().isDealerPeek();
+        double stay = outcomeCalculator.standValue(unseenCards, upRank, hand.calculateValue(), noBlackjack);
+        double hit = outcomeCalculator.hitOnceValue(unseenCards, upRank, hand.calculateValue(), hand.isSoft(), noBlackjack);
+        evLabel.setText(String.format("EV stay: %+.3f | EV hit once: %+.3f", stay, hit));
     }
 
     public static void main(String[] args) {
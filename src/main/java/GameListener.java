@@ -0,0 +1,19 @@
+/**
+ * Receives changes to a game.
+ * Events are delivered on the thread that changed the game, right after the change.
+ */
+public interface GameListener {
+    /**
+     * Called after a player has joined the game.
+     * @param game The game that changed
+     * @param player The player that joined
+     */
+    void playerAdded(Game game, Player player);
+
+    /**
+     * Called after a round starts or a player acts, once the game has settled
+     * into its new state.
+     * @param game The game that changed
+     */
+    void gameChanged(Game game);
+}
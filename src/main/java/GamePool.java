@@ -0,0 +1,182 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/**
+ * Keeps idle games, with their shoes, players and hands, for reuse by new tables.
+ * Idle games sit in a fixed array of slots that threads claim and fill with
+ * compare-and-set, so the pool takes no locks and allocates nothing once warm.
+ * Each thread starts looking at a different slot, which keeps threads that
+ * open and close tables at the same time from fighting over the same slots.
+ * Games are reset when they are released, so an idle game holds no listeners,
+ * recorders or players.
+ */
+public class GamePool {
+    private final RuleSet rules;
+    private final Statistics parentStatistics;
+    private final AtomicReferenceArray<Game> idle;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder releases;
+    private final LongAdder discards;
+
+    /**
+     * Creates an empty pool.
+     * @param rules The rules of every game in the pool
+     * @param capacity The largest number of idle games kept
+     * @param parentStatistics The statistics every game's are rolled up into, or null
+     */
+    public GamePool(RuleSet rules, int capacity, Statistics parentStatistics) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.rules = rules;
+        this.parentStatistics = parentStatistics;
+        this.idle = new AtomicReferenceArray<>(capacity);
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.releases = new LongAdder();
+        this.discards = new LongAdder();
+    }
+
+    /**
+     * Takes an idle game, or creates one if none is idle.
+     * A reused game keeps shuffling with the random source it already has.
+     * @return A game with no players, owned by the caller until released
+     */
+    public Game acquire() {
+        Game game = takeIdle();
+        if (game != null) {
+            hits.increment();
+            return game;
+        }
+        misses.increment();
+        return new Game(rules, new SplittableRandom(), parentStatistics);
+    }
+
+    /**
+     * Takes an idle game, or creates one if none is idle, shuffling with the given random source.
+     * Two games acquired with equally seeded sources deal the same cards.
+     * @param random The random source for the game's shoe, owned by the game from now on
+     * @return A game with no players, owned by the caller until released
+     */
+    public Game acquire(RandomGenerator random) {
+        Game game = takeIdle();
+        if (game != null) {
+            hits.increment();
+            game.getDeck().setRandom(random);
+            return game;
+        }
+        misses.increment();
+        return new Game(rules, random, parentStatistics);
+    }
+
+    /**
+     * Resets a game and keeps it for reuse, or lets it go if the pool is full.
+     * The game must have come from this pool and must not be used after it is released.
+     * @param game The game to release
+     */
+    public void release(Game game) {
+        game.reset();
+        releases.increment();
+        int capacity = idle.length();
+        int start = startSlot(capacity);
+        for (int i = 0; i < capacity; i++) {
+            int slot = (start + i) % capacity;
+            if (idle.get(slot) == null && idle.compareAndSet(slot, null, game)) {
+                return;
+            }
+        }
+        discards.increment();
+    }
+
+    private Game takeIdle() {
+        int capacity = idle.length();
+        int start = startSlot(capacity);
+        for (int i = 0; i < capacity; i++) {
+            int slot = (start + i) % capacity;
+            Game game = idle.get(slot);
+            if (game != null && idle.compareAndSet(slot, game, null)) {
+                return game;
+            }
+        }
+        return null;
+    }
+
+    private static int startSlot(int capacity) {
+        return (int) (Thread.currentThread().getId() % capacity);
+    }
+
+    /**
+     * Gets the rules of the games in the pool.
+     * @return The rules
+     */
+    public RuleSet getRuleSet() {
+        return rules;
+    }
+
+    /**
+     * Gets the number of acquires that reused an idle game.
+     * @return The number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of acquires that had to create a game.
+     * @return The number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the fraction of acquires that reused an idle game.
+     * @return The hit rate, from 0 to 1, or 0 before the first acquire
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Gets the number of games acquired and not yet released.
+     * @return The games in use
+     */
+    public long getOutstanding() {
+        return getHits() + getMisses() - releases.sum();
+    }
+
+    /**
+     * Gets the number of released games let go because every slot was full.
+     * A growing number means the pool is too small for the tables that come and go.
+     * @return The number of discarded games
+     */
+    public long getDiscards() {
+        return discards.sum();
+    }
+
+    /**
+     * Counts the idle games waiting in the pool.
+     * Only a rough count while other threads use the pool.
+     * @return The number of idle games
+     */
+    public int getIdle() {
+        int count = 0;
+        for (int i = 0; i < idle.length(); i++) {
+            if (idle.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d hitRate=%.3f outstanding=%d idle=%d discards=%d",
+                getHits(), getMisses(), getHitRate(), getOutstanding(), getIdle(), getDiscards());
+    }
+}
@@ -3,23 +3,103 @@ import java.util.*;
 /**
  * Represents a hand of cards in the game.
  * Handles card management and value calculation.
+ * The value is kept up to date as cards are added, so every value query is O(1).
  */
 public class Hand {
     private final List<Card> cards;
+    private final List<Card> cardsView;
+    private final List<HandListener> listeners;
+
+    // Running totals of face-up cards, counting every ace as 1
+    private int visibleTotal;
+    private int visibleAces;
+
+    // Running totals of face-down cards, counting every ace as 1
+    private int hiddenTotal;
+    private int hiddenAces;
+
+    // How the hand was played
+    private boolean split;
+    private boolean doubled;
+    private boolean surrendered;
 
     /**
      * Creates an empty hand.
      */
     public Hand() {
         this.cards = new ArrayList<>();
+        this.cardsView = Collections.unmodifiableList(cards);
+        this.listeners = new ArrayList<>();
+    }
+
+    /**
+     * Registers a listener to be told about changes to the hand.
+     * @param listener The listener to add
+     */
+    public void addHandListener(HandListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stops telling a listener about changes to the hand.
+     * @param listener The listener to remove
+     */
+    public void removeHandListener(HandListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stops telling every listener about changes to the hand.
+     */
+    void clearListeners() {
+        listeners.clear();
     }
 
     /**
      * Adds a card to the hand.
+     * Face-down cards must be turned over with revealAllCards so the value stays correct.
      * @param card The card to add
      */
     public void addCard(Card card) {
         cards.add(card);
+
+        boolean ace = card.getRank() == Card.Rank.ACE;
+        int value = ace ? 1 : card.getValue();
+        if (card.isFaceUp()) {
+            visibleTotal += value;
+            if (ace) visibleAces++;
+        } else {
+            hiddenTotal += value;
+            if (ace) hiddenAces++;
+        }
+
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).cardAdded(this, card, cards.size() - 1);
+        }
+    }
+
+    /**
+     * Takes the last card out of the hand, as when a pair is split.
+     * @return The removed card
+     */
+    Card removeLastCard() {
+        int index = cards.size() - 1;
+        Card card = cards.remove(index);
+
+        boolean ace = card.getRank() == Card.Rank.ACE;
+        int value = ace ? 1 : card.getValue();
+        if (card.isFaceUp()) {
+            visibleTotal -= value;
+            if (ace) visibleAces--;
+        } else {
+            hiddenTotal -= value;
+            if (ace) hiddenAces--;
+        }
+
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).cardRemoved(this, index);
+        }
+        return card;
     }
 
     /**
@@ -27,48 +107,43 @@ public class Hand {
      */
     public void clear() {
         cards.clear();
+        visibleTotal = 0;
+        visibleAces = 0;
+        hiddenTotal = 0;
+        hiddenAces = 0;
+        split = false;
+        doubled = false;
+        surrendered = false;
+
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).handCleared(this);
+        }
     }
 
     /**
      * Gets all cards in the hand.
+     * The list is a read-only view that follows later changes to the hand.
      * @return A list of cards in the hand
      */
     public List<Card> getCards() {
-        return new ArrayList<>(cards);
+        return cardsView;
     }
 
     /**
-     * Calculates the value of the hand.
-     * Aces are counted as 11 if it doesn't cause a bust, otherwise as 1.
+     * Calculates the value of the face-up cards in the hand.
+     * One ace is counted as 11 if it doesn't cause a bust, all others as 1.
      * @return The total value of the hand
      */
     public int calculateValue() {
-        int value = 0;
-        int aces = 0;
-
-        // First pass: count all non-ace cards
-        for (Card card : cards) {
-            if (card.isFaceUp()) {
-                if (card.getRank() == Card.Rank.ACE) {
-                    aces++;
-                } else {
-                    value += card.getValue();
-                }
-            }
-        }
-
-        // Second pass: handle aces
-        for (int i = 0; i < aces; i++) {
-            // If adding 11 would keep us under 21, use 11
-            if (value + 11 <= 21) {
-                value += 11;
-            } else {
-                // Otherwise use 1
-                value += 1;
-            }
-        }
+        return isSoft() ? visibleTotal + 10 : visibleTotal;
+    }
 
-        return value;
+    /**
+     * Checks if the hand is soft (an ace is counted as 11).
+     * @return true if an ace is counted as 11, false otherwise
+     */
+    public boolean isSoft() {
+        return visibleAces > 0 && visibleTotal <= 11;
     }
 
     /**
@@ -76,23 +151,87 @@ public class Hand {
      * @return true if the hand value is over 21, false otherwise
      */
     public boolean isBust() {
-        return calculateValue() > 21;
+        return visibleTotal > 21;
     }
 
     /**
      * Checks if the hand is a blackjack (Ace + 10-value card).
+     * A split hand that makes 21 with two cards is not a blackjack.
      * @return true if the hand is a blackjack, false otherwise
      */
     public boolean isBlackjack() {
-        return cards.size() == 2 && calculateValue() == 21;
+        return cards.size() == 2 && calculateValue() == 21 && !split;
+    }
+
+    /**
+     * Checks if the hand is two cards of the same value, which can be split.
+     * @return true if the hand is a pair, false otherwise
+     */
+    public boolean isPair() {
+        return cards.size() == 2 && cards.get(0).getValue() == cards.get(1).getValue();
+    }
+
+    /**
+     * Checks if the hand was made by splitting a pair.
+     * @return true if the hand is one half of a split pair
+     */
+    public boolean isSplit() {
+        return split;
+    }
+
+    /**
+     * Checks if the hand was made by splitting aces, which take one card each and can't act.
+     * @return true if the hand is one half of a pair of split aces
+     */
+    public boolean isSplitAces() {
+        return split && cards.get(0).getRank() == Card.Rank.ACE;
+    }
+
+    /**
+     * Checks if the bet on the hand was doubled.
+     * @return true if the player doubled down on the hand
+     */
+    public boolean isDoubled() {
+        return doubled;
+    }
+
+    /**
+     * Checks if the hand was surrendered for half its bet.
+     * @return true if the player surrendered the hand
+     */
+    public boolean isSurrendered() {
+        return surrendered;
+    }
+
+    void setSplit() {
+        split = true;
+    }
+
+    void setDoubled() {
+        doubled = true;
+    }
+
+    void setSurrendered() {
+        surrendered = true;
     }
 
     /**
      * Reveals all cards in the hand by setting them face up.
      */
     public void revealAllCards() {
-        for (Card card : cards) {
-            card.setFaceUp(true);
+        visibleTotal += hiddenTotal;
+        visibleAces += hiddenAces;
+        hiddenTotal = 0;
+        hiddenAces = 0;
+
+        for (int i = 0; i < cards.size(); i++) {
+            Card card = cards.get(i);
+            if (!card.isFaceUp()) {
+                card.setFaceUp(true);
+                for (int j = 0; j < listeners.size(); j++) {
+                    listeners.get(j).cardRevealed(this, i);
+                }
+            }
         }
     }
-} 
\ No newline at end of file
+}
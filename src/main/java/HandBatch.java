@@ -0,0 +1,223 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Values many hands at once, laid out as a structure of arrays: the packed codes of
+ * every hand's cards one after another in a flat byte array, with each hand's offset into it.
+ * Evaluation is two branch-free passes with no objects to follow: a running sum over
+ * every card, then one step per hand that subtracts the sums at its ends, so no loop
+ * depends on how many cards a hand holds. It gives exactly what Hand's calculateValue,
+ * isSoft, isBust and isBlackjack give.
+ * Only face-up cards are counted, as in Hand. Not thread-safe.
+ */
+public class HandBatch {
+    // Result flags, one byte per hand
+    public static final byte SOFT = 1;
+    public static final byte BUST = 2;
+    public static final byte BLACKJACK = 4;
+
+    // A face-up ace in a card's packed contribution to its hand's sum
+    private static final int ACE_SHIFT = 16;
+    private static final int HARD_MASK = (1 << ACE_SHIFT) - 1;
+    // What each packed code adds to its hand's sum
+    private static final int[] CONTRIBUTIONS = new int[256];
+
+    static {
+        for (int code = 0; code < CONTRIBUTIONS.length; code++) {
+            CONTRIBUTIONS[code] = contribution((byte) code);
+        }
+    }
+
+    private byte[] cards;
+    private int[] offsets;
+    private boolean[] split;
+    private int[] sums;
+    private byte[] values;
+    private byte[] flags;
+    private int handCount;
+
+    /**
+     * Creates an empty batch.
+     * @param hands The number of hands to make room for, grown as needed
+     * @param cardsPerHand The average number of cards per hand to make room for
+     */
+    public HandBatch(int hands, int cardsPerHand) {
+        this.cards = new byte[Math.max(1, hands * cardsPerHand)];
+        this.sums = new int[cards.length + 1];
+        this.offsets = new int[hands + 1];
+        this.split = new boolean[Math.max(1, hands)];
+        this.values = new byte[Math.max(1, hands)];
+        this.flags = new byte[Math.max(1, hands)];
+    }
+
+    /**
+     * Removes every hand, keeping the arrays for reuse.
+     */
+    public void clear() {
+        handCount = 0;
+    }
+
+    /**
+     * Adds a copy of a hand's cards.
+     * @param hand The hand to add
+     */
+    public void add(Hand hand) {
+        List<Card> handCards = hand.getCards();
+        int start = offsets[handCount];
+        ensureCapacity(start + handCards.size());
+        for (int i = 0; i < handCards.size(); i++) {
+            cards[start + i] = handCards.get(i).getCode();
+        }
+        split[handCount] = hand.isSplit();
+        offsets[++handCount] = start + handCards.size();
+    }
+
+    /**
+     * Adds a hand of packed cards.
+     * @param codes The packed card codes
+     * @param from The index of the hand's first card in codes
+     * @param length The number of cards in the hand
+     * @param isSplit true if the hand was made by splitting a pair, so 21 with two cards is not a blackjack
+     */
+    public void add(byte[] codes, int from, int length, boolean isSplit) {
+        int start = offsets[handCount];
+        ensureCapacity(start + length);
+        System.arraycopy(codes, from, cards, start, length);
+        split[handCount] = isSplit;
+        offsets[++handCount] = start + length;
+    }
+
+    /**
+     * Values every hand in the batch, for the getters to read.
+     */
+    public void evaluate() {
+        evaluate(cards, offsets, split, handCount, sums, values, flags);
+    }
+
+    /**
+     * Values hands laid out as a structure of arrays.
+     * Hand h holds cards[offsets[h]] up to but not including cards[offsets[h + 1]].
+     * @param cards The packed codes of every hand's cards
+     * @param offsets The offset of each hand's first card, followed by the end of the last hand
+     * @param split Whether each hand was made by splitting a pair, or null if none were
+     * @param hands The number of hands
+     * @param sums Scratch space for the running sum, at least offsets[hands] + 1 long
+     * @param values Receives each hand's value, as Hand.calculateValue, read as an unsigned byte
+     * @param flags Receives each hand's SOFT, BUST and BLACKJACK flags
+     */
+    public static void evaluate(byte[] cards, int[] offsets, boolean[] split, int hands,
+                                int[] sums, byte[] values, byte[] flags) {
+        int first = offsets[0];
+        int last = offsets[hands];
+        int sum = 0;
+        sums[first] = 0;
+        for (int i = first; i < last; i++) {
+            sum += CONTRIBUTIONS[cards[i] & 0xFF];
+            sums[i + 1] = sum;
+        }
+
+        int end = first;
+        for (int h = 0; h < hands; h++) {
+            int start = end;
+            end = offsets[h + 1];
+            int handSum = sums[end] - sums[start];
+            int hard = handSum & HARD_MASK;
+            int aces = handSum >>> ACE_SHIFT;
+
+            // Same rules as Hand: one ace counts as 11 if it doesn't bust the hand.
+            // The tests are sign bits rather than branches, so a random mix of hands mispredicts nothing.
+            int soft = (-aces >>> 31) & ((hard - 12) >>> 31);
+            int value = hard + 10 * soft;
+            int bust = (21 - hard) >>> 31;
+            int notSplit = split == null || !split[h] ? 1 : 0;
+            int blackjack = isZero(end - start - 2) & isZero(value - 21) & notSplit;
+            values[h] = (byte) value;
+            flags[h] = (byte) (soft * SOFT | bust * BUST | blackjack * BLACKJACK);
+        }
+    }
+
+    /**
+     * Gives 1 for zero and 0 for any other value, without branching.
+     */
+    private static int isZero(int value) {
+        return ((value - 1) & ~value) >>> 31;
+    }
+
+    /**
+     * Gets what a card adds to its hand's sum: its value with an ace as 1
+     * in the low bits, plus one at ACE_SHIFT for an ace. Face-down cards add nothing.
+     */
+    private static int contribution(byte code) {
+        int rank = code & PackedCard.RANK_MASK;
+        int faceUp = (code & PackedCard.FACE_UP) >>> 6;
+        // Ace is rank 0, so rank + 1 is the value of every card below ten
+        int hard = Math.min(rank + 1, 10);
+        int ace = (rank - 1) >>> 31;
+        return (hard | ace << ACE_SHIFT) * faceUp;
+    }
+
+    /**
+     * Gets the number of hands in the batch.
+     * @return The number of hands
+     */
+    public int size() {
+        return handCount;
+    }
+
+    /**
+     * Gets the value of a hand, as of the last evaluate.
+     * @param hand The index of the hand, in the order it was added
+     * @return The value of the hand
+     */
+    public int getValue(int hand) {
+        return values[checkIndex(hand)] & 0xFF;
+    }
+
+    /**
+     * Checks if a hand is soft, as of the last evaluate.
+     * @param hand The index of the hand, in the order it was added
+     * @return true if an ace is counted as 11
+     */
+    public boolean isSoft(int hand) {
+        return (flags[checkIndex(hand)] & SOFT) != 0;
+    }
+
+    /**
+     * Checks if a hand is bust, as of the last evaluate.
+     * @param hand The index of the hand, in the order it was added
+     * @return true if the hand value is over 21
+     */
+    public boolean isBust(int hand) {
+        return (flags[checkIndex(hand)] & BUST) != 0;
+    }
+
+    /**
+     * Checks if a hand is a blackjack, as of the last evaluate.
+     * @param hand The index of the hand, in the order it was added
+     * @return true if the hand is a blackjack
+     */
+    public boolean isBlackjack(int hand) {
+        return (flags[checkIndex(hand)] & BLACKJACK) != 0;
+    }
+
+    private int checkIndex(int hand) {
+        if (hand < 0 || hand >= handCount) {
+            throw new IndexOutOfBoundsException("Index " + hand + " out of bounds for size " + handCount);
+        }
+        return hand;
+    }
+
+    private void ensureCapacity(int cardCount) {
+        if (cardCount > cards.length) {
+            cards = Arrays.copyOf(cards, Math.max(cards.length * 2, cardCount));
+            sums = new int[cards.length + 1];
+        }
+        if (handCount + 1 >= offsets.length) {
+            int hands = offsets.length * 2;
+            offsets = Arrays.copyOf(offsets, hands + 1);
+            split = Arrays.copyOf(split, hands);
+            values = Arrays.copyOf(values, hands);
+            flags = Arrays.copyOf(flags, hands);
+        }
+    }
+}
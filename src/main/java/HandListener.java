@@ -0,0 +1,33 @@
+/**
+ * Receives changes to a hand.
+ * Events are delivered on the thread that changed the hand, right after the change.
+ */
+public interface HandListener {
+    /**
+     * Called after a card has been added to the hand.
+     * @param hand The hand that changed
+     * @param card The card that was added
+     * @param index The position of the card in the hand
+     */
+    void cardAdded(Hand hand, Card card, int index);
+
+    /**
+     * Called after the last card has been taken out of the hand, as when a pair is split.
+     * @param hand The hand that changed
+     * @param index The position the card had in the hand
+     */
+    void cardRemoved(Hand hand, int index);
+
+    /**
+     * Called after a face-down card in the hand has been turned face up.
+     * @param hand The hand that changed
+     * @param index The position of the card in the hand
+     */
+    void cardRevealed(Hand hand, int index);
+
+    /**
+     * Called after every card has been removed from the hand.
+     * @param hand The hand that changed
+     */
+    void handCleared(Hand hand);
+}
@@ -1,11 +1,21 @@
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
 
-public class HandPanel extends JPanel {
+/**
+ * Shows one player's hands.
+ * Listens to the hands and only adds, flips or removes the cards that changed,
+ * so a table with many seats doesn't relayout on every action.
+ * Each of the player's hand slots has its own row of cards, shown once a pair is split into it.
+ */
+public class HandPanel extends JPanel implements HandListener {
     private final Player player;
     private final JLabel nameLabel;
     private final JLabel valueLabel;
     private final JPanel cardsPanel;
+    private final JPanel[] handPanels;
+    // The latest hands captured off the EDT and not yet shown, guarded by this
+    private Snapshot pendingSnapshot;
 
     public HandPanel(Player player) {
         this.player = player;
@@ -28,36 +38,205 @@ public class HandPanel extends JPanel {
         infoPanel.add(nameLabel);
         infoPanel.add(valueLabel);
 
-        // Create panel for cards
-        cardsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
+        // Create panel for cards, with one row of cards per hand slot
+        cardsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 30, 0));
         cardsPanel.setBackground(new Color(0, 100, 0));
+        handPanels = new JPanel[Player.MAX_HANDS];
+        for (int i = 0; i < handPanels.length; i++) {
+            handPanels[i] = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
+            handPanels[i].setBackground(new Color(0, 100, 0));
+            cardsPanel.add(handPanels[i]);
+        }
 
         add(infoPanel, BorderLayout.NORTH);
         add(cardsPanel, BorderLayout.CENTER);
 
         updateHand();
+        for (int i = 0; i < Player.MAX_HANDS; i++) {
+            player.getHandSlot(i).addHandListener(this);
+        }
+    }
+
+    @Override
+    public void cardAdded(Hand hand, Card card, int index) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            scheduleUpdate();
+            return;
+        }
+        JPanel handPanel = handPanels[slotOf(hand)];
+        handPanel.add(new CardPanel(card));
+        handPanel.setVisible(true);
+        cardsPanel.revalidate();
+        updateValueLabel();
+    }
+
+    @Override
+    public void cardRemoved(Hand hand, int index) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            scheduleUpdate();
+            return;
+        }
+        JPanel handPanel = handPanels[slotOf(hand)];
+        handPanel.remove(index);
+        handPanel.revalidate();
+        handPanel.repaint();
+        updateValueLabel();
+    }
+
+    @Override
+    public void cardRevealed(Hand hand, int index) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            scheduleUpdate();
+            return;
+        }
+        // Only the flipped card needs repainting
+        handPanels[slotOf(hand)].getComponent(index).repaint();
+        updateValueLabel();
+    }
+
+    @Override
+    public void handCleared(Hand hand) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            scheduleUpdate();
+            return;
+        }
+        int slot = slotOf(hand);
+        handPanels[slot].removeAll();
+        // The first hand keeps its place so the table doesn't jump between rounds
+        handPanels[slot].setVisible(slot == 0);
+        cardsPanel.revalidate();
+        cardsPanel.repaint();
+        updateValueLabel();
+    }
+
+    private int slotOf(Hand hand) {
+        for (int i = 0; i < Player.MAX_HANDS; i++) {
+            if (player.getHandSlot(i) == hand) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Not one of " + player.getName() + "'s hands");
     }
 
+    /**
+     * Rebuilds the panel on the event dispatch thread after the hand was changed from another thread.
+     * The hands are copied on the thread that changed them, which owns them, so the EDT never
+     * reads a hand while it changes. Several changes in a row are coalesced into one rebuild
+     * showing the latest copy.
+     */
+    private void scheduleUpdate() {
+        Snapshot snapshot = capture();
+        synchronized (this) {
+            boolean scheduled = pendingSnapshot != null;
+            pendingSnapshot = snapshot;
+            if (scheduled) {
+                return;
+            }
+        }
+        SwingUtilities.invokeLater(() -> {
+            Snapshot latest;
+            synchronized (this) {
+                latest = pendingSnapshot;
+                pendingSnapshot = null;
+            }
+            show(latest);
+        });
+    }
+
+    /**
+     * Rebuilds every card in the panel from the player's hands.
+     * Only called on the thread that plays the game; the cards shown are the hands' own,
+     * so turning one over only needs a repaint.
+     */
     public void updateHand() {
-        cardsPanel.removeAll();
-        Hand hand = player.getHand();
+        clearHands(player.getHandCount());
+        for (int i = 0; i < player.getHandCount(); i++) {
+            List<Card> cards = player.getHand(i).getCards();
+            for (Card card : cards) {
+                handPanels[i].add(new CardPanel(card));
+            }
+        }
+
+        updateValueLabel();
+        revalidate();
+        repaint();
+    }
 
-        for (int i = 0; i < hand.getCards().size(); i++) {
-            cardsPanel.add(new CardPanel(hand.getCards().get(i)));
+    /**
+     * Copies what the panel shows of the player's hands.
+     */
+    private Snapshot capture() {
+        byte[][] hands = new byte[player.getHandCount()][];
+        for (int i = 0; i < hands.length; i++) {
+            List<Card> cards = player.getHand(i).getCards();
+            hands[i] = new byte[cards.size()];
+            for (int j = 0; j < cards.size(); j++) {
+                hands[i][j] = cards.get(j).getCode();
+            }
         }
+        return new Snapshot(hands, valueText());
+    }
 
-        if (hand.getCards().size() > 0) {
-            valueLabel.setText("Value: " + hand.calculateValue());
-            if (hand.isBust()) {
-                valueLabel.setText(valueLabel.getText() + " (BUST)");
-            } else if (hand.isBlackjack()) {
-                valueLabel.setText(valueLabel.getText() + " (BLACKJACK)");
+    /**
+     * Rebuilds every card in the panel from copied hands, with cards of its own.
+     */
+    private void show(Snapshot snapshot) {
+        clearHands(snapshot.hands.length);
+        for (int i = 0; i < snapshot.hands.length; i++) {
+            for (byte code : snapshot.hands[i]) {
+                handPanels[i].add(new CardPanel(new Card(code)));
             }
-        } else {
-            valueLabel.setText("");
         }
 
+        valueLabel.setText(snapshot.value);
         revalidate();
         repaint();
     }
-} 
\ No newline at end of file
+
+    private void clearHands(int handCount) {
+        for (int i = 0; i < Player.MAX_HANDS; i++) {
+            handPanels[i].removeAll();
+            handPanels[i].setVisible(i == 0 || i < handCount);
+        }
+    }
+
+    private void updateValueLabel() {
+        valueLabel.setText(valueText());
+    }
+
+    private String valueText() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < player.getHandCount(); i++) {
+            Hand hand = player.getHand(i);
+            if (hand.getCards().isEmpty()) {
+                continue;
+            }
+            text.append(text.length() == 0 ? "Value: " : " | ");
+            text.append(hand.calculateValue());
+            if (hand.isSurrendered()) {
+                text.append(" (SURRENDERED)");
+            } else if (hand.isBust()) {
+                text.append(" (BUST)");
+            } else if (hand.isBlackjack()) {
+                text.append(" (BLACKJACK)");
+            }
+            if (hand.isDoubled()) {
+                text.append(" (DOUBLED)");
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * The player's hands as packed card codes, and their value text, at one moment.
+     */
+    private static final class Snapshot {
+        private final byte[][] hands;
+        private final String value;
+
+        Snapshot(byte[][] hands, String value) {
+            this.hands = hands;
+            this.value = value;
+        }
+    }
+}
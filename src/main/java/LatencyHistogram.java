@@ -0,0 +1,130 @@
+import java.util.Arrays;
+
+/**
+ * Records latencies into log-linear buckets, in the style of HdrHistogram.
+ * Values are kept to within about 3% with a fixed-size array, so recording never allocates.
+ * Not thread-safe: record from one thread and merge histograms afterwards.
+ */
+public class LatencyHistogram {
+    // Each power of two is split into 32 buckets
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+
+    private final long[] counts;
+    private long totalCount;
+    private long max;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        this.counts = new long[BUCKETS];
+    }
+
+    /**
+     * Records a value.
+     * @param value The value to record, for example a latency in nanoseconds
+     */
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("value must not be negative");
+        }
+        counts[index(value)]++;
+        totalCount++;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds all values recorded by another histogram.
+     * @param other The histogram to merge into this one
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Removes all recorded values.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        max = 0;
+    }
+
+    /**
+     * Gets the value at a percentile.
+     * @param percentile The percentile, from 0 to 100
+     * @return The highest value in the bucket holding the percentile, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Gets the number of recorded values.
+     * @return The number of values
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Gets the largest recorded value.
+     * @return The largest value, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Formats the common percentiles, scaling values by a unit.
+     * @param unitName The name of the unit, for example "us"
+     * @param unitScale The number of recorded units per displayed unit
+     * @return A one-line summary
+     */
+    public String summary(String unitName, double unitScale) {
+        return String.format("count=%d p50=%.1f%s p90=%.1f%s p99=%.1f%s p99.9=%.1f%s max=%.1f%s",
+                totalCount,
+                getValueAtPercentile(50) / unitScale, unitName,
+                getValueAtPercentile(90) / unitScale, unitName,
+                getValueAtPercentile(99) / unitScale, unitName,
+                getValueAtPercentile(99.9) / unitScale, unitName,
+                max / unitScale, unitName);
+    }
+
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    private static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / HALF_SUB_BUCKETS - 1;
+        long top = index - shift * HALF_SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
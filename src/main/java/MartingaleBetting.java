@@ -0,0 +1,29 @@
+/**
+ * Doubles the bet after every losing round and goes back to the base bet after
+ * any other round, up to the table maximum.
+ */
+public class MartingaleBetting implements BettingPolicy {
+    private final long baseBet;
+    private final long maximumBet;
+
+    /**
+     * Creates a Martingale progression.
+     * @param baseBet The bet after a win or push, in minor units
+     * @param maximumBet The table maximum the progression stops at, in minor units
+     */
+    public MartingaleBetting(long baseBet, long maximumBet) {
+        if (baseBet <= 0 || maximumBet < baseBet) {
+            throw new IllegalArgumentException("baseBet must be positive and no more than maximumBet");
+        }
+        this.baseBet = baseBet;
+        this.maximumBet = maximumBet;
+    }
+
+    @Override
+    public long nextBet(Bankroll bankroll) {
+        if (bankroll.getLastResult() < 0) {
+            return Math.min(maximumBet, Math.max(baseBet, bankroll.getLastBet() * 2));
+        }
+        return baseBet;
+    }
+}
@@ -0,0 +1,194 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+import javax.management.*;
+
+/**
+ * Publishes statistics over JMX and as a plain-text exposition dump.
+ * Statistics are registered under the "blackjack" domain with a scope
+ * (such as "table" or "player") and a name. Table servers are registered the same way,
+ * for their table count and checkpoint failures.
+ */
+public class Metrics {
+    private static final String DOMAIN = "blackjack";
+
+    private final MBeanServer server;
+    private final Map<ObjectName, Statistics> registered;
+    private final Map<ObjectName, TableServer> servers;
+
+    /**
+     * Creates a metrics registry that publishes to the platform MBean server.
+     */
+    public Metrics() {
+        this.server = ManagementFactory.getPlatformMBeanServer();
+        this.registered = new ConcurrentHashMap<>();
+        this.servers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Publishes statistics, replacing any registered under the same scope and name.
+     * @param scope What the statistics count, for example "table"
+     * @param name The name of the player, table or server
+     * @param statistics The statistics to publish
+     */
+    public void register(String scope, String name, Statistics statistics) {
+        ObjectName objectName = objectName(scope, name);
+        registerMBean(objectName, statistics);
+        servers.remove(objectName);
+        registered.put(objectName, statistics);
+    }
+
+    /**
+     * Publishes a table server's table count and checkpoint failures,
+     * replacing anything registered under the same scope and name.
+     * @param scope What is published, for example "server"
+     * @param name The name of the server
+     * @param tableServer The server to publish
+     */
+    public void register(String scope, String name, TableServer tableServer) {
+        ObjectName objectName = objectName(scope, name);
+        registerMBean(objectName, tableServer);
+        registered.remove(objectName);
+        servers.put(objectName, tableServer);
+    }
+
+    private void registerMBean(ObjectName objectName, Object mbean) {
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(mbean, objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + objectName, e);
+        }
+    }
+
+    /**
+     * Stops publishing statistics or a table server.
+     * @param scope The scope they were registered with
+     * @param name The name they were registered with
+     */
+    public void unregister(String scope, String name) {
+        ObjectName objectName = objectName(scope, name);
+        registered.remove(objectName);
+        servers.remove(objectName);
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister " + objectName, e);
+        }
+    }
+
+    /**
+     * Writes every registered counter in the plain-text exposition format,
+     * one line per counter, for example: blackjack_wins_total{scope="table",name="1"} 42
+     * @return The exposition dump
+     */
+    public String exposition() {
+        StringBuilder out = new StringBuilder();
+        List<ObjectName> names = new ArrayList<>(registered.keySet());
+        names.sort(Comparator.comparing(ObjectName::getCanonicalName));
+
+        Map<String, StatisticsSnapshot> snapshots = new LinkedHashMap<>();
+        for (ObjectName name : names) {
+            Statistics statistics = registered.get(name);
+            if (statistics != null) {
+                snapshots.put(labels(name), statistics.snapshot());
+            }
+        }
+
+        counter(out, "hands_total", "Settled hands", snapshots, StatisticsSnapshot::getHands);
+        counter(out, "wins_total", "Won hands", snapshots, StatisticsSnapshot::getWins);
+        counter(out, "losses_total", "Lost hands", snapshots, StatisticsSnapshot::getLosses);
+        counter(out, "pushes_total", "Tied hands", snapshots, StatisticsSnapshot::getPushes);
+        counter(out, "blackjacks_total", "Player blackjacks", snapshots, StatisticsSnapshot::getBlackjacks);
+        counter(out, "busts_total", "Player busts", snapshots, StatisticsSnapshot::getBusts);
+
+        out.append("# HELP blackjack_net_units Net result in bets\n");
+        out.append("# TYPE blackjack_net_units gauge\n");
+        for (Map.Entry<String, StatisticsSnapshot> entry : snapshots.entrySet()) {
+            out.append("blackjack_net_units").append(entry.getKey()).append(' ')
+                    .append((double) entry.getValue().getNetMilliUnits() / Statistics.UNIT).append('\n');
+        }
+
+        if (!servers.isEmpty()) {
+            List<ObjectName> serverNames = new ArrayList<>(servers.keySet());
+            serverNames.sort(Comparator.comparing(ObjectName::getCanonicalName));
+            Map<String, TableServer> byLabels = new LinkedHashMap<>();
+            for (ObjectName name : serverNames) {
+                TableServer tableServer = servers.get(name);
+                if (tableServer != null) {
+                    byLabels.put(labels(name), tableServer);
+                }
+            }
+            gauge(out, "tables", "Open tables", byLabels, TableServer::getTableCount);
+            counter(out, "checkpoint_failures_total", "Failed checkpoints", byLabels, TableServer::getCheckpointFailures);
+            gauge(out, "checkpoint_consecutive_failures", "Checkpoints failed since the last that succeeded",
+                    byLabels, TableServer::getConsecutiveCheckpointFailures);
+        }
+        return out.toString();
+    }
+
+    private static <T> void gauge(StringBuilder out, String metric, String help,
+                                  Map<String, T> sources, ToLongFunction<T> value) {
+        sample(out, metric, help, "gauge", sources, value);
+    }
+
+    private static <T> void counter(StringBuilder out, String metric, String help,
+                                    Map<String, T> sources, ToLongFunction<T> value) {
+        sample(out, metric, help, "counter", sources, value);
+    }
+
+    private static <T> void sample(StringBuilder out, String metric, String help, String type,
+                                   Map<String, T> sources, ToLongFunction<T> value) {
+        out.append("# HELP ").append(DOMAIN).append('_').append(metric).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(DOMAIN).append('_').append(metric).append(' ').append(type).append('\n');
+        for (Map.Entry<String, T> entry : sources.entrySet()) {
+            out.append(DOMAIN).append('_').append(metric).append(entry.getKey()).append(' ')
+                    .append(value.applyAsLong(entry.getValue())).append('\n');
+        }
+    }
+
+    private static String labels(ObjectName name) {
+        // The name property is quoted the JMX way; labels are quoted the exposition way
+        return "{scope=\"" + escape(name.getKeyProperty("type").toLowerCase())
+                + "\",name=\"" + escape(ObjectName.unquote(name.getKeyProperty("name"))) + "\"}";
+    }
+
+    private static String escape(String labelValue) {
+        StringBuilder escaped = new StringBuilder(labelValue.length());
+        for (int i = 0; i < labelValue.length(); i++) {
+            char c = labelValue.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '"':
+                    escaped.append("\\\"");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                default:
+                    escaped.append(c);
+                    break;
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static ObjectName objectName(String scope, String name) {
+        try {
+            return new ObjectName(DOMAIN + ":type=" + capitalize(scope) + ",name=" + ObjectName.quote(name));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid metric name " + scope + "/" + name, e);
+        }
+    }
+
+    private static String capitalize(String scope) {
+        return scope.isEmpty() ? scope : Character.toUpperCase(scope.charAt(0)) + scope.substring(1);
+    }
+}
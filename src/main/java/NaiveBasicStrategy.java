@@ -0,0 +1,141 @@
+/**
+ * Basic strategy written out rule by rule, for a multi-deck shoe where the dealer
+ * stands on soft 17, doubling after a split is allowed and late surrender is offered.
+ * Serves as the reference that BasicStrategy is compiled from and benchmarked against.
+ */
+public class NaiveBasicStrategy implements PlayerPolicy {
+
+    @Override
+    public Action decide(Hand hand, Card dealerUpCard) {
+        return decide(hand.calculateValue(), hand.isSoft(), dealerUpCard.getValue());
+    }
+
+    @Override
+    public Action hitOrStay(Hand hand, Card dealerUpCard) {
+        return decide(hand, dealerUpCard);
+    }
+
+    @Override
+    public Action decide(Hand hand, Card dealerUpCard, boolean canDouble, boolean canSplit, boolean canSurrender) {
+        int total = hand.calculateValue();
+        boolean soft = hand.isSoft();
+        int up = dealerUpCard.getValue();
+
+        if (canSplit && hand.isPair() && shouldSplit(hand.getCards().get(0).getValue(), up)) {
+            return Action.SPLIT;
+        }
+        if (canSurrender && shouldSurrender(total, soft, up)) {
+            return Action.SURRENDER;
+        }
+        if (canDouble && shouldDouble(total, soft, up)) {
+            return Action.DOUBLE;
+        }
+        return decide(total, soft, up);
+    }
+
+    /**
+     * Decides whether to split a pair against a dealer up-card.
+     * @param pairValue The value of each card of the pair, 2 to 11
+     * @param dealerUpValue The value of the dealer's up-card, 2 to 11
+     * @return true if the pair should be split
+     */
+    static boolean shouldSplit(int pairValue, int dealerUpValue) {
+        switch (pairValue) {
+            case 11:
+            case 8:
+                return true;
+            case 9:
+                return dealerUpValue <= 9 && dealerUpValue != 7;
+            case 7:
+            case 3:
+            case 2:
+                return dealerUpValue <= 7;
+            case 6:
+                return dealerUpValue <= 6;
+            case 4:
+                return dealerUpValue == 5 || dealerUpValue == 6;
+            default:
+                // Fives play as a hard 10 and tens as a hard 20
+                return false;
+        }
+    }
+
+    /**
+     * Decides whether to surrender a hand against a dealer up-card.
+     * @param total The value of the player's hand
+     * @param soft true if an ace in the hand is counted as 11
+     * @param dealerUpValue The value of the dealer's up-card, 2 to 11
+     * @return true if the hand should be surrendered
+     */
+    static boolean shouldSurrender(int total, boolean soft, int dealerUpValue) {
+        if (soft) {
+            return false;
+        }
+        return total == 16 && dealerUpValue >= 9 || total == 15 && dealerUpValue == 10;
+    }
+
+    /**
+     * Decides whether to double down on a hand against a dealer up-card.
+     * @param total The value of the player's hand
+     * @param soft true if an ace in the hand is counted as 11
+     * @param dealerUpValue The value of the dealer's up-card, 2 to 11
+     * @return true if the hand should be doubled
+     */
+    static boolean shouldDouble(int total, boolean soft, int dealerUpValue) {
+        if (soft) {
+            switch (total) {
+                case 13:
+                case 14:
+                    return dealerUpValue >= 5 && dealerUpValue <= 6;
+                case 15:
+                case 16:
+                    return dealerUpValue >= 4 && dealerUpValue <= 6;
+                case 17:
+                case 18:
+                    return dealerUpValue >= 3 && dealerUpValue <= 6;
+                default:
+                    return false;
+            }
+        }
+        switch (total) {
+            case 11:
+                return dealerUpValue <= 10;
+            case 10:
+                return dealerUpValue <= 9;
+            case 9:
+                return dealerUpValue >= 3 && dealerUpValue <= 6;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Decides the basic-strategy action for a hand total against a dealer up-card.
+     * @param total The value of the player's hand
+     * @param soft true if an ace in the hand is counted as 11
+     * @param dealerUpValue The value of the dealer's up-card, 2 to 11
+     * @return The action to take
+     */
+    static Action decide(int total, boolean soft, int dealerUpValue) {
+        if (soft) {
+            if (total >= 19) {
+                return Action.STAY;
+            }
+            if (total == 18) {
+                return dealerUpValue <= 8 ? Action.STAY : Action.HIT;
+            }
+            return Action.HIT;
+        }
+
+        if (total >= 17) {
+            return Action.STAY;
+        }
+        if (total >= 13) {
+            return dealerUpValue <= 6 ? Action.STAY : Action.HIT;
+        }
+        if (total == 12) {
+            return dealerUpValue >= 4 && dealerUpValue <= 6 ? Action.STAY : Action.HIT;
+        }
+        return Action.HIT;
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Encodes a playing card as a single byte.
+ * Bits 0-3 hold the rank, bits 4-5 the suit and bit 6 whether the card is face up.
+ * Lets the deck and hands work on primitive arrays instead of Card objects.
+ */
+public final class PackedCard {
+    public static final int RANK_MASK = 0x0F;
+    public static final int SUIT_SHIFT = 4;
+    public static final int SUIT_MASK = 0x30;
+    public static final int FACE_UP = 0x40;
+    public static final int CARDS_PER_DECK = 52;
+    // Ranks that differ in blackjack value: ace, 2-9 and the ten-valued cards
+    public static final int VALUE_RANKS = 10;
+
+    private static final Card.Rank[] RANKS = Card.Rank.values();
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+    private static final byte[] VALUES = new byte[RANKS.length];
+
+    static {
+        for (Card.Rank rank : RANKS) {
+            VALUES[rank.ordinal()] = (byte) rank.getValue();
+        }
+    }
+
+    private PackedCard() {
+    }
+
+    /**
+     * Encodes a face-up card.
+     * @param suit The suit of the card
+     * @param rank The rank of the card
+     * @return The packed card code
+     */
+    public static byte of(Card.Suit suit, Card.Rank rank) {
+        return (byte) (FACE_UP | suit.ordinal() << SUIT_SHIFT | rank.ordinal());
+    }
+
+    /**
+     * Encodes the card at a position of a freshly opened deck.
+     * Cards are ordered by suit, then by rank.
+     * @param index The position in the deck, 0 to 51
+     * @return The packed card code
+     */
+    public static byte ofIndex(int index) {
+        return (byte) (FACE_UP | (index / RANKS.length) << SUIT_SHIFT | index % RANKS.length);
+    }
+
+    /**
+     * Gets the position of a card in a freshly opened deck, ignoring whether it is face up.
+     * The inverse of ofIndex.
+     * @param code The packed card code
+     * @return The position, 0 to 51
+     */
+    public static int deckIndex(byte code) {
+        return ((code & SUIT_MASK) >> SUIT_SHIFT) * RANKS.length + (code & RANK_MASK);
+    }
+
+    /**
+     * Gets the rank index of a card, which is the ordinal of its Card.Rank.
+     * @param code The packed card code
+     * @return The rank index, 0 for an ace to 12 for a king
+     */
+    public static int rankIndex(byte code) {
+        return code & RANK_MASK;
+    }
+
+    /**
+     * Gets the rank of a card.
+     * @param code The packed card code
+     * @return The rank of the card
+     */
+    public static Card.Rank rank(byte code) {
+        return RANKS[code & RANK_MASK];
+    }
+
+    /**
+     * Gets the suit of a card.
+     * @param code The packed card code
+     * @return The suit of the card
+     */
+    public static Card.Suit suit(byte code) {
+        return SUITS[(code & SUIT_MASK) >> SUIT_SHIFT];
+    }
+
+    /**
+     * Gets the value of a card, counting an ace as 11.
+     * @param code The packed card code
+     * @return The numeric value of the card
+     */
+    public static int value(byte code) {
+        return VALUES[code & RANK_MASK];
+    }
+
+    /**
+     * Gets the value rank of a card, grouping all ten-valued cards together.
+     * @param code The packed card code
+     * @return 0 for an ace, 1 to 8 for two to nine, 9 for ten-valued cards
+     */
+    public static int valueRank(byte code) {
+        int rank = code & RANK_MASK;
+        return rank < 9 ? rank : 9;
+    }
+
+    /**
+     * Checks if a card is an ace.
+     * @param code The packed card code
+     * @return true if the card is an ace, false otherwise
+     */
+    public static boolean isAce(byte code) {
+        return (code & RANK_MASK) == 0;
+    }
+
+    /**
+     * Checks if a card is face up.
+     * @param code The packed card code
+     * @return true if the card is face up, false otherwise
+     */
+    public static boolean isFaceUp(byte code) {
+        return (code & FACE_UP) != 0;
+    }
+
+    /**
+     * Turns a card face up or down.
+     * @param code The packed card code
+     * @param faceUp true for face up, false for face down
+     * @return The packed card code with the face-up bit updated
+     */
+    public static byte withFaceUp(byte code, boolean faceUp) {
+        return (byte) (faceUp ? code | FACE_UP : code & ~FACE_UP);
+    }
+}
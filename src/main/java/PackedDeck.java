@@ -0,0 +1,118 @@
+import java.util.Arrays;
+
+/**
+ * A deck of packed cards held in a primitive array.
+ * Drawing moves a cursor, so nothing is allocated once the deck is created.
+ */
+public class PackedDeck {
+    private final byte[] cards;
+    private int next;
+
+    /**
+     * Creates a deck in opened-box order.
+     * @param numberOfDecks The number of 52-card decks to combine
+     */
+    public PackedDeck(int numberOfDecks) {
+        this.cards = new byte[numberOfDecks * PackedCard.CARDS_PER_DECK];
+        reset();
+    }
+
+    /**
+     * Puts every card back in opened-box order.
+     */
+    public void reset() {
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = PackedCard.ofIndex(i % PackedCard.CARDS_PER_DECK);
+        }
+        next = 0;
+    }
+
+    /**
+     * Shuffles all cards with a Fisher-Yates pass driven by a SplitMix64 stream,
+     * and restarts dealing from the top. The same seed always gives the same order
+     * from the same starting order, and nothing is allocated.
+     * @param seed The seed of the shuffle
+     */
+    public void shuffle(long seed) {
+        long state = seed;
+        for (int i = cards.length; i > 1; i--) {
+            state += 0x9E3779B97F4A7C15L;
+            long z = state;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            z ^= z >>> 31;
+            // Map the top 32 bits onto [0, i)
+            int j = (int) (((z >>> 32) * i) >>> 32);
+            byte card = cards[i - 1];
+            cards[i - 1] = cards[j];
+            cards[j] = card;
+        }
+        next = 0;
+    }
+
+    /**
+     * Moves the draw cursor, as if the given number of cards had been drawn.
+     * @param position The number of cards drawn, from 0 to size()
+     */
+    public void setPosition(int position) {
+        if (position < 0 || position > cards.length) {
+            throw new IllegalArgumentException("position must be between 0 and " + cards.length);
+        }
+        next = position;
+    }
+
+    /**
+     * Draws the next card.
+     * @return The packed code of the drawn card
+     * @throws IllegalStateException if every card has been drawn
+     */
+    public byte draw() {
+        if (next == cards.length) {
+            throw new IllegalStateException("No cards left in the deck");
+        }
+        return cards[next++];
+    }
+
+    /**
+     * Counts the cards that have not been drawn by value rank.
+     * @param counts Receives the counts, indexed as in PackedCard.valueRank
+     */
+    public void countRemaining(int[] counts) {
+        Arrays.fill(counts, 0, PackedCard.VALUE_RANKS, 0);
+        for (int i = next; i < cards.length; i++) {
+            counts[PackedCard.valueRank(cards[i])]++;
+        }
+    }
+
+    /**
+     * Gets the position of the next card to be drawn.
+     * @return The number of cards drawn so far
+     */
+    public int position() {
+        return next;
+    }
+
+    /**
+     * Gets the total number of cards in the deck.
+     * @return The number of cards, drawn or not
+     */
+    public int size() {
+        return cards.length;
+    }
+
+    /**
+     * Gets the number of cards that have not been drawn.
+     * @return The number of remaining cards
+     */
+    public int remaining() {
+        return cards.length - next;
+    }
+
+    /**
+     * Checks if every card has been drawn.
+     * @return true if no cards remain, false otherwise
+     */
+    public boolean isEmpty() {
+        return next == cards.length;
+    }
+}
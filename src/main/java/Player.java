@@ -1,11 +1,23 @@
+import java.util.Objects;
+
 /**
  * Represents a player in the game.
  * Handles player's hand and game state.
+ * A player owns a fixed number of hand slots for split pairs,
+ * so starting a round never allocates new hands.
  */
 public class Player {
-    private final String name;
-    private final Hand hand;
+    public static final int MAX_HANDS = 4;
+
+    private String name;
+    private final Hand[] hands;
+    private int handCount;
+    private int activeHand;
     private final boolean isDealer;
+    private final Statistics statistics;
+    private final Bankroll bankroll;
+    private BettingPolicy bettingPolicy;
+    private long bet;
 
     /**
      * Creates a new player with the specified name and dealer status.
@@ -13,9 +25,26 @@ public class Player {
      * @param isDealer true if this player is the dealer, false otherwise
      */
     public Player(String name, boolean isDealer) {
+        this(name, isDealer, null);
+    }
+
+    /**
+     * Creates a new player whose statistics are rolled up into a table's.
+     * @param name The player's name
+     * @param isDealer true if this player is the dealer, false otherwise
+     * @param tableStatistics The statistics of the player's table, or null
+     */
+    public Player(String name, boolean isDealer, Statistics tableStatistics) {
         this.name = name;
-        this.hand = new Hand();
+        this.hands = new Hand[MAX_HANDS];
+        for (int i = 0; i < MAX_HANDS; i++) {
+            hands[i] = new Hand();
+        }
+        this.handCount = 1;
         this.isDealer = isDealer;
+        this.statistics = new Statistics(tableStatistics);
+        this.bankroll = new Bankroll();
+        this.bettingPolicy = BettingPolicy.flat(Bankroll.MINOR_UNITS);
     }
 
     /**
@@ -28,17 +57,171 @@ public class Player {
 
     /**
      * Gets the player's hand.
+     * After a split, this is the first of the player's hands.
      * @return The player's hand
      */
     public Hand getHand() {
-        return hand;
+        return hands[0];
+    }
+
+    /**
+     * Gets one of the player's hands.
+     * @param index The position of the hand, below getHandCount
+     * @return The hand
+     */
+    public Hand getHand(int index) {
+        if (index >= handCount) {
+            throw new IndexOutOfBoundsException("Hand " + index + " of " + handCount);
+        }
+        return hands[index];
     }
 
     /**
-     * Clears the player's hand for a new round.
+     * Gets a hand slot, whether or not it is in use this round.
+     * @param index The position of the slot, below MAX_HANDS
+     * @return The hand in that slot
+     */
+    Hand getHandSlot(int index) {
+        return hands[index];
+    }
+
+    /**
+     * Gets the number of hands the player has this round.
+     * @return 1, or more after splitting pairs
+     */
+    public int getHandCount() {
+        return handCount;
+    }
+
+    /**
+     * Gets the hand the player is playing.
+     * @return The active hand
+     */
+    public Hand getActiveHand() {
+        return hands[activeHand];
+    }
+
+    /**
+     * Gets the position of the hand the player is playing.
+     * @return The index of the active hand
+     */
+    public int getActiveHandIndex() {
+        return activeHand;
+    }
+
+    /**
+     * Checks if the active hand can be split into another hand slot.
+     * @return true if the active hand is a pair and a hand slot is free
+     */
+    boolean canSplit() {
+        return handCount < MAX_HANDS && hands[activeHand].isPair() && !hands[activeHand].isSplitAces();
+    }
+
+    /**
+     * Splits the active hand, moving its second card into the next free hand slot.
+     * @return The new hand
+     */
+    Hand splitActiveHand() {
+        Hand hand = hands[activeHand];
+        Hand newHand = hands[handCount++];
+        newHand.addCard(hand.removeLastCard());
+        hand.setSplit();
+        newHand.setSplit();
+        return newHand;
+    }
+
+    /**
+     * Moves on to the player's next hand.
+     * @return true if there was another hand to play, false if the player is done
+     */
+    boolean nextHand() {
+        if (activeHand + 1 < handCount) {
+            activeHand++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the player's statistics.
+     * @return The outcomes of the player's hands
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Gets the player's money.
+     * @return The player's bankroll
+     */
+    public Bankroll getBankroll() {
+        return bankroll;
+    }
+
+    /**
+     * Gets how the player decides their bets.
+     * @return The betting policy, a flat bet of 1.00 unless changed
+     */
+    public BettingPolicy getBettingPolicy() {
+        return bettingPolicy;
+    }
+
+    /**
+     * Changes how the player decides their bets, starting with the next round.
+     * @param bettingPolicy The betting policy
+     */
+    public void setBettingPolicy(BettingPolicy bettingPolicy) {
+        this.bettingPolicy = Objects.requireNonNull(bettingPolicy);
+    }
+
+    /**
+     * Gets the bet placed on this round.
+     * Each hand stakes this amount, or twice it once doubled.
+     * @return The bet in minor units
+     */
+    public long getBet() {
+        return bet;
+    }
+
+    /**
+     * Places the bet for a new round, as the betting policy decides.
+     */
+    void placeBet() {
+        long next = bettingPolicy.nextBet(bankroll);
+        if (next <= 0) {
+            throw new IllegalStateException("Betting policy bet " + next);
+        }
+        bet = next;
+    }
+
+    /**
+     * Clears the player's hands for a new round.
      */
     public void clearHand() {
-        hand.clear();
+        for (int i = 0; i < handCount; i++) {
+            hands[i].clear();
+        }
+        handCount = 1;
+        activeHand = 0;
+    }
+
+    /**
+     * Makes this player a new player with the same hands, as when a pooled game is reused.
+     * Hand listeners are dropped; the statistics, bankroll and betting policy start over.
+     * @param name The new player's name
+     */
+    void reset(String name) {
+        this.name = name;
+        for (Hand hand : hands) {
+            hand.clearListeners();
+            hand.clear();
+        }
+        handCount = 1;
+        activeHand = 0;
+        statistics.reset();
+        bankroll.reset(Bankroll.DEFAULT_BALANCE);
+        bettingPolicy = BettingPolicy.flat(Bankroll.MINOR_UNITS);
+        bet = 0;
     }
 
     /**
@@ -0,0 +1,68 @@
+/**
+ * Decides how an automated player plays their hand.
+ * Used by the simulator to drive a game without the GUI.
+ */
+public interface PlayerPolicy {
+    /**
+     * Represents the actions a player can take on their turn.
+     */
+    enum Action {
+        HIT,      // Take another card
+        STAY,     // End the turn
+        DOUBLE,   // Double the bet and take exactly one more card
+        SPLIT,    // Split a pair into two hands
+        SURRENDER // Give up half the bet and end the turn
+    }
+
+    /**
+     * Plays like the dealer: hits until the hand is worth 17 or more.
+     */
+    PlayerPolicy DEALER_RULES = (hand, dealerUpCard) ->
+            hand.calculateValue() < 17 ? Action.HIT : Action.STAY;
+
+    /**
+     * Decides the next action for a hand.
+     * @param hand The player's current hand
+     * @param dealerUpCard The dealer's face-up card
+     * @return The action to take
+     */
+    Action decide(Hand hand, Card dealerUpCard);
+
+    /**
+     * Decides whether to hit or stay, for when decide(hand, dealerUpCard) asks for an action
+     * the table doesn't allow. A policy that doubles, splits or surrenders should override this
+     * with its own choice between hitting and staying. By default this plays basic strategy's totals,
+     * so a soft 18 that can't be doubled stands against a 3 to 6.
+     * @param hand The player's current hand
+     * @param dealerUpCard The dealer's face-up card
+     * @return HIT or STAY
+     */
+    default Action hitOrStay(Hand hand, Card dealerUpCard) {
+        return NaiveBasicStrategy.decide(hand.calculateValue(), hand.isSoft(), dealerUpCard.getValue());
+    }
+
+    /**
+     * Decides the next action for a hand, knowing which of the extra actions the table allows.
+     * By default this asks decide(hand, dealerUpCard) and replaces a double, split or surrender
+     * that isn't allowed by hitOrStay(hand, dealerUpCard).
+     * @param hand The player's current hand
+     * @param dealerUpCard The dealer's face-up card
+     * @param canDouble Whether the player may double down
+     * @param canSplit Whether the player may split
+     * @param canSurrender Whether the player may surrender
+     * @return The action to take
+     */
+    default Action decide(Hand hand, Card dealerUpCard, boolean canDouble, boolean canSplit, boolean canSurrender) {
+        Action action = decide(hand, dealerUpCard);
+        switch (action) {
+            case DOUBLE:
+                return canDouble ? action : hitOrStay(hand, dealerUpCard);
+            case SURRENDER:
+                return canSurrender ? action : hitOrStay(hand, dealerUpCard);
+            case SPLIT:
+                return canSplit ? action : hitOrStay(hand, dealerUpCard);
+            default:
+                return action;
+        }
+    }
+}
@@ -0,0 +1,380 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Plays the rounds of an event log again on a fresh game.
+ * Each round restores the shoe from its recorded seed and position, then repeats
+ * the recorded actions. Every event the replayed game produces is checked
+ * against the log, so a replay that doesn't match the recording fails at the first
+ * difference instead of quietly playing a different round.
+ */
+public class Replayer {
+    private final EventLogReader reader;
+    private final Game game;
+    private final ShoeSeeds shoeSeeds;
+
+    // Events of the round being replayed
+    private byte[] types;
+    private long[] values;
+    private int length;
+    private int cursor;
+    private int roundPosition;
+    private long roundNumber;
+    private long eventsReplayed;
+
+    /**
+     * Creates a replayer with a game set up like the recorded one.
+     * @param reader The log to replay, positioned at the start of a round
+     */
+    public Replayer(EventLogReader reader) {
+        this.reader = reader;
+        this.shoeSeeds = new ShoeSeeds();
+        this.game = new Game(reader.getRuleSet(), shoeSeeds);
+        for (String name : reader.getPlayerNames()) {
+            game.addPlayer(name);
+        }
+        game.setRecorder(new Verifier());
+        this.types = new byte[64];
+        this.values = new long[64];
+    }
+
+    /**
+     * Gets the game the rounds are replayed on.
+     * @return The replayed game
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * Gets the number of events replayed so far.
+     * @return The number of events
+     */
+    public long getEventsReplayed() {
+        return eventsReplayed;
+    }
+
+    /**
+     * Moves to a round, so the next replayed round is that one.
+     * @param roundNumber The round to move to
+     * @return true if the log holds the round, false otherwise
+     * @throws IOException If the log cannot be read
+     */
+    public boolean seekToRound(long roundNumber) throws IOException {
+        return reader.seekToRound(roundNumber);
+    }
+
+    /**
+     * Replays every remaining round.
+     * @return The number of rounds replayed
+     * @throws IOException If the log cannot be read
+     */
+    public long replayAll() throws IOException {
+        long rounds = 0;
+        while (replayRound()) {
+            rounds++;
+        }
+        return rounds;
+    }
+
+    /**
+     * Replays the next round of the log.
+     * A round left incomplete at the end of the log is not replayed.
+     * @return true if a round was replayed, false at the end of the log
+     * @throws IOException If the log cannot be read
+     * @throws IllegalStateException If the replayed round doesn't match the recording
+     */
+    public boolean replayRound() throws IOException {
+        if (!readRound()) {
+            return false;
+        }
+
+        // ROUND_START holds the shoe seed and position, and every SHUFFLE the seed the game will ask for
+        shoeSeeds.clear();
+        for (int i = 1; i < length; i++) {
+            if (types[i] == EventLog.SHUFFLE) {
+                shoeSeeds.add(values[i]);
+            }
+        }
+        roundNumber = reader.getRound();
+        game.getDeck().restore(values[0], roundPosition);
+        cursor = 0;
+        game.startNewRound();
+
+        while (cursor < length) {
+            int before = cursor;
+            switch (types[cursor]) {
+                case EventLog.HIT:
+                    game.hit();
+                    break;
+                case EventLog.STAY:
+                    game.stay();
+                    break;
+                case EventLog.DOUBLE:
+                    game.doubleDown();
+                    break;
+                case EventLog.SPLIT:
+                    game.split();
+                    break;
+                case EventLog.SURRENDER:
+                    game.surrender();
+                    break;
+                default:
+                    throw divergence("expected " + name(types[cursor]));
+            }
+            if (cursor == before) {
+                throw divergence("the game did not accept the recorded " + name(types[before]));
+            }
+        }
+        eventsReplayed += length;
+        return true;
+    }
+
+    /**
+     * Reads the events of the next complete round into the round buffer.
+     * @return false if the log holds no further complete round
+     */
+    private boolean readRound() throws IOException {
+        byte type = reader.next();
+        if (type == EventLog.END) {
+            return false;
+        }
+        if (type != EventLog.ROUND_START) {
+            throw new IllegalStateException("Event log is not at the start of a round");
+        }
+        length = 0;
+        add(type, reader.getShoeSeed());
+        roundPosition = reader.getPosition();
+        do {
+            type = reader.next();
+            if (type == EventLog.END) {
+                return false;
+            }
+            switch (type) {
+                case EventLog.DRAW:
+                    add(type, reader.getCard());
+                    break;
+                case EventLog.HIT:
+                case EventLog.STAY:
+                case EventLog.DOUBLE:
+                case EventLog.SPLIT:
+                case EventLog.SURRENDER:
+                    add(type, reader.getPlayer());
+                    break;
+                case EventLog.SHUFFLE:
+                    add(type, reader.getShoeSeed());
+                    break;
+                case EventLog.SETTLE:
+                    add(type, settlement(reader.getPlayer(), reader.getHand(), reader.getOutcome()));
+                    break;
+                case EventLog.ROUND_END:
+                    add(type, 0);
+                    break;
+                default:
+                    throw new IllegalStateException("Round " + reader.getRound() + " is not closed");
+            }
+        } while (type != EventLog.ROUND_END);
+        return true;
+    }
+
+    private static long settlement(int player, int hand, Game.Outcome outcome) {
+        return player << 16 | hand << 8 | outcome.ordinal();
+    }
+
+    private void add(byte type, long value) {
+        if (length == types.length) {
+            types = Arrays.copyOf(types, length * 2);
+            values = Arrays.copyOf(values, length * 2);
+        }
+        types[length] = type;
+        values[length] = value;
+        length++;
+    }
+
+    /**
+     * Checks the next event produced by the replayed game against the recording.
+     */
+    private void expect(byte type, long value) {
+        if (cursor >= length || types[cursor] != type) {
+            throw divergence("replay produced " + name(type) + " but the log holds "
+                    + (cursor < length ? name(types[cursor]) : "nothing more"));
+        }
+        if (values[cursor] != value) {
+            throw divergence(name(type) + " was " + values[cursor] + " in the log but " + value + " in the replay");
+        }
+        cursor++;
+    }
+
+    private IllegalStateException divergence(String message) {
+        return new IllegalStateException("Replay of round " + roundNumber + " diverged at event " + cursor + ": " + message);
+    }
+
+    private static String name(byte type) {
+        switch (type) {
+            case EventLog.ROUND_START:
+                return "ROUND_START";
+            case EventLog.DRAW:
+                return "DRAW";
+            case EventLog.HIT:
+                return "HIT";
+            case EventLog.STAY:
+                return "STAY";
+            case EventLog.SHUFFLE:
+                return "SHUFFLE";
+            case EventLog.SETTLE:
+                return "SETTLE";
+            case EventLog.ROUND_END:
+                return "ROUND_END";
+            case EventLog.DOUBLE:
+                return "DOUBLE";
+            case EventLog.SPLIT:
+                return "SPLIT";
+            case EventLog.SURRENDER:
+                return "SURRENDER";
+            default:
+                return "event " + type;
+        }
+    }
+
+    /**
+     * Checks every event of the replayed game against the round buffer.
+     */
+    private class Verifier implements RoundRecorder {
+        @Override
+        public void roundStarted(long roundNumber, long shoeSeed, int position) {
+            expect(EventLog.ROUND_START, shoeSeed);
+        }
+
+        @Override
+        public void cardDrawn(byte card) {
+            expect(EventLog.DRAW, card);
+        }
+
+        @Override
+        public void shoeShuffled(long shoeSeed) {
+            expect(EventLog.SHUFFLE, shoeSeed);
+        }
+
+        @Override
+        public void playerHit(int player) {
+            expect(EventLog.HIT, player);
+        }
+
+        @Override
+        public void playerStayed(int player) {
+            expect(EventLog.STAY, player);
+        }
+
+        @Override
+        public void playerDoubled(int player) {
+            expect(EventLog.DOUBLE, player);
+        }
+
+        @Override
+        public void playerSplit(int player) {
+            expect(EventLog.SPLIT, player);
+        }
+
+        @Override
+        public void playerSurrendered(int player) {
+            expect(EventLog.SURRENDER, player);
+        }
+
+        @Override
+        public void handSettled(int player, int hand, Game.Outcome outcome, long netMilliUnits) {
+            expect(EventLog.SETTLE, settlement(player, hand, outcome));
+        }
+
+        @Override
+        public void roundEnded() {
+            expect(EventLog.ROUND_END, 0);
+        }
+    }
+
+    /**
+     * Hands the recorded shoe seeds to the replayed deck, in order.
+     * Outside a round, when no seed is queued, it returns 0; the shoe is restored
+     * from the log at the start of every round anyway.
+     */
+    private static class ShoeSeeds implements RandomGenerator {
+        private long[] seeds = new long[4];
+        private int head;
+        private int tail;
+
+        void add(long seed) {
+            if (tail == seeds.length) {
+                seeds = Arrays.copyOf(seeds, tail * 2);
+            }
+            seeds[tail++] = seed;
+        }
+
+        void clear() {
+            head = 0;
+            tail = 0;
+        }
+
+        @Override
+        public long nextLong() {
+            return head < tail ? seeds[head++] : 0;
+        }
+    }
+
+    /**
+     * Replays a log from the command line, headless at full speed or into the game window.
+     * Usage: java Replayer log [fromRound] [--gui]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java Replayer log [fromRound] [--gui]");
+            System.exit(1);
+        }
+        Path path = Paths.get(args[0]);
+        boolean gui = Arrays.asList(args).contains("--gui");
+        long fromRound = args.length > 1 && !args[1].equals("--gui") ? Long.parseLong(args[1]) : 0;
+
+        EventLogReader reader = new EventLogReader(path);
+        Replayer replayer = new Replayer(reader);
+        if (fromRound > 0 && !replayer.seekToRound(fromRound)) {
+            System.err.println("Round " + fromRound + " is not in " + path);
+            System.exit(1);
+        }
+
+        if (gui) {
+            // The window needs a round in progress to show
+            if (!replayer.replayRound()) {
+                System.err.println("No complete round in " + path);
+                System.exit(1);
+            }
+            SwingUtilities.invokeLater(() -> {
+                new GameFrame(replayer.getGame(), "Blackjack - Replay of " + path.getFileName());
+                Timer timer = new Timer(1000, null);
+                timer.addActionListener(e -> {
+                    try {
+                        if (!replayer.replayRound()) {
+                            timer.stop();
+                        }
+                    } catch (IOException ex) {
+                        timer.stop();
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                timer.start();
+            });
+            return;
+        }
+
+        long start = System.nanoTime();
+        long rounds = replayer.replayAll();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        reader.close();
+        System.out.println(replayer.getGame().getStatistics().snapshot());
+        System.out.printf("Replayed %d rounds, %d events in %.2fs (%.0f events/sec)%n",
+                rounds, replayer.getEventsReplayed(), seconds, replayer.getEventsReplayed() / seconds);
+    }
+}
@@ -0,0 +1,109 @@
+import java.nio.ByteBuffer;
+
+/**
+ * One mapped segment of a result file.
+ * Reads columns straight from the mapped memory; nothing is copied.
+ */
+public final class ResultSegment {
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int startTotals;
+    private final int upRanks;
+    private final int playerFinals;
+    private final int dealerFinals;
+    private final int outcomes;
+    private final int actions;
+    private final int nets;
+
+    ResultSegment(ByteBuffer buffer, int segmentRows) {
+        this.buffer = buffer;
+        this.size = Math.min(buffer.getInt(ResultStore.ROW_COUNT), segmentRows);
+        this.startTotals = ResultStore.columnOffset(ResultStore.START_TOTAL, segmentRows);
+        this.upRanks = ResultStore.columnOffset(ResultStore.UP_RANK, segmentRows);
+        this.playerFinals = ResultStore.columnOffset(ResultStore.PLAYER_FINAL, segmentRows);
+        this.dealerFinals = ResultStore.columnOffset(ResultStore.DEALER_FINAL, segmentRows);
+        this.outcomes = ResultStore.columnOffset(ResultStore.OUTCOME, segmentRows);
+        this.actions = ResultStore.columnOffset(ResultStore.ACTIONS, segmentRows);
+        this.nets = ResultStore.columnOffset(ResultStore.NET, segmentRows);
+    }
+
+    /**
+     * Gets the number of rows in the segment.
+     * @return The number of hands
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the value of the player's first two cards.
+     * @param row The row
+     * @return The starting total
+     */
+    public int getStartTotal(int row) {
+        return buffer.get(startTotals + row) & ~ResultStore.SOFT;
+    }
+
+    /**
+     * Checks if the player's first two cards make a soft total.
+     * @param row The row
+     * @return true if the starting total counts an ace as 11
+     */
+    public boolean isSoftStart(int row) {
+        return (buffer.get(startTotals + row) & ResultStore.SOFT) != 0;
+    }
+
+    /**
+     * Gets the dealer's up-card.
+     * @param row The row
+     * @return The value rank of the up-card, as in PackedCard.valueRank
+     */
+    public int getUpRank(int row) {
+        return buffer.get(upRanks + row);
+    }
+
+    /**
+     * Gets the final value of the player's hand.
+     * @param row The row
+     * @return The final value
+     */
+    public int getPlayerFinal(int row) {
+        return buffer.get(playerFinals + row);
+    }
+
+    /**
+     * Gets the final value of the dealer's hand.
+     * @param row The row
+     * @return The final value, including the hole card even if the dealer didn't draw
+     */
+    public int getDealerFinal(int row) {
+        return buffer.get(dealerFinals + row);
+    }
+
+    /**
+     * Gets the result of the hand.
+     * @param row The row
+     * @return The ordinal of the Game.Outcome
+     */
+    public int getOutcome(int row) {
+        return buffer.get(outcomes + row);
+    }
+
+    /**
+     * Gets the player's actions.
+     * @param row The row
+     * @return The packed action sequence, read with ResultStore.actionCount and ResultStore.action
+     */
+    public int getActions(int row) {
+        return buffer.getInt(actions + row * 4);
+    }
+
+    /**
+     * Gets the amount won or lost.
+     * @param row The row
+     * @return The net result in thousandths of a bet
+     */
+    public int getNetMilliUnits(int row) {
+        return buffer.getInt(nets + row * 4);
+    }
+}
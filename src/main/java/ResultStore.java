@@ -0,0 +1,240 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Reads memory-mapped columnar result files written by ResultStoreWriter.
+ * A file starts with a 64-byte header (int magic, short version, int rows per segment),
+ * followed by fixed-size segments. Each segment starts with a 64-byte header holding
+ * its row count, followed by one column after another:
+ * <pre>
+ * START_TOTAL  byte per row, the player's two-card total, with SOFT set for soft totals
+ * UP_RANK      byte per row, the dealer's up-card as in PackedCard.valueRank
+ * PLAYER_FINAL byte per row
+ * DEALER_FINAL byte per row
+ * OUTCOME      byte per row, the ordinal of Game.Outcome
+ * ACTIONS      int per row, the action count in the low 4 bits and then 3 bits per action
+ * NET          int per row, the amount won or lost in thousandths of a bet
+ * </pre>
+ * Scans hand each mapped segment to a worker as it is, so aggregating never copies rows.
+ */
+public class ResultStore implements AutoCloseable {
+    static final int MAGIC = 0x424A5253; // "BJRS"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 64;
+
+    // Segment layout: the row count, then the byte columns, then the int columns
+    static final int ROW_COUNT = 0;
+    static final int START_TOTAL = 0;
+    static final int UP_RANK = 1;
+    static final int PLAYER_FINAL = 2;
+    static final int DEALER_FINAL = 3;
+    static final int OUTCOME = 4;
+    static final int ACTIONS = 5;
+    static final int NET = 6;
+    private static final int BYTE_COLUMNS = 5;
+    private static final int ROW_BYTES = BYTE_COLUMNS + 4 + 4;
+
+    // A segment is mapped as one buffer, so it must fit in an int
+    static final int MAX_SEGMENT_ROWS = (Integer.MAX_VALUE - HEADER_BYTES) / ROW_BYTES / 8 * 8;
+
+    // Set in START_TOTAL for soft totals
+    static final int SOFT = 0x40;
+
+    // Action packing
+    static final int MAX_ACTIONS = 9;
+    private static final int ACTION_COUNT_MASK = 0xF;
+    private static final int ACTION_BITS = 3;
+    private static final PlayerPolicy.Action[] ACTION_VALUES = PlayerPolicy.Action.values();
+
+    private final List<FileChannel> channels;
+    private final List<ResultSegment> segments;
+    private final long rowCount;
+
+    /**
+     * Opens result files and maps every segment in them.
+     * @param paths The files to read
+     * @throws IOException If a file cannot be read or is not a result file
+     */
+    public ResultStore(List<Path> paths) throws IOException {
+        this.channels = new ArrayList<>();
+        List<ResultSegment> mapped = new ArrayList<>();
+        long rows = 0;
+        try {
+            for (Path path : paths) {
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+                channels.add(channel);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                while (header.hasRemaining() && channel.read(header) >= 0) {
+                }
+                header.flip();
+                if (header.remaining() < 10 || header.getInt() != MAGIC) {
+                    throw new IOException(path + " is not a result file");
+                }
+                short version = header.getShort();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported result file version " + version);
+                }
+                int segmentRows = header.getInt();
+                if (!isValidSegmentRows(segmentRows)) {
+                    throw new IOException("Corrupt result file header in " + path);
+                }
+                long segmentBytes = segmentBytes(segmentRows);
+
+                for (long offset = HEADER_BYTES; offset + segmentBytes <= channel.size(); offset += segmentBytes) {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, segmentBytes);
+                    ResultSegment segment = new ResultSegment(buffer, segmentRows);
+                    if (segment.size() > 0) {
+                        mapped.add(segment);
+                        rows += segment.size();
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        this.segments = Collections.unmodifiableList(mapped);
+        this.rowCount = rows;
+    }
+
+    /**
+     * Gets the number of hands in the store.
+     * @return The number of rows in all segments
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the mapped segments.
+     * @return The segments, in file order
+     */
+    public List<ResultSegment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * Aggregates every segment in parallel.
+     * Each segment is scanned into its own result, and the results are then combined.
+     * @param supplier Creates an empty result
+     * @param accumulator Adds the rows of one segment to a result
+     * @param combiner Combines two results
+     * @param <R> The type of the result
+     * @return The combined result, or an empty one if the store has no rows
+     */
+    public <R> R scan(Supplier<R> supplier, BiConsumer<R, ResultSegment> accumulator, BinaryOperator<R> combiner) {
+        return segments.parallelStream()
+                .map(segment -> {
+                    R result = supplier.get();
+                    accumulator.accept(result, segment);
+                    return result;
+                })
+                .reduce(combiner)
+                .orElseGet(supplier);
+    }
+
+    /**
+     * Aggregates the expected value of every hand by starting total and dealer up-card.
+     * @return The table of results
+     */
+    public ExpectedValueTable expectedValueByStart() {
+        return scan(ExpectedValueTable::new, ExpectedValueTable::add, ExpectedValueTable::merge);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Checks that segments of the given size can be mapped and their columns addressed with int offsets.
+     * @param segmentRows The number of rows in each segment
+     * @return true if segmentRows is a positive multiple of 8 no larger than MAX_SEGMENT_ROWS
+     */
+    static boolean isValidSegmentRows(int segmentRows) {
+        return segmentRows >= 8 && segmentRows % 8 == 0 && segmentRows <= MAX_SEGMENT_ROWS;
+    }
+
+    static long segmentBytes(int segmentRows) {
+        return HEADER_BYTES + (long) segmentRows * ROW_BYTES;
+    }
+
+    /**
+     * Gets the offset of a column within a segment.
+     * @param column The column, such as START_TOTAL or NET
+     * @param segmentRows The number of rows in each segment, checked by isValidSegmentRows
+     * @return The offset of the column's first row
+     */
+    static int columnOffset(int column, int segmentRows) {
+        if (column < BYTE_COLUMNS) {
+            return HEADER_BYTES + column * segmentRows;
+        }
+        return HEADER_BYTES + (BYTE_COLUMNS + (column - BYTE_COLUMNS) * 4) * segmentRows;
+    }
+
+    /**
+     * Appends an action to a packed action sequence.
+     * Sequences keep counting past MAX_ACTIONS but only store the first actions.
+     * @param actions The packed sequence
+     * @param action The action to append
+     * @return The packed sequence with the action added
+     */
+    static int addAction(int actions, PlayerPolicy.Action action) {
+        int count = actions & ACTION_COUNT_MASK;
+        if (count < MAX_ACTIONS) {
+            actions |= action.ordinal() << (4 + count * ACTION_BITS);
+        }
+        return count < ACTION_COUNT_MASK ? actions + 1 : actions;
+    }
+
+    /**
+     * Gets the number of actions in a packed action sequence.
+     * @param actions The packed sequence
+     * @return The number of actions, up to 15
+     */
+    public static int actionCount(int actions) {
+        return actions & ACTION_COUNT_MASK;
+    }
+
+    /**
+     * Gets one action from a packed action sequence.
+     * @param actions The packed sequence
+     * @param index The position of the action, below MAX_ACTIONS
+     * @return The action
+     */
+    public static PlayerPolicy.Action action(int actions, int index) {
+        return ACTION_VALUES[(actions >>> (4 + index * ACTION_BITS)) & ((1 << ACTION_BITS) - 1)];
+    }
+
+    /**
+     * Prints the expected value table of result files.
+     * Usage: java ResultStore file...
+     */
+    public static void main(String[] args) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        for (String arg : args) {
+            paths.add(Paths.get(arg));
+        }
+        try (ResultStore store = new ResultStore(paths)) {
+            long start = System.nanoTime();
+            ExpectedValueTable table = store.expectedValueByStart();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.print(table.format());
+            System.out.printf("Scanned %d hands in %d segments in %.3fs (%.0f hands/sec)%n",
+                    store.getRowCount(), store.getSegments().size(), seconds, store.getRowCount() / seconds);
+        }
+    }
+}
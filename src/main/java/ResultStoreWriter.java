@@ -0,0 +1,200 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Appends one row per settled hand to a memory-mapped columnar result file,
+ * in the format described by ResultStore.
+ * Rows are written straight into the mapped segment, so appending never copies
+ * or allocates; a new segment is mapped each time one fills up.
+ * Not thread-safe: use one writer, and one file, per game.
+ */
+public class ResultStoreWriter implements RoundRecorder, AutoCloseable {
+    public static final int DEFAULT_SEGMENT_ROWS = 1 << 20;
+
+    private final Game game;
+    private final FileChannel channel;
+    private final int segmentRows;
+    private final long segmentBytes;
+    private final int[] columns;
+    private MappedByteBuffer segment;
+    private long segmentOffset;
+    private int rows;
+    private List<Player> players;
+    private int[] actions;
+
+    /**
+     * Creates a result file with segments of about a million rows.
+     * @param path The file to write, replacing any existing file
+     * @param game The game whose hands are stored
+     * @throws IOException If the file cannot be created
+     */
+    public ResultStoreWriter(Path path, Game game) throws IOException {
+        this(path, game, DEFAULT_SEGMENT_ROWS);
+    }
+
+    /**
+     * Creates a result file.
+     * Players must not join the game after its first round has started.
+     * @param path The file to write, replacing any existing file
+     * @param game The game whose hands are stored
+     * @param segmentRows The number of rows in each segment, a multiple of 8 up to ResultStore.MAX_SEGMENT_ROWS
+     * @throws IOException If the file cannot be created
+     */
+    public ResultStoreWriter(Path path, Game game, int segmentRows) throws IOException {
+        if (!ResultStore.isValidSegmentRows(segmentRows)) {
+            throw new IllegalArgumentException("segmentRows must be a positive multiple of 8 up to "
+                    + ResultStore.MAX_SEGMENT_ROWS);
+        }
+        this.game = game;
+        this.segmentRows = segmentRows;
+        this.segmentBytes = ResultStore.segmentBytes(segmentRows);
+        this.columns = new int[ResultStore.NET + 1];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = ResultStore.columnOffset(i, segmentRows);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(ResultStore.HEADER_BYTES);
+        header.putInt(ResultStore.MAGIC).putShort(ResultStore.VERSION).putInt(segmentRows);
+        header.clear();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        this.segmentOffset = ResultStore.HEADER_BYTES - segmentBytes;
+        this.rows = segmentRows;
+    }
+
+    /**
+     * Appends one hand.
+     * @param startTotal The value of the hand's first two cards
+     * @param soft Whether the first two cards make a soft total
+     * @param upRank The value rank of the dealer's up-card, as in PackedCard.valueRank
+     * @param playerFinal The final value of the player's hand
+     * @param dealerFinal The final value of the dealer's hand, with the hole card turned over even if the dealer didn't draw
+     * @param actions The player's actions, packed as described by ResultStore
+     * @param outcome The result of the hand
+     * @param netMilliUnits The amount won or lost, in thousandths of a bet
+     */
+    public void append(int startTotal, boolean soft, int upRank, int playerFinal, int dealerFinal,
+                       int actions, Game.Outcome outcome, int netMilliUnits) {
+        if (rows == segmentRows) {
+            nextSegment();
+        }
+        int row = rows;
+        segment.put(columns[ResultStore.START_TOTAL] + row, (byte) (soft ? startTotal | ResultStore.SOFT : startTotal));
+        segment.put(columns[ResultStore.UP_RANK] + row, (byte) upRank);
+        segment.put(columns[ResultStore.PLAYER_FINAL] + row, (byte) playerFinal);
+        segment.put(columns[ResultStore.DEALER_FINAL] + row, (byte) dealerFinal);
+        segment.put(columns[ResultStore.OUTCOME] + row, (byte) outcome.ordinal());
+        segment.putInt(columns[ResultStore.ACTIONS] + row * 4, actions);
+        segment.putInt(columns[ResultStore.NET] + row * 4, netMilliUnits);
+        rows = row + 1;
+        // Publish the row only after its columns are written
+        segment.putInt(ResultStore.ROW_COUNT, rows);
+    }
+
+    private void nextSegment() {
+        try {
+            segmentOffset += segmentBytes;
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, segmentOffset, segmentBytes);
+            segment.putInt(ResultStore.ROW_COUNT, 0);
+            rows = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void roundStarted(long roundNumber, long shoeSeed, int position) {
+        if (players == null) {
+            players = game.getPlayers();
+            actions = new int[players.size() * Player.MAX_HANDS];
+        }
+        Arrays.fill(actions, 0);
+    }
+
+    @Override
+    public void cardDrawn(byte card) {
+    }
+
+    @Override
+    public void shoeShuffled(long shoeSeed) {
+    }
+
+    @Override
+    public void playerHit(int player) {
+        addAction(player, PlayerPolicy.Action.HIT);
+    }
+
+    @Override
+    public void playerStayed(int player) {
+        addAction(player, PlayerPolicy.Action.STAY);
+    }
+
+    @Override
+    public void playerDoubled(int player) {
+        addAction(player, PlayerPolicy.Action.DOUBLE);
+    }
+
+    @Override
+    public void playerSplit(int player) {
+        addAction(player, PlayerPolicy.Action.SPLIT);
+    }
+
+    @Override
+    public void playerSurrendered(int player) {
+        addAction(player, PlayerPolicy.Action.SURRENDER);
+    }
+
+    /**
+     * Adds an action to the sequence of the hand the player is playing.
+     */
+    private void addAction(int player, PlayerPolicy.Action action) {
+        int slot = player * Player.MAX_HANDS + players.get(player).getActiveHandIndex();
+        actions[slot] = ResultStore.addAction(actions[slot], action);
+    }
+
+    @Override
+    public void handSettled(int player, int handIndex, Game.Outcome outcome, long netMilliUnits) {
+        Hand hand = players.get(player).getHand(handIndex);
+        Hand dealerHand = game.getDealer().getHand();
+        byte first = hand.getCards().get(0).getCode();
+        byte second = hand.getCards().get(1).getCode();
+        int startTotal = PackedCard.value(first) + PackedCard.value(second);
+        boolean soft = PackedCard.isAce(first) || PackedCard.isAce(second);
+        if (startTotal > 21) {
+            // A pair of aces counts one of them as 1
+            startTotal -= 10;
+        }
+        int upRank = PackedCard.valueRank(dealerHand.getCards().get(0).getCode());
+        append(startTotal, soft, upRank, hand.calculateValue(), dealerHand.calculateValue(),
+                actions[player * Player.MAX_HANDS + handIndex], outcome, (int) netMilliUnits);
+    }
+
+    @Override
+    public void roundEnded() {
+    }
+
+    /**
+     * Forces the written rows to disk.
+     */
+    public void sync() {
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+}
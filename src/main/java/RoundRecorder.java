@@ -0,0 +1,141 @@
+/**
+ * Receives every event that decides how a round plays out.
+ * Together with the game's players, the events are enough to play the round again exactly.
+ * Events are delivered on the thread that plays the game, in the order they happen.
+ */
+public interface RoundRecorder {
+    /**
+     * Called when a round starts, after the shoe has been reshuffled if needed
+     * and before any card is dealt.
+     * @param roundNumber The number of the round, counting from 1
+     * @param shoeSeed The seed of the shoe's current shuffle
+     * @param position The number of cards drawn from the shoe since that shuffle
+     */
+    void roundStarted(long roundNumber, long shoeSeed, int position);
+
+    /**
+     * Called after a card has been drawn from the shoe.
+     * @param card The packed code of the card, as dealt
+     */
+    void cardDrawn(byte card);
+
+    /**
+     * Called when the shoe ran out in the middle of a round and was shuffled again.
+     * @param shoeSeed The seed of the new shuffle
+     */
+    void shoeShuffled(long shoeSeed);
+
+    /**
+     * Called when a player hits, before their card is drawn.
+     * @param player The index of the player
+     */
+    void playerHit(int player);
+
+    /**
+     * Called when a player stays.
+     * @param player The index of the player
+     */
+    void playerStayed(int player);
+
+    /**
+     * Called when a player doubles down, before their card is drawn.
+     * @param player The index of the player
+     */
+    void playerDoubled(int player);
+
+    /**
+     * Called when a player splits a pair, before the two new cards are drawn.
+     * @param player The index of the player
+     */
+    void playerSplit(int player);
+
+    /**
+     * Called when a player surrenders.
+     * @param player The index of the player
+     */
+    void playerSurrendered(int player);
+
+    /**
+     * Called after one of a player's hands has been settled against the dealer.
+     * @param player The index of the player
+     * @param hand The index of the player's hand
+     * @param outcome The result of the hand
+     * @param netMilliUnits The amount won or lost, in thousandths of a bet
+     */
+    void handSettled(int player, int hand, Game.Outcome outcome, long netMilliUnits);
+
+    /**
+     * Called after every hand of the round has been settled.
+     */
+    void roundEnded();
+
+    /**
+     * Combines two recorders into one that passes every event to both, first to second.
+     * @param first The recorder that receives each event first
+     * @param second The recorder that receives each event next
+     * @return A recorder that records into both
+     */
+    static RoundRecorder both(RoundRecorder first, RoundRecorder second) {
+        return new RoundRecorder() {
+            @Override
+            public void roundStarted(long roundNumber, long shoeSeed, int position) {
+                first.roundStarted(roundNumber, shoeSeed, position);
+                second.roundStarted(roundNumber, shoeSeed, position);
+            }
+
+            @Override
+            public void cardDrawn(byte card) {
+                first.cardDrawn(card);
+                second.cardDrawn(card);
+            }
+
+            @Override
+            public void shoeShuffled(long shoeSeed) {
+                first.shoeShuffled(shoeSeed);
+                second.shoeShuffled(shoeSeed);
+            }
+
+            @Override
+            public void playerHit(int player) {
+                first.playerHit(player);
+                second.playerHit(player);
+            }
+
+            @Override
+            public void playerStayed(int player) {
+                first.playerStayed(player);
+                second.playerStayed(player);
+            }
+
+            @Override
+            public void playerDoubled(int player) {
+                first.playerDoubled(player);
+                second.playerDoubled(player);
+            }
+
+            @Override
+            public void playerSplit(int player) {
+                first.playerSplit(player);
+                second.playerSplit(player);
+            }
+
+            @Override
+            public void playerSurrendered(int player) {
+                first.playerSurrendered(player);
+                second.playerSurrendered(player);
+            }
+
+            @Override
+            public void handSettled(int player, int hand, Game.Outcome outcome, long netMilliUnits) {
+                first.handSettled(player, hand, outcome, netMilliUnits);
+                second.handSettled(player, hand, outcome, netMilliUnits);
+            }
+
+            @Override
+            public void roundEnded() {
+                first.roundEnded();
+                second.roundEnded();
+            }
+        };
+    }
+}
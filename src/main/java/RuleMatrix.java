@@ -0,0 +1,39 @@
+/**
+ * Simulates basic strategy under every combination of the rule variants
+ * and prints the house edge of each, so the effect of every rule can be
+ * checked against published figures.
+ */
+public class RuleMatrix {
+    private static final int[][] PAYOUTS = {{3, 2}, {6, 5}, {1, 1}};
+
+    /**
+     * Runs the matrix from the command line.
+     * Every variant starts from the same seed, but the shoes drift apart after the first round
+     * whose rules draw a different number of cards, so each row carries its own sampling noise.
+     * RuleSetTest checks each rule's effect on set-up hands.
+     * Usage: java RuleMatrix [roundsPerVariant] [decks] [seed] [threads]
+     */
+    public static void main(String[] args) {
+        long rounds = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        int decks = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%-64s %10s%n", "Rules", "House edge");
+        for (int h17 = 0; h17 < 2; h17++) {
+            for (int[] payout : PAYOUTS) {
+                for (int das = 1; das >= 0; das--) {
+                    for (int surrender = 1; surrender >= 0; surrender--) {
+                        for (int peek = 1; peek >= 0; peek--) {
+                            RuleSet rules = new RuleSet(h17 == 1, decks, Deck.DEFAULT_PENETRATION,
+                                    payout[0], payout[1], das == 1, surrender == 1, peek == 1);
+                            StatisticsSnapshot result = new Simulator(new BasicStrategy(), threads, rules)
+                                    .run(rounds, seed);
+                            System.out.printf("%-64s %9.3f%%%n", rules, -100.0 * result.getExpectedValue());
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+import java.util.Objects;
+
+/**
+ * The house rules of a table.
+ * Rule sets are immutable; the with methods return a copy with one rule changed.
+ * A game reads its rules once, when it is created.
+ */
+public final class RuleSet {
+    /**
+     * Common rules: the dealer stands on soft 17 and peeks for blackjack, blackjack pays 3:2,
+     * doubling after a split and late surrender are allowed.
+     */
+    public static final RuleSet DEFAULT = new RuleSet(false, Deck.DEFAULT_NUMBER_OF_DECKS,
+            Deck.DEFAULT_PENETRATION, 3, 2, true, true, true);
+
+    private final boolean dealerHitsSoft17;
+    private final int numberOfDecks;
+    private final double penetration;
+    private final int blackjackPayoutNumerator;
+    private final int blackjackPayoutDenominator;
+    private final boolean doubleAfterSplit;
+    private final boolean surrender;
+    private final boolean dealerPeek;
+
+    /**
+     * Creates a rule set.
+     * @param dealerHitsSoft17 true if the dealer hits soft 17 (H17), false if they stand on it (S17)
+     * @param numberOfDecks The number of decks in the shoe, from 1 to 8
+     * @param penetration The fraction of the shoe dealt before reshuffling
+     * @param blackjackPayoutNumerator The amount paid on a blackjack per blackjackPayoutDenominator bet, such as 3 for 3:2
+     * @param blackjackPayoutDenominator The bet the blackjack payout is quoted against, such as 2 for 3:2
+     * @param doubleAfterSplit true if a split hand may be doubled
+     * @param surrender true if a player may give up half their bet before acting
+     * @param dealerPeek true if the dealer checks for blackjack under an ace or ten before players act
+     */
+    public RuleSet(boolean dealerHitsSoft17, int numberOfDecks, double penetration,
+                   int blackjackPayoutNumerator, int blackjackPayoutDenominator,
+                   boolean doubleAfterSplit, boolean surrender, boolean dealerPeek) {
+        if (numberOfDecks < Deck.MIN_DECKS || numberOfDecks > Deck.MAX_DECKS) {
+            throw new IllegalArgumentException("numberOfDecks must be between " + Deck.MIN_DECKS + " and " + Deck.MAX_DECKS);
+        }
+        if (!(penetration > 0 && penetration <= 1)) {
+            throw new IllegalArgumentException("penetration must be greater than 0 and at most 1");
+        }
+        if (blackjackPayoutNumerator < 1 || blackjackPayoutDenominator < 1
+                || blackjackPayoutNumerator > 127 || blackjackPayoutDenominator > 127) {
+            throw new IllegalArgumentException("blackjack payout must be a ratio of numbers from 1 to 127");
+        }
+        this.dealerHitsSoft17 = dealerHitsSoft17;
+        this.numberOfDecks = numberOfDecks;
+        this.penetration = penetration;
+        this.blackjackPayoutNumerator = blackjackPayoutNumerator;
+        this.blackjackPayoutDenominator = blackjackPayoutDenominator;
+        this.doubleAfterSplit = doubleAfterSplit;
+        this.surrender = surrender;
+        this.dealerPeek = dealerPeek;
+    }
+
+    /**
+     * Checks if the dealer hits soft 17.
+     * @return true for H17 tables, false for S17 tables
+     */
+    public boolean isDealerHitsSoft17() {
+        return dealerHitsSoft17;
+    }
+
+    /**
+     * Gets the number of decks in the shoe.
+     * @return The number of decks
+     */
+    public int getNumberOfDecks() {
+        return numberOfDecks;
+    }
+
+    /**
+     * Gets the fraction of the shoe dealt before reshuffling.
+     * @return The penetration
+     */
+    public double getPenetration() {
+        return penetration;
+    }
+
+    /**
+     * Gets the amount paid on a blackjack, such as 3 for 3:2.
+     * @return The numerator of the payout ratio
+     */
+    public int getBlackjackPayoutNumerator() {
+        return blackjackPayoutNumerator;
+    }
+
+    /**
+     * Gets the bet the blackjack payout is quoted against, such as 2 for 3:2.
+     * @return The denominator of the payout ratio
+     */
+    public int getBlackjackPayoutDenominator() {
+        return blackjackPayoutDenominator;
+    }
+
+    /**
+     * Gets the amount a blackjack wins on one bet.
+     * @return The payout in thousandths of a bet, such as 1500 for 3:2
+     */
+    public long getBlackjackPayoutMilliUnits() {
+        return Statistics.UNIT * blackjackPayoutNumerator / blackjackPayoutDenominator;
+    }
+
+    /**
+     * Checks if split hands may be doubled.
+     * @return true if doubling after a split is allowed
+     */
+    public boolean isDoubleAfterSplit() {
+        return doubleAfterSplit;
+    }
+
+    /**
+     * Checks if players may surrender.
+     * @return true if late surrender is allowed
+     */
+    public boolean isSurrender() {
+        return surrender;
+    }
+
+    /**
+     * Checks if the dealer peeks for blackjack before players act.
+     * @return true if a dealer blackjack ends the round before any player acts
+     */
+    public boolean isDealerPeek() {
+        return dealerPeek;
+    }
+
+    /**
+     * Copies the rules with the dealer hitting or standing on soft 17.
+     * @param dealerHitsSoft17 true for H17, false for S17
+     * @return The changed rules
+     */
+    public RuleSet withDealerHitsSoft17(boolean dealerHitsSoft17) {
+        return new RuleSet(dealerHitsSoft17, numberOfDecks, penetration, blackjackPayoutNumerator,
+                blackjackPayoutDenominator, doubleAfterSplit, surrender, dealerPeek);
+    }
+
+    /**
+     * Copies the rules with a different number of decks.
+     * @param numberOfDecks The number of decks in the shoe, from 1 to 8
+     * @return The changed rules
+     */
+    public RuleSet withNumberOfDecks(int numberOfDecks) {
+        return new RuleSet(dealerHitsSoft17, numberOfDecks, penetration, blackjackPayoutNumerator,
+                blackjackPayoutDenominator, doubleAfterSplit, surrender, dealerPeek);
+    }
+
+    /**
+     * Copies the rules with a different cut-card position.
+     * @param penetration The fraction of the shoe dealt before reshuffling
+     * @return The changed rules
+     */
+    public RuleSet withPenetration(double penetration) {
+        return new RuleSet(dealerHitsSoft17, numberOfDecks, penetration, blackjackPayoutNumerator,
+                blackjackPayoutDenominator, doubleAfterSplit, surrender, dealerPeek);
+    }
+
+    /**
+     * Copies the rules with a different blackjack payout.
+     * @param numerator The amount paid, such as 6 for 6:5
+     * @param denominator The bet it is quoted against, such as 5 for 6:5
+     * @return The changed rules
+     */
+    public RuleSet withBlackjackPayout(int numerator, int denominator) {
+        return new RuleSet(dealerHitsSoft17, numberOfDecks, penetration, numerator,
+                denominator, doubleAfterSplit, surrender, dealerPeek);
+    }
+
+    /**
+     * Copies the rules with doubling after a split allowed or not.
+     * @param doubleAfterSplit true if split hands may be doubled
+     * @return The changed rules
+     */
+    public RuleSet withDoubleAfterSplit(boolean doubleAfterSplit) {
+        return new RuleSet(dealerHitsSoft17, numberOfDecks, penetration, blackjackPayoutNumerator,
+                blackjackPayoutDenominator, doubleAfterSplit, surrender, dealerPeek);
+    }
+
+    /**
+     * Copies the rules with surrender allowed or not.
+     * @param surrender true if players may surrender
+     * @return The changed rules
+     */
+    public RuleSet withSurrender(boolean surrender) {
+        return new RuleSet(dealerHitsSoft17, numberOfDecks, penetration, blackjackPayoutNumerator,
+                blackjackPayoutDenominator, doubleAfterSplit, surrender, dealerPeek);
+    }
+
+    /**
+     * Copies the rules with the dealer peeking for blackjack or not.
+     * @param dealerPeek true if the dealer peeks before players act
+     * @return The changed rules
+     */
+    public RuleSet withDealerPeek(boolean dealerPeek) {
+        return new RuleSet(dealerHitsSoft17, numberOfDecks, penetration, blackjackPayoutNumerator,
+                blackjackPayoutDenominator, doubleAfterSplit, surrender, dealerPeek);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RuleSet)) {
+            return false;
+        }
+        RuleSet other = (RuleSet) o;
+        return dealerHitsSoft17 == other.dealerHitsSoft17
+                && numberOfDecks == other.numberOfDecks
+                && Double.compare(penetration, other.penetration) == 0
+                && blackjackPayoutNumerator == other.blackjackPayoutNumerator
+                && blackjackPayoutDenominator == other.blackjackPayoutDenominator
+                && doubleAfterSplit == other.doubleAfterSplit
+                && surrender == other.surrender
+                && dealerPeek == other.dealerPeek;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dealerHitsSoft17, numberOfDecks, penetration, blackjackPayoutNumerator,
+                blackjackPayoutDenominator, doubleAfterSplit, surrender, dealerPeek);
+    }
+
+    @Override
+    public String toString() {
+        return numberOfDecks + (numberOfDecks == 1 ? " deck" : " decks")
+                + ", " + (dealerHitsSoft17 ? "H17" : "S17")
+                + ", blackjack pays " + blackjackPayoutNumerator + ":" + blackjackPayoutDenominator
+                + (doubleAfterSplit ? ", DAS" : ", no DAS")
+                + (surrender ? ", surrender" : ", no surrender")
+                + (dealerPeek ? ", peek" : ", no peek");
+    }
+}
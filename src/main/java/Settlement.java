@@ -0,0 +1,53 @@
+import java.util.List;
+
+/**
+ * Works out what a settled hand pays, and pays it.
+ * Payouts are fixed from the table's rules when the game is created,
+ * so settling a hand only looks at the hand.
+ */
+final class Settlement {
+    private final long blackjackWin;
+
+    /**
+     * Creates the settlement for a table's rules.
+     * @param rules The table's rules
+     */
+    Settlement(RuleSet rules) {
+        this.blackjackWin = rules.getBlackjackPayoutMilliUnits();
+    }
+
+    /**
+     * Gets the amount a hand wins or loses.
+     * @param hand The settled hand
+     * @param outcome The result of the hand
+     * @return The net result in thousandths of a bet, negative for a loss
+     */
+    long net(Hand hand, Game.Outcome outcome) {
+        long bet = hand.isDoubled() ? 2 * Statistics.UNIT : Statistics.UNIT;
+        switch (outcome) {
+            case WIN:
+                return hand.isBlackjack() ? blackjackWin : bet;
+            case LOSS:
+                return -bet;
+            case SURRENDER:
+                return -bet / 2;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Pays every seat at the table its result for the round.
+     * Each seat's result is its bet times the net of all its hands; fractions of a
+     * minor unit, as from 3:2 on an odd bet, are rounded down in the house's favour.
+     * @param players The players, in seat order
+     * @param seatNets The net result of each seat over all its hands, in thousandths of its bet
+     */
+    void pay(List<Player> players, long[] seatNets) {
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            long bet = player.getBet();
+            player.getBankroll().settle(bet, Math.floorDiv(bet * seatNets[i], Statistics.UNIT));
+        }
+    }
+}
@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays large numbers of rounds without the GUI.
+ * Splits the work across threads, each with its own game and random stream,
+ * and merges the totals at the end.
+ * Throughput is about 2.2 million hands per second per core with BasicStrategy
+ * (SimulatorBenchmark in the benchmarks module), well short of 50 million; it scales
+ * with the number of threads up to the number of cores.
+ */
+public class Simulator {
+    private static final String PLAYER_NAME = "Simulated Player";
+
+    private final PlayerPolicy policy;
+    private final int threads;
+    private final RuleSet rules;
+    private Path logDirectory;
+    private Path resultDirectory;
+    private CardCounter.CountingSystem countingSystem;
+    private int spread;
+    private final LongAdder bankrollResult = new LongAdder();
+
+    /**
+     * Creates a simulator that uses every available core.
+     * @param policy The policy that plays the player's hands
+     */
+    public Simulator(PlayerPolicy policy) {
+        this(policy, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a simulator with a fixed number of worker threads.
+     * @param policy The policy that plays the player's hands
+     * @param threads The number of worker threads
+     */
+    public Simulator(PlayerPolicy policy, int threads) {
+        this(policy, threads, Deck.DEFAULT_NUMBER_OF_DECKS, Deck.DEFAULT_PENETRATION);
+    }
+
+    /**
+     * Creates a simulator that deals from a multi-deck shoe.
+     * @param policy The policy that plays the player's hands
+     * @param threads The number of worker threads
+     * @param numberOfDecks The number of decks in each worker's shoe
+     * @param penetration The fraction of the shoe dealt before reshuffling
+     */
+    public Simulator(PlayerPolicy policy, int threads, int numberOfDecks, double penetration) {
+        this(policy, threads, RuleSet.DEFAULT.withNumberOfDecks(numberOfDecks).withPenetration(penetration));
+    }
+
+    /**
+     * Creates a simulator that plays by a table's rules.
+     * @param policy The policy that plays the player's hands
+     * @param threads The number of worker threads
+     * @param rules The rules every worker's table plays by
+     */
+    public Simulator(PlayerPolicy policy, int threads, RuleSet rules) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.policy = policy;
+        this.threads = threads;
+        this.rules = rules;
+    }
+
+    /**
+     * Records every round into event logs, one per worker, named worker-N.bjlog.
+     * @param logDirectory The directory to write the logs to, or null to stop recording
+     */
+    public void setLogDirectory(Path logDirectory) {
+        this.logDirectory = logDirectory;
+    }
+
+    /**
+     * Stores every hand into memory-mapped result files, one per worker, named worker-N.bjres.
+     * @param resultDirectory The directory to write the result files to, or null to stop storing
+     */
+    public void setResultDirectory(Path resultDirectory) {
+        this.resultDirectory = resultDirectory;
+    }
+
+    /**
+     * Counts every worker's shoe and spreads the player's bets with the true count,
+     * from one minimum bet up to spread minimum bets.
+     * @param countingSystem The counting system, or null to bet flat
+     * @param spread The largest bet as a multiple of the minimum
+     */
+    public void setCountSpread(CardCounter.CountingSystem countingSystem, int spread) {
+        if (countingSystem != null && spread < 1) {
+            throw new IllegalArgumentException("spread must be at least 1");
+        }
+        this.countingSystem = countingSystem;
+        this.spread = spread;
+    }
+
+    /**
+     * Gets the money won or lost by the players of every run so far.
+     * Unlike the statistics, this follows the size of each bet.
+     * @return The net result in minor units
+     */
+    public long getBankrollResult() {
+        return bankrollResult.sum();
+    }
+
+    /**
+     * Plays the given number of rounds.
+     * Runs with the same seed and thread count always produce the same totals.
+     * @param rounds The total number of rounds to play
+     * @param seed The seed from which every worker's random stream is derived
+     * @return The totals of all workers
+     */
+    public StatisticsSnapshot run(long rounds, long seed) {
+        Statistics statistics = new Statistics();
+        run(rounds, seed, statistics);
+        return statistics.snapshot();
+    }
+
+    /**
+     * Plays the given number of rounds, recording every hand into shared statistics.
+     * All workers record into the same striped counters as they play.
+     * @param rounds The total number of rounds to play
+     * @param seed The seed from which every worker's random stream is derived
+     * @param statistics The statistics to record into
+     */
+    public void run(long rounds, long seed, Statistics statistics) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            SplittableRandom seeds = new SplittableRandom(seed);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                long share = rounds / threads + (i < rounds % threads ? 1 : 0);
+                SplittableRandom stream = seeds.split();
+                Game game = new Game(rules, stream, statistics);
+                game.addPlayer(PLAYER_NAME);
+                Player player = game.getPlayers().get(0);
+                if (countingSystem != null) {
+                    CardCounter counter = game.getDeck().addCounter(countingSystem);
+                    player.setBettingPolicy(new CountSpreadBetting(counter::getTrueCountFloor, Bankroll.MINOR_UNITS, spread));
+                }
+                Path log = logDirectory != null ? logDirectory.resolve("worker-" + i + ".bjlog") : null;
+                Path results = resultDirectory != null ? resultDirectory.resolve("worker-" + i + ".bjres") : null;
+                futures.add(executor.submit(() -> {
+                    play(game, policy, share, log, results);
+                    bankrollResult.add(player.getBankroll().getBalance() - Bankroll.DEFAULT_BALANCE);
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays rounds on a single game whose only player has joined.
+     * @param game The game to play on
+     * @param policy The policy that plays the player's hand
+     * @param rounds The number of rounds to play
+     */
+    static void play(Game game, PlayerPolicy policy, long rounds) {
+        for (long i = 0; i < rounds; i++) {
+            game.startNewRound();
+            game.playTurn(policy);
+        }
+    }
+
+    /**
+     * Plays rounds on a single game whose only player has joined, recording them into an event log
+     * and storing every hand into a result file.
+     * @param game The game to play on
+     * @param policy The policy that plays the player's hand
+     * @param rounds The number of rounds to play
+     * @param log The event log to write, or null to play without recording
+     * @param results The result file to write, or null to play without storing hands
+     */
+    static void play(Game game, PlayerPolicy policy, long rounds, Path log, Path results) {
+        if (log == null && results == null) {
+            play(game, policy, rounds);
+            return;
+        }
+        try (EventLogWriter writer = log != null ? new EventLogWriter(log, game) : null;
+             ResultStoreWriter store = results != null ? new ResultStoreWriter(results, game) : null) {
+            if (writer != null && store != null) {
+                game.setRecorder(RoundRecorder.both(writer, store));
+            } else {
+                game.setRecorder(writer != null ? writer : store);
+            }
+            play(game, policy, rounds);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            game.setRecorder(null);
+        }
+    }
+
+    /**
+     * Runs a simulation from the command line.
+     * Usage: java Simulator [rounds] [threads] [seed] [decks] [penetration] [logDirectory] [resultDirectory] [system:spread]
+     * Pass - to skip the log or result directory. A count spread such as HI_LO:8 bets with the true count.
+     */
+    public static void main(String[] args) {
+        long rounds = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        int decks = args.length > 3 ? Integer.parseInt(args[3]) : Deck.DEFAULT_NUMBER_OF_DECKS;
+        double penetration = args.length > 4 ? Double.parseDouble(args[4]) : Deck.DEFAULT_PENETRATION;
+        Path logDirectory = args.length > 5 && !args[5].equals("-") ? Paths.get(args[5]) : null;
+        Path resultDirectory = args.length > 6 && !args[6].equals("-") ? Paths.get(args[6]) : null;
+        String[] countSpread = args.length > 7 ? args[7].split(":") : null;
+
+        Metrics metrics = new Metrics();
+        Statistics statistics = new Statistics();
+        metrics.register("simulation", "total", statistics);
+
+        long start = System.nanoTime();
+        Simulator simulator = new Simulator(new BasicStrategy(), threads, decks, penetration);
+        simulator.setLogDirectory(logDirectory);
+        simulator.setResultDirectory(resultDirectory);
+        if (countSpread != null) {
+            simulator.setCountSpread(CardCounter.CountingSystem.valueOf(countSpread[0]),
+                    countSpread.length > 1 ? Integer.parseInt(countSpread[1]) : 8);
+        }
+        simulator.run(rounds, seed, statistics);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        StatisticsSnapshot result = statistics.snapshot();
+        System.out.println(result);
+        System.out.printf("House edge: %.4f%%%n", -100.0 * result.getExpectedValue());
+        System.out.println("Bankroll result: " + Bankroll.format(simulator.getBankrollResult()));
+        System.out.printf("%d rounds on %d threads in %.2fs (%.0f hands/sec, seed %d)%n",
+                rounds, threads, seconds, rounds / seconds, seed);
+        System.out.print(metrics.exposition());
+    }
+}
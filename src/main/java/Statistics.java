@@ -0,0 +1,163 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the outcomes of hands for a player, a table or a whole server.
+ * Counters are striped LongAdders, so many threads can record into the
+ * same statistics without contending on a single value.
+ * Every outcome recorded here is also recorded in the parent statistics, if any.
+ */
+public class Statistics implements StatisticsMBean {
+    // Net results are kept in thousandths of a bet so fractional payouts stay exact
+    public static final long UNIT = 1000;
+
+    private final Statistics parent;
+    private final LongAdder wins;
+    private final LongAdder losses;
+    private final LongAdder pushes;
+    private final LongAdder blackjacks;
+    private final LongAdder busts;
+    private final LongAdder netMilliUnits;
+
+    /**
+     * Creates statistics that are not rolled up anywhere.
+     */
+    public Statistics() {
+        this(null);
+    }
+
+    /**
+     * Creates statistics that are also rolled up into a parent.
+     * @param parent The statistics to roll up into, or null
+     */
+    public Statistics(Statistics parent) {
+        this.parent = parent;
+        this.wins = new LongAdder();
+        this.losses = new LongAdder();
+        this.pushes = new LongAdder();
+        this.blackjacks = new LongAdder();
+        this.busts = new LongAdder();
+        this.netMilliUnits = new LongAdder();
+    }
+
+    /**
+     * Records a won hand.
+     * @param netMilliUnits The amount won, in thousandths of a bet
+     */
+    public void recordWin(long netMilliUnits) {
+        for (Statistics s = this; s != null; s = s.parent) {
+            s.wins.increment();
+            s.netMilliUnits.add(netMilliUnits);
+        }
+    }
+
+    /**
+     * Records a lost hand.
+     * @param netMilliUnits The amount lost as a positive number, in thousandths of a bet
+     */
+    public void recordLoss(long netMilliUnits) {
+        for (Statistics s = this; s != null; s = s.parent) {
+            s.losses.increment();
+            s.netMilliUnits.add(-netMilliUnits);
+        }
+    }
+
+    /**
+     * Records a tied hand.
+     */
+    public void recordPush() {
+        for (Statistics s = this; s != null; s = s.parent) {
+            s.pushes.increment();
+        }
+    }
+
+    /**
+     * Records a blackjack, in addition to the hand's win, loss or push.
+     */
+    public void recordBlackjack() {
+        for (Statistics s = this; s != null; s = s.parent) {
+            s.blackjacks.increment();
+        }
+    }
+
+    /**
+     * Records a bust, in addition to the hand's loss.
+     */
+    public void recordBust() {
+        for (Statistics s = this; s != null; s = s.parent) {
+            s.busts.increment();
+        }
+    }
+
+    /**
+     * Gets the number of settled hands.
+     * @return The number of wins, losses and pushes
+     */
+    @Override
+    public long getHands() {
+        return getWins() + getLosses() + getPushes();
+    }
+
+    @Override
+    public long getWins() {
+        return wins.sum();
+    }
+
+    @Override
+    public long getLosses() {
+        return losses.sum();
+    }
+
+    @Override
+    public long getPushes() {
+        return pushes.sum();
+    }
+
+    @Override
+    public long getBlackjacks() {
+        return blackjacks.sum();
+    }
+
+    @Override
+    public long getBusts() {
+        return busts.sum();
+    }
+
+    /**
+     * Gets the net result in bets.
+     * @return The amount won minus the amount lost, in units of one bet
+     */
+    @Override
+    public double getNetUnits() {
+        return (double) getNetMilliUnits() / UNIT;
+    }
+
+    /**
+     * Gets the exact net result.
+     * @return The amount won minus the amount lost, in thousandths of a bet
+     */
+    public long getNetMilliUnits() {
+        return netMilliUnits.sum();
+    }
+
+    /**
+     * Takes a snapshot of the counters.
+     * Counters recorded concurrently with the snapshot may or may not be included.
+     * @return The snapshot
+     */
+    public StatisticsSnapshot snapshot() {
+        return new StatisticsSnapshot(getWins(), getLosses(), getPushes(),
+                getBlackjacks(), getBusts(), getNetMilliUnits());
+    }
+
+    /**
+     * Resets every counter to zero. Parent statistics are left alone.
+     */
+    public void reset() {
+        wins.reset();
+        losses.reset();
+        pushes.reset();
+        blackjacks.reset();
+        busts.reset();
+        netMilliUnits.reset();
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * The management interface through which Statistics are published over JMX.
+ */
+public interface StatisticsMBean {
+    long getHands();
+
+    long getWins();
+
+    long getLosses();
+
+    long getPushes();
+
+    long getBlackjacks();
+
+    long getBusts();
+
+    double getNetUnits();
+}
@@ -0,0 +1,64 @@
+/**
+ * An immutable copy of a Statistics' counters at one point in time.
+ */
+public final class StatisticsSnapshot {
+    private final long wins;
+    private final long losses;
+    private final long pushes;
+    private final long blackjacks;
+    private final long busts;
+    private final long netMilliUnits;
+
+    StatisticsSnapshot(long wins, long losses, long pushes, long blackjacks, long busts, long netMilliUnits) {
+        this.wins = wins;
+        this.losses = losses;
+        this.pushes = pushes;
+        this.blackjacks = blackjacks;
+        this.busts = busts;
+        this.netMilliUnits = netMilliUnits;
+    }
+
+    public long getHands() {
+        return wins + losses + pushes;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getPushes() {
+        return pushes;
+    }
+
+    public long getBlackjacks() {
+        return blackjacks;
+    }
+
+    public long getBusts() {
+        return busts;
+    }
+
+    public long getNetMilliUnits() {
+        return netMilliUnits;
+    }
+
+    /**
+     * Gets the average result per hand.
+     * @return The net result in bets divided by the number of hands, or 0 with no hands
+     */
+    public double getExpectedValue() {
+        long hands = getHands();
+        return hands == 0 ? 0.0 : (double) netMilliUnits / Statistics.UNIT / hands;
+    }
+
+    @Override
+    public String toString() {
+        return "Wins: " + wins + " | Losses: " + losses + " | Pushes: " + pushes
+                + " | Blackjacks: " + blackjacks + " | Busts: " + busts
+                + " | Net: " + (double) netMilliUnits / Statistics.UNIT;
+    }
+}
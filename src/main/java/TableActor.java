@@ -0,0 +1,178 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Runs one table's Game as an actor.
+ * Commands are queued in the table's own mailbox and handled one at a time,
+ * so the game is never touched by two threads at once and tables share no locks.
+ * The actor only occupies a thread while its mailbox has commands in it.
+ */
+public class TableActor {
+    // Commands handled before the actor yields its thread to other tables
+    private static final int BATCH_SIZE = 64;
+
+    private final int id;
+    private final Game game;
+    private final Executor executor;
+    private final Queue<TableCommand> mailbox;
+    private final AtomicBoolean scheduled;
+    private final Consumer<Game> onClose;
+    private boolean closed;
+
+    /**
+     * Creates a table.
+     * @param id The id of the table
+     * @param game The game played at the table, owned by the actor from now on
+     * @param executor The executor that runs the actor when it has commands
+     */
+    public TableActor(int id, Game game, Executor executor) {
+        this(id, game, executor, closedGame -> { });
+    }
+
+    /**
+     * Creates a table that hands its game on when it closes, such as back to a GamePool.
+     * @param id The id of the table
+     * @param game The game played at the table, owned by the actor until it closes
+     * @param executor The executor that runs the actor when it has commands
+     * @param onClose Receives the game once the table has handled its CLOSE command
+     */
+    public TableActor(int id, Game game, Executor executor, Consumer<Game> onClose) {
+        this.id = id;
+        this.game = game;
+        this.executor = executor;
+        this.onClose = onClose;
+        this.mailbox = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean();
+    }
+
+    /**
+     * Gets the id of the table.
+     * @return The table id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Queues an action for the table.
+     * @param type The action to take
+     * @param playerName The player taking the action
+     * @return The table state once the action has been handled
+     */
+    public CompletableFuture<TableState> submit(TableCommand.Type type, String playerName) {
+        TableCommand command = new TableCommand(type, playerName);
+        mailbox.add(command);
+        schedule();
+        return command.getReply();
+    }
+
+    /**
+     * Queues a task to run against the table's game, in turn with the players' actions.
+     * Tasks see the game from the table's thread, so they can read and change it freely,
+     * but must not keep it once they return.
+     * @param task The task to run
+     * @return The table state once the task has run
+     */
+    public CompletableFuture<TableState> execute(Consumer<Game> task) {
+        TableCommand command = new TableCommand(task);
+        mailbox.add(command);
+        schedule();
+        return command.getReply();
+    }
+
+    /**
+     * Gets the number of commands waiting in the mailbox.
+     * @return The mailbox size
+     */
+    public int getPendingCommands() {
+        return mailbox.size();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Handles queued commands, then yields the thread.
+     */
+    private void drain() {
+        TableCommand command;
+        int handled = 0;
+        while (handled < BATCH_SIZE && (command = mailbox.poll()) != null) {
+            try {
+                command.getReply().complete(handle(command));
+            } catch (RuntimeException e) {
+                command.getReply().completeExceptionally(e);
+            }
+            handled++;
+        }
+
+        scheduled.set(false);
+        // A command may have arrived after the last poll
+        if (!mailbox.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private TableState handle(TableCommand command) {
+        if (closed) {
+            throw new IllegalStateException("Table " + id + " is closed");
+        }
+        switch (command.getType()) {
+            case JOIN:
+                if (game.getPlayer(command.getPlayerName()) != null) {
+                    throw new IllegalStateException(command.getPlayerName() + " is already seated at table " + id);
+                }
+                game.addPlayer(command.getPlayerName());
+                break;
+            case START_ROUND:
+                if (game.getPlayers().isEmpty()) {
+                    throw new IllegalStateException("No players at table " + id);
+                }
+                game.startNewRound();
+                break;
+            case HIT:
+                checkTurn(command.getPlayerName());
+                game.hit();
+                break;
+            case STAY:
+                checkTurn(command.getPlayerName());
+                game.stay();
+                break;
+            case DOUBLE:
+                checkTurn(command.getPlayerName());
+                game.doubleDown();
+                break;
+            case SPLIT:
+                checkTurn(command.getPlayerName());
+                game.split();
+                break;
+            case SURRENDER:
+                checkTurn(command.getPlayerName());
+                game.surrender();
+                break;
+            case CLOSE:
+                // The state is taken before the game is handed on and reset
+                TableState state = TableState.of(id, game);
+                closed = true;
+                onClose.accept(game);
+                return state;
+            case TASK:
+                command.getTask().accept(game);
+                break;
+        }
+        return TableState.of(id, game);
+    }
+
+    private void checkTurn(String playerName) {
+        Player current = game.getCurrentPlayer();
+        if (game.getGameState() != Game.GameState.PLAYING || current == null
+                || !current.getName().equals(playerName)) {
+            throw new IllegalStateException("It is not " + playerName + "'s turn at table " + id);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * A player action queued in a table's mailbox.
+ * Completes its reply with the table state once the table has handled it.
+ */
+public final class TableCommand {
+    /**
+     * Represents the actions that can be sent to a table.
+     */
+    public enum Type {
+        JOIN,        // Take a seat at the table
+        START_ROUND, // Deal a new round
+        HIT,         // The current player takes another card
+        STAY,        // The current player ends their turn
+        DOUBLE,      // The current player doubles down
+        SPLIT,       // The current player splits a pair
+        SURRENDER,   // The current player gives up half their bet
+        CLOSE,       // Close the table once the commands before it are handled
+        TASK         // Run a task against the table's game on the table's thread
+    }
+
+    private final Type type;
+    private final String playerName;
+    private final Consumer<Game> task;
+    private final CompletableFuture<TableState> reply;
+
+    /**
+     * Creates a command.
+     * @param type The action to take
+     * @param playerName The player taking the action
+     */
+    public TableCommand(Type type, String playerName) {
+        this.type = type;
+        this.playerName = playerName;
+        this.task = null;
+        this.reply = new CompletableFuture<>();
+    }
+
+    /**
+     * Creates a TASK command.
+     * @param task The task, given the table's game while no other command is handled
+     */
+    public TableCommand(Consumer<Game> task) {
+        this.type = Type.TASK;
+        this.playerName = null;
+        this.task = task;
+        this.reply = new CompletableFuture<>();
+    }
+
+    /**
+     * Gets the action to take.
+     * @return The type of the command
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the player taking the action.
+     * @return The player's name
+     */
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    /**
+     * Gets the task of a TASK command.
+     * @return The task, or null for other commands
+     */
+    public Consumer<Game> getTask() {
+        return task;
+    }
+
+    /**
+     * Gets the reply that completes once the table has handled the command.
+     * @return The future table state
+     */
+    public CompletableFuture<TableState> getReply() {
+        return reply;
+    }
+}
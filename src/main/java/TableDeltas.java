@@ -0,0 +1,231 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Turns the changes to one table's game into TableProtocol deltas for the
+ * connections seated at the table.
+ * Deltas are collected while the table handles a command, and sent as one buffer,
+ * shared by every connection, once the game has settled into its new state.
+ * Only used from the table's thread: it is attached, and connections come and go,
+ * through tasks run by the table's actor.
+ */
+final class TableDeltas implements GameListener {
+    private final int tableId;
+    private final List<TableProtocolServer.Connection> connections;
+    private ByteBuffer pending;
+    private ByteBuffer snapshot;
+    private long turnRound = -1;
+    private int turnState = -1;
+    private int turnSeat = -1;
+    private int turnHand = -1;
+    private long settledRound;
+
+    /**
+     * Creates the deltas of a table.
+     * @param tableId The id of the table
+     */
+    TableDeltas(int tableId) {
+        this.tableId = tableId;
+        this.connections = new ArrayList<>();
+        this.pending = ByteBuffer.allocate(1024);
+    }
+
+    /**
+     * Gets the id of the table.
+     * @return The table id
+     */
+    int getTableId() {
+        return tableId;
+    }
+
+    /**
+     * Starts following a game, with the players already seated at it.
+     * @param game The table's game
+     */
+    void attach(Game game) {
+        game.addGameListener(this);
+        watchHands(game.getDealer(), TableProtocol.DEALER_SEAT);
+        for (int i = 0; i < game.getPlayers().size(); i++) {
+            watchHands(game.getPlayers().get(i), i);
+        }
+        settledRound = game.getRoundNumber();
+    }
+
+    /**
+     * Sends a connection a snapshot of the table, then every delta after it.
+     * @param connection The connection
+     * @param game The table's game
+     */
+    void subscribe(TableProtocolServer.Connection connection, Game game) {
+        flush();
+        sendSnapshot(connection, game);
+        connections.add(connection);
+    }
+
+    /**
+     * Stops sending deltas to a connection.
+     * @param connection The connection
+     */
+    void unsubscribe(TableProtocolServer.Connection connection) {
+        connections.remove(connection);
+    }
+
+    /**
+     * Sends a connection a snapshot of the table.
+     * @param connection The connection
+     * @param game The table's game
+     */
+    void sendSnapshot(TableProtocolServer.Connection connection, Game game) {
+        flush();
+        if (snapshot == null) {
+            snapshot = ByteBuffer.allocate(TableProtocol.MAX_FRAME + 2);
+        }
+        TableProtocol.putSnapshot(snapshot, tableId, game);
+        connection.send(ByteBuffer.wrap(Arrays.copyOf(snapshot.array(), snapshot.position())));
+        snapshot.clear();
+    }
+
+    @Override
+    public void playerAdded(Game game, Player player) {
+        int seat = game.getPlayers().size() - 1;
+        watchHands(player, seat);
+        ensureCapacity(3 + TableProtocol.MAX_STRING + 1);
+        int start = TableProtocol.beginFrame(pending, TableProtocol.SEATED);
+        pending.put((byte) seat);
+        TableProtocol.putString(pending, player.getName());
+        TableProtocol.endFrame(pending, start);
+        flush();
+    }
+
+    @Override
+    public void gameChanged(Game game) {
+        Player current = game.getCurrentPlayer();
+        boolean playing = game.getGameState() == Game.GameState.PLAYING && current != null;
+        long round = game.getRoundNumber();
+        int state = game.getGameState().ordinal();
+        int seat = playing ? game.getPlayers().indexOf(current) : TableProtocol.NO_SEAT;
+        int hand = playing ? current.getActiveHandIndex() : 0;
+        if (round != turnRound || state != turnState || seat != turnSeat || hand != turnHand) {
+            turnRound = round;
+            turnState = state;
+            turnSeat = seat;
+            turnHand = hand;
+            ensureCapacity(14);
+            int start = TableProtocol.beginFrame(pending, TableProtocol.TURN);
+            pending.putLong(round);
+            TableProtocol.putTurn(pending, game);
+            TableProtocol.endFrame(pending, start);
+        }
+
+        if (game.getGameState() == Game.GameState.ROUND_OVER && round != settledRound) {
+            settledRound = round;
+            List<Player> players = game.getPlayers();
+            for (int i = 0; i < players.size(); i++) {
+                Bankroll bankroll = players.get(i).getBankroll();
+                ensureCapacity(20);
+                int start = TableProtocol.beginFrame(pending, TableProtocol.SETTLED);
+                pending.put((byte) i).putLong(bankroll.getLastResult()).putLong(bankroll.getBalance());
+                TableProtocol.endFrame(pending, start);
+            }
+        }
+        flush();
+    }
+
+    private void watchHands(Player player, int seat) {
+        int slots = player.isDealer() ? 1 : Player.MAX_HANDS;
+        for (int i = 0; i < slots; i++) {
+            player.getHandSlot(i).addHandListener(new HandDeltas(seat, i));
+        }
+    }
+
+    /**
+     * Sends the collected deltas to every connection at the table.
+     */
+    private void flush() {
+        if (pending.position() == 0) {
+            return;
+        }
+        byte[] bytes = Arrays.copyOf(pending.array(), pending.position());
+        pending.clear();
+        for (int i = 0; i < connections.size(); i++) {
+            connections.get(i).send(ByteBuffer.wrap(bytes));
+        }
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+    }
+
+    /**
+     * Writes the deltas of one hand slot, sending its value only when it changes.
+     */
+    private final class HandDeltas implements HandListener {
+        private final byte seat;
+        private final byte slot;
+        private int value;
+        private boolean soft;
+
+        HandDeltas(int seat, int slot) {
+            this.seat = (byte) seat;
+            this.slot = (byte) slot;
+        }
+
+        @Override
+        public void cardAdded(Hand hand, Card card, int index) {
+            ensureCapacity(6);
+            int start = TableProtocol.beginFrame(pending, TableProtocol.CARD);
+            pending.put(seat).put(slot).put(TableProtocol.cardCode(card));
+            TableProtocol.endFrame(pending, start);
+            valueChanged(hand);
+        }
+
+        @Override
+        public void cardRemoved(Hand hand, int index) {
+            ensureCapacity(5);
+            int start = TableProtocol.beginFrame(pending, TableProtocol.REMOVED);
+            pending.put(seat).put(slot);
+            TableProtocol.endFrame(pending, start);
+            valueChanged(hand);
+        }
+
+        @Override
+        public void cardRevealed(Hand hand, int index) {
+            ensureCapacity(7);
+            int start = TableProtocol.beginFrame(pending, TableProtocol.FLIP);
+            pending.put(seat).put(slot).put((byte) index).put(TableProtocol.cardCode(hand.getCards().get(index)));
+            TableProtocol.endFrame(pending, start);
+            valueChanged(hand);
+        }
+
+        @Override
+        public void handCleared(Hand hand) {
+            ensureCapacity(5);
+            int start = TableProtocol.beginFrame(pending, TableProtocol.CLEARED);
+            pending.put(seat).put(slot);
+            TableProtocol.endFrame(pending, start);
+            // Clients reset a cleared hand's value themselves
+            value = 0;
+            soft = false;
+        }
+
+        private void valueChanged(Hand hand) {
+            int newValue = hand.calculateValue();
+            boolean newSoft = hand.isSoft();
+            if (newValue != value || newSoft != soft) {
+                value = newValue;
+                soft = newSoft;
+                ensureCapacity(7);
+                int start = TableProtocol.beginFrame(pending, TableProtocol.VALUE);
+                pending.put(seat).put(slot).put((byte) newValue).put((byte) (newSoft ? 1 : 0));
+                TableProtocol.endFrame(pending, start);
+            }
+        }
+    }
+}
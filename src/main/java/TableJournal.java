@@ -0,0 +1,929 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiFunction;
+import java.util.random.RandomGenerator;
+import java.util.zip.CRC32C;
+
+/**
+ * Keeps the tables of a TableServer on disk, so they survive the process.
+ * Every table writes what decides its play (opening, players joining, round starts
+ * with the shoe seed and position, mid-round shuffles and player actions) to a
+ * write-ahead log; the cards follow from the seeds, so a round in progress is
+ * brought back exactly by dealing it again and repeating its actions.
+ * A checkpoint writes a compact snapshot of every table, after which the log
+ * segments it covers are deleted, so restoring never replays more than the play
+ * since the last checkpoint.
+ * <p>A log segment starts with an int magic and a short version, followed by batches,
+ * each an int length, an int CRC-32C and that many bytes of records. A record is a type byte,
+ * an int table, an int sequence number counting the table's records, then its fields:
+ * <pre>
+ * OPEN        the table's rules, as in EventLog
+ * JOIN        short length and UTF-8 name
+ * ROUND_START long round, long shoe seed, short position, byte players, then per player long bet
+ * SHUFFLE     long shoe seed
+ * HIT         (no fields)
+ * STAY        (no fields)
+ * DOUBLE      (no fields)
+ * SPLIT       (no fields)
+ * SURRENDER   (no fields)
+ * CLOSE       (no fields)
+ * </pre>
+ * <p>The checkpoint file holds an int magic, a short version, the long number of the first
+ * log segment to replay and an int table count, then per table an int length and a snapshot:
+ * int table, int sequence number, the rules, long round, long shoe seed, short position,
+ * byte players, per player a name, long balance, long bet and long next bet, byte players
+ * dealt into the round, short length and the round's records without their table and sequence.
+ * A snapshot describes the table as its latest round started, plus that round's events.
+ * <p>Batches are written to the log every flush interval and forced to disk every sync interval,
+ * so a crash of the process loses at most the last flush interval of play, and a crash of
+ * the machine at most the last sync interval. Betting policies are kept as the flat bet they
+ * would place next.
+ */
+public class TableJournal implements AutoCloseable {
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 10;
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 1_000;
+    public static final long DEFAULT_CHECKPOINT_INTERVAL_MILLIS = 60_000;
+
+    static final int LOG_MAGIC = 0x424A574C; // "BJWL"
+    static final int CHECKPOINT_MAGIC = 0x424A4350; // "BJCP"
+    static final short VERSION = 1;
+
+    // Record types
+    static final byte OPEN = 1;
+    static final byte JOIN = 2;
+    static final byte ROUND_START = 3;
+    static final byte SHUFFLE = 4;
+    static final byte HIT = 5;
+    static final byte STAY = 6;
+    static final byte DOUBLE = 7;
+    static final byte SPLIT = 8;
+    static final byte SURRENDER = 9;
+    static final byte CLOSE = 10;
+
+    private static final int RECORD_HEADER_BYTES = 1 + 4 + 4;
+    private static final int BATCH_HEADER_BYTES = 4 + 4;
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String SEGMENT_PREFIX = "wal-";
+
+    private final Path directory;
+    private final long syncIntervalNanos;
+    private final long checkpointIntervalMillis;
+    private final Map<Integer, TableRecorder> recorders;
+    private final Object appendLock;
+    private final ScheduledExecutorService flusher;
+    private final CRC32C crc;
+    private ByteBuffer pending;
+    private ByteBuffer writing;
+    private FileChannel channel;
+    private long segment;
+    private long lastSync;
+
+    /**
+     * Opens a journal that flushes every 10 ms, syncs every second and checkpoints every minute.
+     * @param directory The directory holding the journal, created if needed
+     * @throws IOException If the journal cannot be opened
+     */
+    public TableJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_SYNC_INTERVAL_MILLIS, DEFAULT_CHECKPOINT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Opens a journal. What the directory already holds is kept for restoring,
+     * and new records go to a fresh log segment.
+     * @param directory The directory holding the journal, created if needed
+     * @param flushIntervalMillis The time between writing batches of records to the log
+     * @param syncIntervalMillis The least time between forcing the log to disk
+     * @param checkpointIntervalMillis The time between checkpoints taken by a TableServer
+     * @throws IOException If the journal cannot be opened
+     */
+    public TableJournal(Path directory, long flushIntervalMillis, long syncIntervalMillis,
+                        long checkpointIntervalMillis) throws IOException {
+        if (flushIntervalMillis < 1 || checkpointIntervalMillis < 1) {
+            throw new IllegalArgumentException("intervals must be at least 1 ms");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.syncIntervalNanos = syncIntervalMillis * 1_000_000L;
+        this.checkpointIntervalMillis = checkpointIntervalMillis;
+        this.recorders = new ConcurrentHashMap<>();
+        this.appendLock = new Object();
+        this.crc = new CRC32C();
+        this.pending = ByteBuffer.allocate(64 * 1024);
+        this.writing = ByteBuffer.allocate(64 * 1024);
+        List<Long> segments = segments();
+        this.segment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1) + 1;
+        this.channel = openSegment(segment);
+        this.lastSync = System.nanoTime();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "table-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the time between checkpoints taken by a TableServer.
+     * @return The checkpoint interval in milliseconds
+     */
+    public long getCheckpointIntervalMillis() {
+        return checkpointIntervalMillis;
+    }
+
+    /**
+     * Gets the number of tables being recorded.
+     * @return The number of tables
+     */
+    public int getTableCount() {
+        return recorders.size();
+    }
+
+    /**
+     * Starts recording a newly opened table.
+     * Must be called on the table's thread, or before the table handles its first command.
+     * @param tableId The id of the table
+     * @param game The table's game, with no rounds played
+     */
+    void attach(int tableId, Game game) {
+        TableRecorder recorder = new TableRecorder(tableId, game, 0);
+        recorders.put(tableId, recorder);
+        recorder.begin(OPEN);
+        EventLog.putRules(recorder.record, game.getRuleSet());
+        recorder.commit();
+        game.setRecorder(recorder);
+        game.addGameListener(recorder);
+    }
+
+    /**
+     * Stops recording a table that has closed. Called on the table's thread.
+     * @param tableId The id of the table
+     */
+    void detach(int tableId) {
+        TableRecorder recorder = recorders.remove(tableId);
+        if (recorder != null) {
+            recorder.begin(CLOSE);
+            recorder.commit();
+            recorder.game.setRecorder(null);
+            recorder.game.removeGameListener(recorder);
+        }
+    }
+
+    /**
+     * Writes whatever has been recorded to the log.
+     * @throws IOException If the log cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        synchronized (appendLock) {
+            ByteBuffer swap = pending;
+            pending = writing;
+            writing = swap;
+        }
+        writing.flip();
+        if (writing.hasRemaining()) {
+            crc.reset();
+            crc.update(writing.array(), 0, writing.limit());
+            ByteBuffer header = ByteBuffer.allocate(BATCH_HEADER_BYTES);
+            header.putInt(writing.limit()).putInt((int) crc.getValue()).flip();
+            ByteBuffer[] batch = {header, writing};
+            while (writing.hasRemaining()) {
+                channel.write(batch);
+            }
+        }
+        writing.clear();
+        if (System.nanoTime() - lastSync >= syncIntervalNanos) {
+            channel.force(false);
+            lastSync = System.nanoTime();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            // Kept in memory; the next flush tries again
+        } catch (RuntimeException e) {
+            // The journal was closed while flushing
+        }
+    }
+
+    private void append(ByteBuffer record) {
+        synchronized (appendLock) {
+            if (pending.remaining() < record.remaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + record.remaining()));
+                pending.flip();
+                larger.put(pending);
+                pending = larger;
+            }
+            pending.put(record);
+        }
+    }
+
+    /**
+     * Writes a snapshot of every table and drops the log segments it makes unnecessary.
+     * Tables keep playing while their snapshots are taken, each on its own thread.
+     * @param tables The open tables, each recorded by this journal
+     * @throws IOException If the checkpoint cannot be written
+     * @throws InterruptedException If interrupted while waiting for the snapshots
+     */
+    void checkpoint(Collection<TableActor> tables) throws IOException, InterruptedException {
+        // Everything in earlier segments happened before any snapshot below is taken
+        long firstSegment = rotate();
+
+        Map<Integer, byte[]> snapshots = new ConcurrentHashMap<>();
+        List<CompletableFuture<TableState>> taken = new ArrayList<>();
+        for (TableActor table : tables) {
+            TableRecorder recorder = recorders.get(table.getId());
+            if (recorder != null) {
+                taken.add(table.execute(game -> snapshots.put(table.getId(), recorder.snapshot())));
+            }
+        }
+        for (CompletableFuture<TableState> snapshot : taken) {
+            try {
+                snapshot.get();
+            } catch (ExecutionException e) {
+                // The table closed meanwhile; its CLOSE record is in the new segment
+            }
+        }
+
+        Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(256 * 1024);
+            buffer.putInt(CHECKPOINT_MAGIC).putShort(VERSION).putLong(firstSegment).putInt(snapshots.size());
+            for (byte[] snapshot : snapshots.values()) {
+                if (buffer.remaining() < 4 + snapshot.length) {
+                    write(out, buffer);
+                    if (buffer.capacity() < 4 + snapshot.length) {
+                        buffer = ByteBuffer.allocate(4 + snapshot.length);
+                    }
+                }
+                buffer.putInt(snapshot.length).put(snapshot);
+            }
+            write(out, buffer);
+            out.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        for (long old : segments()) {
+            if (old < firstSegment) {
+                Files.delete(segmentPath(old));
+            }
+        }
+    }
+
+    private static void write(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Flushes the current log segment and starts the next one.
+     * @return The number of the new segment
+     */
+    private synchronized long rotate() throws IOException {
+        flush();
+        channel.force(false);
+        channel.close();
+        segment++;
+        channel = openSegment(segment);
+        return segment;
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        FileChannel opened = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(6);
+        header.putInt(LOG_MAGIC).putShort(VERSION);
+        write(opened, header);
+        return opened;
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(SEGMENT_PREFIX + number);
+    }
+
+    /**
+     * Lists the log segments in the directory.
+     * @return The segment numbers, in order
+     */
+    private List<Long> segments() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path file : files) {
+                try {
+                    numbers.add(Long.parseLong(file.getFileName().toString().substring(SEGMENT_PREFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not a segment
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+    /**
+     * Rebuilds every table the journal holds, in parallel, and goes on recording them.
+     * Each table is rebuilt from its snapshot, then from the log records after it.
+     * @param newGame Creates a game for a table's rules that shuffles with the given random source
+     * @return The rebuilt games by table id
+     * @throws IOException If the journal cannot be read
+     */
+    Map<Integer, Game> restore(BiFunction<RuleSet, RandomGenerator, Game> newGame) throws IOException {
+        Map<Integer, TableHistory> histories = new HashMap<>();
+        long firstSegment = 0;
+        Path checkpoint = directory.resolve(CHECKPOINT);
+        if (Files.exists(checkpoint)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+            if (buffer.remaining() < 18 || buffer.getInt() != CHECKPOINT_MAGIC) {
+                throw new IOException(checkpoint + " is not a table checkpoint");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version);
+            }
+            firstSegment = buffer.getLong();
+            int tables = buffer.getInt();
+            for (int i = 0; i < tables; i++) {
+                int length = buffer.getInt();
+                ByteBuffer snapshot = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                TableHistory history = new TableHistory(snapshot);
+                histories.put(history.tableId, history);
+            }
+        }
+
+        for (long number : segments()) {
+            if (number >= firstSegment && number < segment) {
+                readSegment(number, histories);
+            }
+        }
+
+        Map<Integer, Game> games = new ConcurrentHashMap<>();
+        histories.values().parallelStream().forEach(history -> {
+                    Game game = history.restore(newGame);
+                    games.put(history.tableId, game);
+                    TableRecorder recorder = new TableRecorder(history.tableId, game, history.sequence);
+                    recorder.restoreRound(history);
+                    recorders.put(history.tableId, recorder);
+                    game.setRecorder(recorder);
+                    game.addGameListener(recorder);
+                });
+        return games;
+    }
+
+    /**
+     * Adds the records of one log segment to the tables' histories.
+     * Reading stops at the first batch that is incomplete or fails its checksum,
+     * which is where the process stopped writing.
+     */
+    private void readSegment(long number, Map<Integer, TableHistory> histories) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segmentPath(number)));
+        if (buffer.remaining() < 6 || buffer.getInt() != LOG_MAGIC || buffer.getShort() != VERSION) {
+            throw new IOException(segmentPath(number) + " is not a table log segment");
+        }
+        CRC32C check = new CRC32C();
+        while (buffer.remaining() >= BATCH_HEADER_BYTES) {
+            int length = buffer.getInt();
+            int expected = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                break;
+            }
+            check.reset();
+            check.update(buffer.array(), buffer.position(), length);
+            if ((int) check.getValue() != expected) {
+                break;
+            }
+            int end = buffer.position() + length;
+            while (buffer.position() < end) {
+                int start = buffer.position();
+                byte type = buffer.get();
+                int tableId = buffer.getInt();
+                int sequence = buffer.getInt();
+                skipFields(type, buffer);
+                TableHistory history = histories.get(tableId);
+                if (type == OPEN) {
+                    history = new TableHistory(tableId, EventLog.getRules(buffer.duplicate().position(start + RECORD_HEADER_BYTES)));
+                    histories.put(tableId, history);
+                } else if (type == CLOSE) {
+                    histories.remove(tableId);
+                } else if (history != null && sequence > history.sequence) {
+                    history.add(buffer, start, buffer.position() - start);
+                }
+                if (history != null && sequence > history.sequence) {
+                    history.sequence = sequence;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves past the fields of a record.
+     */
+    private static void skipFields(byte type, ByteBuffer buffer) {
+        switch (type) {
+            case OPEN:
+                buffer.position(buffer.position() + EventLog.RULES_BYTES);
+                break;
+            case JOIN:
+                buffer.position(buffer.position() + 2 + buffer.getShort(buffer.position()));
+                break;
+            case ROUND_START:
+                buffer.position(buffer.position() + 8 + 8 + 2);
+                buffer.position(buffer.position() + 1 + 8 * (buffer.get(buffer.position()) & 0xFF));
+                break;
+            case SHUFFLE:
+                buffer.position(buffer.position() + 8);
+                break;
+            case HIT:
+            case STAY:
+            case DOUBLE:
+            case SPLIT:
+            case SURRENDER:
+            case CLOSE:
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal record " + type);
+        }
+    }
+
+    /**
+     * Flushes the log and stops recording. Tables still open are restored from the journal next time.
+     * @throws IOException If the log cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            flush();
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    /**
+     * What the journal knows about one table: its snapshot, if any, and the records after it.
+     * Read on one thread, then restored on a worker of its own.
+     */
+    private static final class TableHistory {
+        private final int tableId;
+        private final boolean fromSnapshot;
+        private final RuleSet rules;
+        private int sequence;
+        // The snapshot's players and round, as described in the class comment
+        private long roundNumber;
+        private long shoeSeed;
+        private int position;
+        private String[] names = new String[0];
+        private long[] balances = new long[0];
+        private long[] bets = new long[0];
+        private long[] nextBets = new long[0];
+        private int roundPlayers;
+        private ByteBuffer roundEvents = ByteBuffer.allocate(0);
+        // Log records after the snapshot, with their table and sequence
+        private ByteBuffer records = ByteBuffer.allocate(64);
+
+        TableHistory(int tableId, RuleSet rules) {
+            this.tableId = tableId;
+            this.fromSnapshot = false;
+            this.rules = rules;
+        }
+
+        TableHistory(ByteBuffer snapshot) {
+            this.tableId = snapshot.getInt();
+            this.fromSnapshot = true;
+            this.sequence = snapshot.getInt();
+            this.rules = EventLog.getRules(snapshot);
+            this.roundNumber = snapshot.getLong();
+            this.shoeSeed = snapshot.getLong();
+            this.position = snapshot.getShort() & 0xFFFF;
+            int players = snapshot.get() & 0xFF;
+            names = new String[players];
+            balances = new long[players];
+            bets = new long[players];
+            nextBets = new long[players];
+            for (int i = 0; i < players; i++) {
+                names[i] = getName(snapshot);
+                balances[i] = snapshot.getLong();
+                bets[i] = snapshot.getLong();
+                nextBets[i] = snapshot.getLong();
+            }
+            roundPlayers = snapshot.get() & 0xFF;
+            int length = snapshot.getShort() & 0xFFFF;
+            roundEvents = snapshot.slice(snapshot.position(), length);
+        }
+
+        void add(ByteBuffer source, int offset, int length) {
+            if (records.remaining() < length) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(records.capacity() * 2, records.position() + length));
+                records.flip();
+                larger.put(records);
+                records = larger;
+            }
+            records.put(source.array(), offset, length);
+        }
+
+        /**
+         * Rebuilds the table's game: the snapshot's round is dealt again and its events
+         * repeated, then every log record after the snapshot is applied in turn.
+         */
+        Game restore(BiFunction<RuleSet, RandomGenerator, Game> newGame) {
+            ReplaySeeds seeds = new ReplaySeeds();
+            Game game = newGame.apply(rules, seeds);
+            // Every shuffle the game asks for from here on is one the log recorded, in order
+            queueShuffles(roundEvents.duplicate(), 0, seeds);
+            queueShuffles(records.duplicate().flip(), RECORD_HEADER_BYTES - 1, seeds);
+
+            for (int i = 0; i < roundPlayers; i++) {
+                addPlayer(game, names[i], balances[i], bets[i]);
+            }
+            if (roundNumber > 0) {
+                game.setRoundNumber(roundNumber - 1);
+                game.getDeck().restore(shoeSeed, position);
+                game.startNewRound();
+                ByteBuffer events = roundEvents.duplicate();
+                while (events.hasRemaining()) {
+                    apply(game, events.get(), events);
+                }
+            } else if (fromSnapshot) {
+                game.getDeck().restore(shoeSeed, position);
+            }
+            for (int i = roundPlayers; i < names.length; i++) {
+                addPlayer(game, names[i], balances[i], bets[i]);
+            }
+            for (int i = 0; i < names.length; i++) {
+                game.getPlayers().get(i).setBettingPolicy(BettingPolicy.flat(nextBets[i]));
+            }
+
+            ByteBuffer log = records.duplicate().flip();
+            while (log.hasRemaining()) {
+                byte type = log.get();
+                log.position(log.position() + RECORD_HEADER_BYTES - 1);
+                apply(game, type, log);
+            }
+            return game;
+        }
+
+        private static void addPlayer(Game game, String name, long balance, long bet) {
+            game.addPlayer(name);
+            Player player = game.getPlayers().get(game.getPlayers().size() - 1);
+            player.getBankroll().reset(balance);
+            if (bet > 0) {
+                player.setBettingPolicy(BettingPolicy.flat(bet));
+            }
+        }
+
+        private static void queueShuffles(ByteBuffer events, int headerBytes, ReplaySeeds seeds) {
+            while (events.hasRemaining()) {
+                byte type = events.get();
+                events.position(events.position() + headerBytes);
+                if (type == SHUFFLE) {
+                    seeds.add(events.getLong(events.position()));
+                }
+                skipFields(type, events);
+            }
+        }
+
+        /**
+         * Applies one record's fields to the game.
+         */
+        private void apply(Game game, byte type, ByteBuffer fields) {
+            switch (type) {
+                case JOIN:
+                    addPlayer(game, getName(fields), Bankroll.DEFAULT_BALANCE, 0);
+                    break;
+                case ROUND_START: {
+                    long round = fields.getLong();
+                    long seed = fields.getLong();
+                    int at = fields.getShort() & 0xFFFF;
+                    int players = fields.get() & 0xFF;
+                    if (players != game.getPlayers().size()) {
+                        throw new IllegalStateException("Table " + tableId + " had " + players
+                                + " players in round " + round + " but " + game.getPlayers().size() + " were restored");
+                    }
+                    for (int i = 0; i < players; i++) {
+                        game.getPlayers().get(i).setBettingPolicy(BettingPolicy.flat(fields.getLong()));
+                    }
+                    game.setRoundNumber(round - 1);
+                    game.getDeck().restore(seed, at);
+                    game.startNewRound();
+                    break;
+                }
+                case SHUFFLE:
+                    // Queued before the game asked for it
+                    fields.getLong();
+                    break;
+                case HIT:
+                    game.hit();
+                    break;
+                case STAY:
+                    game.stay();
+                    break;
+                case DOUBLE:
+                    game.doubleDown();
+                    break;
+                case SPLIT:
+                    game.split();
+                    break;
+                case SURRENDER:
+                    game.surrender();
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected journal record " + type + " for table " + tableId);
+            }
+        }
+    }
+
+    private static String getName(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putName(ByteBuffer buffer, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    /**
+     * Records one table. Only used on the table's thread.
+     * Besides writing log records, it keeps the table's latest round,
+     * which is what a snapshot of the table holds.
+     */
+    private final class TableRecorder implements RoundRecorder, GameListener {
+        private final int tableId;
+        private final Game game;
+        private ByteBuffer record;
+        private int sequence;
+        // The latest round, as it started
+        private long roundNumber;
+        private long shoeSeed;
+        private int position;
+        private int roundPlayers;
+        private long[] balances;
+        private long[] bets;
+        private ByteBuffer roundEvents;
+
+        TableRecorder(int tableId, Game game, int sequence) {
+            this.tableId = tableId;
+            this.game = game;
+            this.sequence = sequence;
+            this.record = ByteBuffer.allocate(256);
+            this.balances = new long[0];
+            this.bets = new long[0];
+            this.roundEvents = ByteBuffer.allocate(64);
+            this.shoeSeed = game.getDeck().getShoeSeed();
+            this.position = game.getDeck().getPosition();
+        }
+
+        /**
+         * Takes over the latest round of a restored table from its history.
+         */
+        void restoreRound(TableHistory history) {
+            roundNumber = game.getRoundNumber();
+            if (roundNumber == 0) {
+                // Nothing dealt yet: the shoe is taken as it is now
+                return;
+            }
+            if (roundNumber == history.roundNumber) {
+                // No round started after the snapshot
+                shoeSeed = history.shoeSeed;
+                position = history.position;
+                roundPlayers = history.roundPlayers;
+                balances = Arrays.copyOf(history.balances, roundPlayers);
+                bets = Arrays.copyOf(history.bets, roundPlayers);
+                roundEvents = ByteBuffer.allocate(Math.max(64, history.roundEvents.remaining()));
+                roundEvents.put(history.roundEvents.duplicate());
+                return;
+            }
+
+            // The log holds the start of the latest round: take it from there
+            ByteBuffer log = history.records.duplicate().flip();
+            int lastStart = -1;
+            while (log.hasRemaining()) {
+                int start = log.position();
+                byte type = log.get();
+                log.position(log.position() + RECORD_HEADER_BYTES - 1);
+                if (type == ROUND_START) {
+                    lastStart = start;
+                }
+                skipFields(type, log);
+            }
+            log.position(lastStart + RECORD_HEADER_BYTES);
+            log.getLong();
+            shoeSeed = log.getLong();
+            position = log.getShort() & 0xFFFF;
+            roundPlayers = log.get() & 0xFF;
+            balances = new long[roundPlayers];
+            bets = new long[roundPlayers];
+            List<Player> players = game.getPlayers();
+            for (int i = 0; i < roundPlayers; i++) {
+                bets[i] = log.getLong();
+                // Balances only change when the round is settled
+                Bankroll bankroll = players.get(i).getBankroll();
+                balances[i] = game.getGameState() == Game.GameState.ROUND_OVER
+                        ? bankroll.getBalance() - bankroll.getLastResult() : bankroll.getBalance();
+            }
+            while (log.hasRemaining()) {
+                byte type = log.get();
+                log.position(log.position() + RECORD_HEADER_BYTES - 1);
+                int fields = log.position();
+                skipFields(type, log);
+                if (type != JOIN) {
+                    addRoundEvent(type, log.duplicate().position(fields).limit(log.position()));
+                }
+            }
+        }
+
+        void begin(byte type) {
+            record.clear();
+            record.put(type).putInt(tableId).putInt(++sequence);
+        }
+
+        void commit() {
+            record.flip();
+            append(record);
+        }
+
+        /**
+         * Makes room for a record of the given size, before it is begun.
+         */
+        private void ensureCapacity(int bytes) {
+            if (record.capacity() < bytes) {
+                record = ByteBuffer.allocate(Math.max(record.capacity() * 2, bytes));
+            }
+        }
+
+        /**
+         * Commits an in-round record, keeping it with the latest round as well.
+         */
+        private void commitRoundEvent() {
+            record.flip();
+            byte type = record.get(0);
+            addRoundEvent(type, record.duplicate().position(RECORD_HEADER_BYTES));
+            append(record);
+        }
+
+        private void addRoundEvent(byte type, ByteBuffer fields) {
+            if (roundEvents.remaining() < 1 + fields.remaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(roundEvents.capacity() * 2 + fields.remaining());
+                roundEvents.flip();
+                larger.put(roundEvents);
+                roundEvents = larger;
+            }
+            roundEvents.put(type).put(fields);
+        }
+
+        /**
+         * Takes a snapshot of the table, as described in the class comment.
+         * @return The snapshot
+         */
+        byte[] snapshot() {
+            List<Player> players = game.getPlayers();
+            int size = 4 + 4 + EventLog.RULES_BYTES + 8 + 8 + 2 + 1 + 1 + 2 + roundEvents.position();
+            for (Player player : players) {
+                size += 2 + player.getName().getBytes(StandardCharsets.UTF_8).length + 8 * 3;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            buffer.putInt(tableId).putInt(sequence);
+            EventLog.putRules(buffer, game.getRuleSet());
+            buffer.putLong(roundNumber).putLong(shoeSeed).putShort((short) position);
+            buffer.put((byte) players.size());
+            for (int i = 0; i < players.size(); i++) {
+                Player player = players.get(i);
+                putName(buffer, player.getName());
+                boolean dealt = i < roundPlayers;
+                buffer.putLong(dealt ? balances[i] : player.getBankroll().getBalance());
+                buffer.putLong(dealt ? bets[i] : 0);
+                buffer.putLong(player.getBettingPolicy().nextBet(player.getBankroll()));
+            }
+            buffer.put((byte) roundPlayers);
+            buffer.putShort((short) roundEvents.position());
+            buffer.put(roundEvents.array(), 0, roundEvents.position());
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+
+        @Override
+        public void playerAdded(Game game, Player player) {
+            ensureCapacity(RECORD_HEADER_BYTES + 2 + 3 * player.getName().length());
+            begin(JOIN);
+            putName(record, player.getName());
+            commit();
+        }
+
+        @Override
+        public void gameChanged(Game game) {
+        }
+
+        @Override
+        public void roundStarted(long roundNumber, long shoeSeed, int position) {
+            List<Player> players = game.getPlayers();
+            this.roundNumber = roundNumber;
+            this.shoeSeed = shoeSeed;
+            this.position = position;
+            this.roundPlayers = players.size();
+            if (balances.length < roundPlayers) {
+                balances = new long[roundPlayers];
+                bets = new long[roundPlayers];
+            }
+            roundEvents.clear();
+
+            ensureCapacity(RECORD_HEADER_BYTES + 8 + 8 + 2 + 1 + 8 * roundPlayers);
+            begin(ROUND_START);
+            record.putLong(roundNumber).putLong(shoeSeed).putShort((short) position).put((byte) roundPlayers);
+            for (int i = 0; i < roundPlayers; i++) {
+                Player player = players.get(i);
+                balances[i] = player.getBankroll().getBalance();
+                bets[i] = player.getBet();
+                record.putLong(bets[i]);
+            }
+            commit();
+        }
+
+        @Override
+        public void cardDrawn(byte card) {
+        }
+
+        @Override
+        public void shoeShuffled(long shoeSeed) {
+            begin(SHUFFLE);
+            record.putLong(shoeSeed);
+            commitRoundEvent();
+        }
+
+        @Override
+        public void playerHit(int player) {
+            begin(HIT);
+            commitRoundEvent();
+        }
+
+        @Override
+        public void playerStayed(int player) {
+            begin(STAY);
+            commitRoundEvent();
+        }
+
+        @Override
+        public void playerDoubled(int player) {
+            begin(DOUBLE);
+            commitRoundEvent();
+        }
+
+        @Override
+        public void playerSplit(int player) {
+            begin(SPLIT);
+            commitRoundEvent();
+        }
+
+        @Override
+        public void playerSurrendered(int player) {
+            begin(SURRENDER);
+            commitRoundEvent();
+        }
+
+        @Override
+        public void handSettled(int player, int hand, Game.Outcome outcome, long netMilliUnits) {
+        }
+
+        @Override
+        public void roundEnded() {
+        }
+    }
+
+    /**
+     * Hands a restored game the shuffle seeds recorded in the journal, in order,
+     * then goes on with fresh random seeds once they run out.
+     */
+    private static final class ReplaySeeds implements RandomGenerator {
+        private final RandomGenerator fresh = new SplittableRandom();
+        private long[] seeds = new long[4];
+        private int head;
+        private int tail;
+
+        void add(long seed) {
+            if (tail == seeds.length) {
+                seeds = Arrays.copyOf(seeds, tail * 2);
+            }
+            seeds[tail++] = seed;
+        }
+
+        @Override
+        public long nextLong() {
+            return head < tail ? seeds[head++] : fresh.nextLong();
+        }
+    }
+}
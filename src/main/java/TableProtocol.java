@@ -0,0 +1,230 @@
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Describes the binary protocol remote players use to play at a TableProtocolServer.
+ * Every message is a frame: an unsigned short length counting the bytes after it,
+ * then a type byte and fixed-size fields in big-endian order. Strings are a byte
+ * length followed by up to 255 bytes of UTF-8.
+ * <p>Client to server:
+ * <pre>
+ * JOIN        int table (NEW_TABLE to open one), string name
+ * BET         long bet in minor units, used from the next round on
+ * DEAL        (no fields)
+ * HIT         (no fields)
+ * STAY        (no fields)
+ * DOUBLE      (no fields)
+ * SPLIT       (no fields)
+ * SURRENDER   (no fields)
+ * SNAPSHOT    (no fields)
+ * </pre>
+ * <p>Server to client:
+ * <pre>
+ * JOINED      int table, byte seat
+ * OK          byte request type
+ * ERROR       byte request type, string message
+ * SNAPSHOT    int table, long round, byte state, byte seat, byte hand, byte players,
+ *             then per player string name, long balance, byte hands and each hand,
+ *             then the dealer's hand; a hand is byte value, byte soft, byte cards, cards
+ * SEATED      byte seat, string name
+ * CARD        byte seat, byte hand, byte card
+ * FLIP        byte seat, byte hand, byte index, byte card
+ * REMOVED     byte seat, byte hand
+ * CLEARED     byte seat, byte hand, whose value is 0 again
+ * VALUE       byte seat, byte hand, byte value, byte soft
+ * TURN        long round, byte state, byte seat, byte hand
+ * SETTLED     byte seat, long result, long balance
+ * </pre>
+ * Seats number the players in the order they joined, and the dealer sits at DEALER_SEAT.
+ * Cards are packed as in PackedCard, with HIDDEN in place of a face-down card.
+ * Only SNAPSHOT carries whole hands: a client keeps its copy of the table up to date
+ * from the deltas, which the table sends to every connection seated at it.
+ * A request's deltas always arrive before its OK or ERROR. JOIN is answered with a
+ * SNAPSHOT, the new player's SEATED and then JOINED, and SNAPSHOT with a SNAPSHOT.
+ * Requests sent after a JOIN wait for it, and fail if it does.
+ */
+final class TableProtocol {
+    static final int MAX_FRAME = 0xFFFF;
+    static final int MAX_STRING = 255;
+
+    // Client to server
+    static final byte JOIN = 1;
+    static final byte BET = 2;
+    static final byte DEAL = 3;
+    static final byte HIT = 4;
+    static final byte STAY = 5;
+    static final byte DOUBLE = 6;
+    static final byte SPLIT = 7;
+    static final byte SURRENDER = 8;
+    static final byte SNAPSHOT = 9;
+
+    // Server to client
+    static final byte JOINED = 64;
+    static final byte OK = 65;
+    static final byte ERROR = 66;
+    static final byte SEATED = 67;
+    static final byte CARD = 68;
+    static final byte FLIP = 69;
+    static final byte REMOVED = 70;
+    static final byte CLEARED = 71;
+    static final byte VALUE = 72;
+    static final byte TURN = 73;
+    static final byte SETTLED = 74;
+
+    // Joins a new table instead of an open one
+    static final int NEW_TABLE = -1;
+    // The dealer's seat, and the seat in TURN when no player is playing
+    static final int DEALER_SEAT = 0xFF;
+    static final int NO_SEAT = 0xFF;
+    // Sent in place of a face-down card
+    static final byte HIDDEN = (byte) 0xFF;
+
+    private TableProtocol() {
+    }
+
+    /**
+     * Starts a frame, leaving room for its length.
+     * @param buffer The buffer to write to
+     * @param type The message type
+     * @return The position of the frame, to pass to endFrame
+     */
+    static int beginFrame(ByteBuffer buffer, byte type) {
+        int start = buffer.position();
+        buffer.putShort((short) 0).put(type);
+        return start;
+    }
+
+    /**
+     * Fills in the length of a frame once its fields are written.
+     * @param buffer The buffer holding the frame
+     * @param start The position returned by beginFrame
+     */
+    static void endFrame(ByteBuffer buffer, int start) {
+        int length = buffer.position() - start - 2;
+        if (length > MAX_FRAME) {
+            throw new BufferOverflowException();
+        }
+        buffer.putShort(start, (short) length);
+    }
+
+    /**
+     * Writes a string field, cut to MAX_STRING bytes without splitting a character.
+     * @param buffer The buffer to write to
+     * @param value The string
+     */
+    static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STRING);
+        // Back off while the first byte left out continues the character before it
+        while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        buffer.put((byte) length).put(bytes, 0, length);
+    }
+
+    /**
+     * Reads a string field.
+     * @param buffer The buffer to read from
+     * @return The string
+     */
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.get() & 0xFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the code a card is sent as.
+     * @param card The card
+     * @return The card's packed code, or HIDDEN if it is face down
+     */
+    static byte cardCode(Card card) {
+        return card.isFaceUp() ? card.getCode() : HIDDEN;
+    }
+
+    /**
+     * Builds a frame that answers a request.
+     * @param request The type of the request
+     * @return The OK frame
+     */
+    static ByteBuffer ok(byte request) {
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        int start = beginFrame(buffer, OK);
+        buffer.put(request);
+        endFrame(buffer, start);
+        return buffer.flip();
+    }
+
+    /**
+     * Builds a frame that turns a request down.
+     * @param request The type of the request
+     * @param message Why the request failed
+     * @return The ERROR frame
+     */
+    static ByteBuffer error(byte request, String message) {
+        ByteBuffer buffer = ByteBuffer.allocate(5 + MAX_STRING);
+        int start = beginFrame(buffer, ERROR);
+        buffer.put(request);
+        putString(buffer, message == null ? "" : message);
+        endFrame(buffer, start);
+        return buffer.flip();
+    }
+
+    /**
+     * Builds a JOINED frame.
+     * @param tableId The table joined
+     * @param seat The seat taken
+     * @return The frame
+     */
+    static ByteBuffer joined(int tableId, int seat) {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        int start = beginFrame(buffer, JOINED);
+        buffer.putInt(tableId).put((byte) seat);
+        endFrame(buffer, start);
+        return buffer.flip();
+    }
+
+    /**
+     * Writes a SNAPSHOT frame of a whole table.
+     * @param buffer The buffer to write to, with room for MAX_FRAME bytes
+     * @param tableId The id of the table
+     * @param game The game played at the table
+     */
+    static void putSnapshot(ByteBuffer buffer, int tableId, Game game) {
+        int start = beginFrame(buffer, SNAPSHOT);
+        buffer.putInt(tableId).putLong(game.getRoundNumber());
+        putTurn(buffer, game);
+        buffer.put((byte) game.getPlayers().size());
+        for (Player player : game.getPlayers()) {
+            putString(buffer, player.getName());
+            buffer.putLong(player.getBankroll().getBalance());
+            buffer.put((byte) player.getHandCount());
+            for (int i = 0; i < player.getHandCount(); i++) {
+                putHand(buffer, player.getHand(i));
+            }
+        }
+        putHand(buffer, game.getDealer().getHand());
+        endFrame(buffer, start);
+    }
+
+    /**
+     * Writes the state of a game, the seat whose turn it is and the hand being played.
+     */
+    static void putTurn(ByteBuffer buffer, Game game) {
+        Player current = game.getCurrentPlayer();
+        boolean playing = game.getGameState() == Game.GameState.PLAYING && current != null;
+        buffer.put((byte) game.getGameState().ordinal())
+                .put((byte) (playing ? game.getPlayers().indexOf(current) : NO_SEAT))
+                .put((byte) (playing ? current.getActiveHandIndex() : 0));
+    }
+
+    private static void putHand(ByteBuffer buffer, Hand hand) {
+        buffer.put((byte) hand.calculateValue()).put((byte) (hand.isSoft() ? 1 : 0));
+        buffer.put((byte) hand.getCards().size());
+        for (Card card : hand.getCards()) {
+            buffer.put(cardCode(card));
+        }
+    }
+}
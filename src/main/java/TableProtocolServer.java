@@ -0,0 +1,482 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets remote players play at a TableServer's tables over TCP, speaking TableProtocol.
+ * One selector thread accepts, reads and writes every connection without blocking,
+ * so a connection costs a socket and a few small buffers but no thread.
+ * Requests are handed to the tables' actors as they are read; replies and deltas
+ * are written by the actors into each connection's outbox and sent by the selector thread.
+ * Each connection is one player, known to its table by the Player it seated rather than
+ * by name, so no connection can act for another. A player who disconnects keeps their seat
+ * until the table closes, which it does once every connection at it has gone.
+ */
+public class TableProtocolServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7021;
+    // Largest request a client may send: a JOIN with the longest name
+    private static final int MAX_REQUEST = 3 + 4 + 1 + TableProtocol.MAX_STRING;
+    // Connections whose outbox grows past this are too slow to keep up and are dropped
+    private static final long MAX_OUTBOX_BYTES = 1 << 20;
+
+    private final TableServer tables;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Queue<Connection> pendingWrites;
+    private final Queue<Runnable> pendingTasks;
+    private final Map<Integer, TableDeltas> deltas;
+    private final Map<Integer, Integer> seated;
+    private final AtomicLong connectionCount;
+    private final Thread thread;
+    private volatile boolean running;
+
+    /**
+     * Creates a server listening on an address. Call start to begin accepting connections.
+     * @param tables The tables to play at
+     * @param address The address to listen on, with port 0 for any free port
+     * @throws IOException If the address cannot be bound
+     */
+    public TableProtocolServer(TableServer tables, InetSocketAddress address) throws IOException {
+        this.tables = tables;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(address, 4096);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.pendingWrites = new ConcurrentLinkedQueue<>();
+        this.pendingTasks = new ConcurrentLinkedQueue<>();
+        this.deltas = new HashMap<>();
+        this.seated = new HashMap<>();
+        this.connectionCount = new AtomicLong();
+        this.thread = new Thread(this::run, "table-protocol");
+    }
+
+    /**
+     * Starts the selector thread.
+     */
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     * @return The local port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Gets the number of open connections.
+     * @return The number of connections
+     */
+    public long getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select(this::handle);
+                Runnable task;
+                while ((task = pendingTasks.poll()) != null) {
+                    task.run();
+                }
+                Connection connection;
+                while ((connection = pendingWrites.poll()) != null) {
+                    connection.writeScheduled.set(false);
+                    write(connection);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key);
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        if (key.isReadable()) {
+            read(connection);
+        }
+        if (key.isValid() && key.isWritable()) {
+            write(connection);
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Connection connection = new Connection(channel);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                connectionCount.incrementAndGet();
+            }
+        } catch (IOException e) {
+            // Out of file descriptors, most likely; the rest are accepted on the next select
+        }
+    }
+
+    private void read(Connection connection) {
+        ByteBuffer in = connection.in;
+        try {
+            if (connection.channel.read(in) < 0) {
+                disconnect(connection);
+                return;
+            }
+        } catch (IOException e) {
+            disconnect(connection);
+            return;
+        }
+        in.flip();
+        while (in.remaining() >= 2) {
+            int length = in.getShort(in.position()) & 0xFFFF;
+            if (length == 0 || length > MAX_REQUEST - 2) {
+                disconnect(connection);
+                return;
+            }
+            if (in.remaining() < 2 + length) {
+                break;
+            }
+            int end = in.position() + 2 + length;
+            byte type = in.get(in.position() + 2);
+            try {
+                request(connection, type, in.slice(in.position() + 3, length - 1));
+            } catch (RuntimeException e) {
+                connection.send(TableProtocol.error(type, e.getMessage()));
+            }
+            in.position(end);
+        }
+        in.compact();
+    }
+
+    /**
+     * Hands one request to the connection's table.
+     */
+    private void request(Connection connection, byte type, ByteBuffer frame) {
+        if (type == TableProtocol.JOIN) {
+            join(connection, frame.getInt(), TableProtocol.getString(frame));
+            return;
+        }
+        TableActor table = connection.table;
+        if (table == null) {
+            throw new IllegalStateException("Not seated at a table");
+        }
+        switch (type) {
+            case TableProtocol.BET:
+                long bet = frame.getLong();
+                if (bet <= 0) {
+                    throw new IllegalArgumentException("Bet must be greater than 0");
+                }
+                reply(connection, type, table.execute(game ->
+                        seat(connection, game).setBettingPolicy(BettingPolicy.flat(bet))));
+                break;
+            case TableProtocol.DEAL:
+                reply(connection, type, table.execute(game -> {
+                    seat(connection, game);
+                    game.startNewRound();
+                }));
+                break;
+            case TableProtocol.HIT:
+                reply(connection, type, table.execute(game -> {
+                    checkTurn(connection, game);
+                    game.hit();
+                }));
+                break;
+            case TableProtocol.STAY:
+                reply(connection, type, table.execute(game -> {
+                    checkTurn(connection, game);
+                    game.stay();
+                }));
+                break;
+            case TableProtocol.DOUBLE:
+                reply(connection, type, table.execute(game -> {
+                    checkTurn(connection, game);
+                    game.doubleDown();
+                }));
+                break;
+            case TableProtocol.SPLIT:
+                reply(connection, type, table.execute(game -> {
+                    checkTurn(connection, game);
+                    game.split();
+                }));
+                break;
+            case TableProtocol.SURRENDER:
+                reply(connection, type, table.execute(game -> {
+                    checkTurn(connection, game);
+                    game.surrender();
+                }));
+                break;
+            case TableProtocol.SNAPSHOT:
+                TableDeltas tableDeltas = connection.deltas;
+                table.execute(game -> tableDeltas.sendSnapshot(connection, game));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown request " + type);
+        }
+    }
+
+    /**
+     * Gets the player a connection seated, on the table's thread.
+     * Requests queued behind a JOIN that failed find no seat, so they fail too.
+     */
+    private static Player seat(Connection connection, Game game) {
+        Player seat = connection.seat;
+        if (seat == null || !game.getPlayers().contains(seat)) {
+            throw new IllegalStateException("Not seated at a table");
+        }
+        return seat;
+    }
+
+    /**
+     * Checks that it is the connection's player's turn, on the table's thread.
+     */
+    private static void checkTurn(Connection connection, Game game) {
+        Player seat = seat(connection, game);
+        if (game.getGameState() != Game.GameState.PLAYING || game.getCurrentPlayer() != seat) {
+            throw new IllegalStateException("It is not " + seat.getName() + "'s turn");
+        }
+    }
+
+    private void join(Connection connection, int tableId, String name) {
+        if (connection.table != null) {
+            throw new IllegalStateException("Already seated at table " + connection.deltas.getTableId());
+        }
+        TableActor table;
+        TableDeltas tableDeltas;
+        if (tableId == TableProtocol.NEW_TABLE) {
+            table = tables.openTable();
+            tableDeltas = new TableDeltas(table.getId());
+            table.execute(tableDeltas::attach);
+            deltas.put(table.getId(), tableDeltas);
+            seated.put(table.getId(), 0);
+        } else {
+            table = tables.getTable(tableId);
+            tableDeltas = deltas.get(tableId);
+            if (table == null || tableDeltas == null) {
+                throw new IllegalArgumentException("No table " + tableId);
+            }
+        }
+
+        // Requests sent after the JOIN go to this table and queue up behind it,
+        // but act for no one until the JOIN has seated the connection's own player
+        int id = table.getId();
+        seated.merge(id, 1, Integer::sum);
+        connection.table = table;
+        connection.deltas = tableDeltas;
+        table.execute(game -> {
+            if (game.getPlayer(name) != null) {
+                throw new IllegalStateException(name + " is already seated at table " + id);
+            }
+            // The snapshot comes first, so the new player's own SEATED delta follows it
+            tableDeltas.subscribe(connection, game);
+            game.addPlayer(name);
+            List<Player> players = game.getPlayers();
+            connection.send(TableProtocol.joined(id, players.size() - 1));
+            connection.seat = players.get(players.size() - 1);
+        }).whenComplete((state, failure) -> {
+            if (failure != null) {
+                connection.send(TableProtocol.error(TableProtocol.JOIN, rootMessage(failure)));
+                onSelector(() -> {
+                    // A connection that has gone since has already left the table
+                    if (!connection.closed) {
+                        connection.table = null;
+                        connection.deltas = null;
+                        leave(table);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Counts a connection out of a table, closing the table once no connection is left.
+     */
+    private void leave(TableActor table) {
+        int id = table.getId();
+        if (seated.merge(id, -1, Integer::sum) == 0) {
+            seated.remove(id);
+            deltas.remove(id);
+            tables.closeTable(id);
+        }
+    }
+
+    private void reply(Connection connection, byte type, CompletableFuture<TableState> reply) {
+        reply.whenComplete((state, failure) -> connection.send(failure == null
+                ? TableProtocol.ok(type)
+                : TableProtocol.error(type, rootMessage(failure))));
+    }
+
+    private static String rootMessage(Throwable failure) {
+        Throwable cause = failure;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return String.valueOf(cause.getMessage());
+    }
+
+    /**
+     * Runs a task on the selector thread, which owns the connections' table fields.
+     */
+    private void onSelector(Runnable task) {
+        pendingTasks.add(task);
+        selector.wakeup();
+    }
+
+    private void write(Connection connection) {
+        if (connection.closed) {
+            return;
+        }
+        try {
+            ByteBuffer buffer;
+            while ((buffer = connection.outbox.peek()) != null) {
+                connection.channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    // The socket is full: wait until it can take more
+                    connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                connection.outbox.poll();
+                connection.outboxBytes.addAndGet(-buffer.limit());
+            }
+            connection.key.interestOps(SelectionKey.OP_READ);
+        } catch (IOException e) {
+            disconnect(connection);
+        }
+    }
+
+    private void disconnect(Connection connection) {
+        if (connection.closed) {
+            return;
+        }
+        connection.closed = true;
+        closeQuietly(connection.key);
+        connectionCount.decrementAndGet();
+        TableActor table = connection.table;
+        if (table != null) {
+            TableDeltas tableDeltas = connection.deltas;
+            table.execute(game -> tableDeltas.unsubscribe(connection));
+            leave(table);
+        }
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes every open one.
+     * If interrupted while waiting for the selector thread, closes the selector without waiting
+     * and leaves the thread's interrupt flag set.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            if (thread.isAlive()) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * One player's connection.
+     * The table fields are only used on the selector thread, and the seat on the table's thread;
+     * the outbox takes frames from any thread.
+     */
+    final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer in;
+        private final Queue<ByteBuffer> outbox;
+        private final AtomicLong outboxBytes;
+        private final AtomicBoolean writeScheduled;
+        private SelectionKey key;
+        private TableActor table;
+        private TableDeltas deltas;
+        // The player this connection seated, set once its JOIN succeeds
+        private Player seat;
+        private volatile boolean closed;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.in = ByteBuffer.allocate(MAX_REQUEST);
+            this.outbox = new ConcurrentLinkedQueue<>();
+            this.outboxBytes = new AtomicLong();
+            this.writeScheduled = new AtomicBoolean();
+        }
+
+        /**
+         * Queues a frame to be sent. Safe to call from any thread.
+         * @param frame The frame, positioned at its first byte
+         */
+        void send(ByteBuffer frame) {
+            if (closed) {
+                return;
+            }
+            if (outboxBytes.addAndGet(frame.remaining()) > MAX_OUTBOX_BYTES) {
+                onSelector(() -> disconnect(this));
+                return;
+            }
+            outbox.add(frame);
+            if (writeScheduled.compareAndSet(false, true)) {
+                pendingWrites.add(this);
+                selector.wakeup();
+            }
+        }
+    }
+
+    /**
+     * Serves the protocol from the command line until the process is stopped.
+     * Usage: java TableProtocolServer [port] [threads] [decks]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int decks = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+
+        TableServer tables = new TableServer(threads, decks, Deck.DEFAULT_PENETRATION);
+        TableProtocolServer server = new TableProtocolServer(tables, new InetSocketAddress(port));
+        server.start();
+        System.out.println("Serving tables on port " + server.getPort());
+    }
+}
@@ -0,0 +1,271 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hosts many tables in one JVM.
+ * Each table is a TableActor; all of them share one work-stealing pool,
+ * so thousands of idle tables cost no threads.
+ * Games come from a GamePool and go back to it when their table closes,
+ * so tables that open and close all the time reuse the same games.
+ * With a TableJournal, every table is recorded as it plays and checkpointed
+ * periodically, and the tables the journal holds are restored when the server starts.
+ * A checkpoint that fails is logged and retried at the next interval; Metrics publishes
+ * the count of failures so a journal that has stopped checkpointing can be alerted on.
+ */
+public class TableServer implements TableServerMBean, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(TableServer.class.getName());
+    private static final int POOL_CAPACITY = 1024;
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final ExecutorService executor;
+    private final Map<Integer, TableActor> tables;
+    private final AtomicInteger nextTableId;
+    private final Statistics statistics;
+    private final GamePool gamePool;
+    private final TableJournal journal;
+    private final ScheduledExecutorService checkpoints;
+    private final AtomicInteger consecutiveCheckpointFailures = new AtomicInteger();
+    private final AtomicLong checkpointFailures = new AtomicLong();
+
+    /**
+     * Creates a server that runs tables on every available core.
+     */
+    public TableServer() {
+        this(Runtime.getRuntime().availableProcessors(), Deck.DEFAULT_NUMBER_OF_DECKS, Deck.DEFAULT_PENETRATION);
+    }
+
+    /**
+     * Creates a server.
+     * @param threads The number of threads that run tables
+     * @param numberOfDecks The number of decks in each table's shoe
+     * @param penetration The fraction of each shoe dealt before reshuffling
+     */
+    public TableServer(int threads, int numberOfDecks, double penetration) {
+        this(threads, RuleSet.DEFAULT.withNumberOfDecks(numberOfDecks).withPenetration(penetration), null);
+    }
+
+    /**
+     * Creates a server that records its tables in a journal, first restoring every table the journal holds.
+     * Restored tables keep their ids and pick up exactly where they stopped, even mid-round.
+     * Restoring is not instant: every table gets a new game and its shoe shuffled again,
+     * which costs 40 to 90 microseconds of one core per table, spread over every core.
+     * 100,000 tables take 4 to 9 seconds on one core.
+     * @param threads The number of threads that run tables
+     * @param numberOfDecks The number of decks in each new table's shoe
+     * @param penetration The fraction of each new shoe dealt before reshuffling
+     * @param journal The journal to restore from and record into, owned by the server from now on
+     * @throws IOException If the journal cannot be read
+     */
+    public TableServer(int threads, int numberOfDecks, double penetration, TableJournal journal) throws IOException {
+        this(threads, RuleSet.DEFAULT.withNumberOfDecks(numberOfDecks).withPenetration(penetration), journal);
+        try {
+            // The pool is still empty, so restored games are created directly
+            Map<Integer, Game> restored = journal.restore((tableRules, random) -> new Game(tableRules, random, statistics));
+            int lastId = -1;
+            for (Map.Entry<Integer, Game> entry : restored.entrySet()) {
+                int id = entry.getKey();
+                tables.put(id, new TableActor(id, entry.getValue(), executor, game -> release(id, game)));
+                lastId = Math.max(lastId, id);
+            }
+            nextTableId.set(lastId + 1);
+        } catch (IOException | RuntimeException e) {
+            executor.shutdownNow();
+            checkpoints.shutdownNow();
+            throw e;
+        }
+        long interval = journal.getCheckpointIntervalMillis();
+        checkpoints.scheduleWithFixedDelay(this::checkpointQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private TableServer(int threads, RuleSet rules, TableJournal journal) {
+        // FIFO mode suits actors that are scheduled once and never join
+        this.executor = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        this.tables = new ConcurrentHashMap<>();
+        this.nextTableId = new AtomicInteger();
+        this.statistics = new Statistics();
+        this.gamePool = new GamePool(rules, POOL_CAPACITY, statistics);
+        this.journal = journal;
+        this.checkpoints = journal == null ? null : Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "table-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens a new table.
+     * @return The new table
+     */
+    public TableActor openTable() {
+        int id = nextTableId.getAndIncrement();
+        TableActor table = new TableActor(id, gamePool.acquire(), executor, closed -> release(id, closed));
+        // A checkpoint that misses the table must find its OPEN record in the segments it keeps,
+        // so the table is listed before it is recorded, as the first thing it does
+        tables.put(id, table);
+        if (journal != null) {
+            table.execute(game -> journal.attach(id, game));
+        }
+        return table;
+    }
+
+    /**
+     * Takes back the game of a closed table, on the table's thread.
+     */
+    private void release(int id, Game game) {
+        if (journal != null) {
+            journal.detach(id);
+        }
+        // Restored tables may have been opened under other rules
+        if (game.getRuleSet().equals(gamePool.getRuleSet())) {
+            gamePool.release(game);
+        }
+    }
+
+    /**
+     * Finds an open table.
+     * @param id The id of the table
+     * @return The table, or null if no table has that id
+     */
+    public TableActor getTable(int id) {
+        return tables.get(id);
+    }
+
+    /**
+     * Closes a table. Commands already queued are still handled, then its game goes back to the pool.
+     * @param id The id of the table
+     */
+    public void closeTable(int id) {
+        TableActor table = tables.remove(id);
+        if (table != null) {
+            table.submit(TableCommand.Type.CLOSE, null);
+        }
+    }
+
+    /**
+     * Gets the pool the server's games come from, to see how well it is sized.
+     * @return The game pool
+     */
+    public GamePool getGamePool() {
+        return gamePool;
+    }
+
+    /**
+     * Gets the statistics of every table on the server.
+     * Safe to read while tables are playing.
+     * @return The server-wide statistics
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Gets the number of open tables.
+     * @return The number of tables
+     */
+    @Override
+    public int getTableCount() {
+        return tables.size();
+    }
+
+    /**
+     * Writes a snapshot of every open table to the journal, so a restart only replays play after it.
+     * Tables keep playing meanwhile.
+     * @throws IOException If the checkpoint cannot be written
+     * @throws InterruptedException If interrupted while waiting for the tables
+     * @throws IllegalStateException If the server has no journal
+     */
+    public void checkpoint() throws IOException, InterruptedException {
+        if (journal == null) {
+            throw new IllegalStateException("The server has no journal");
+        }
+        journal.checkpoint(tables.values());
+    }
+
+    /**
+     * Gets the number of checkpoints in a row that have failed, reset by one that succeeds.
+     * @return The number of consecutive failed checkpoints
+     */
+    @Override
+    public int getConsecutiveCheckpointFailures() {
+        return consecutiveCheckpointFailures.get();
+    }
+
+    /**
+     * Gets the number of scheduled checkpoints that have failed since the server started.
+     * @return The number of failed checkpoints
+     */
+    @Override
+    public long getCheckpointFailures() {
+        return checkpointFailures.get();
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+            consecutiveCheckpointFailures.set(0);
+        } catch (IOException e) {
+            // The log still holds everything; the next checkpoint tries again
+            checkpointFailed(Level.WARNING, e);
+        } catch (RuntimeException e) {
+            // Thrown out of the scheduled task, it would cancel every later checkpoint
+            checkpointFailed(Level.SEVERE, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkpointFailed(Level level, Exception e) {
+        checkpointFailures.incrementAndGet();
+        int failures = consecutiveCheckpointFailures.incrementAndGet();
+        LOGGER.log(level, e, () -> "Checkpoint failed, " + failures + " in a row");
+    }
+
+    /**
+     * Stops the server's threads. A journal is flushed and closed, keeping the open tables for the next start.
+     * A checkpoint in progress is finished first, while the tables can still take their snapshots,
+     * and the journal is only closed once no table thread can record into it.
+     */
+    @Override
+    public void close() {
+        boolean interrupted = false;
+        if (journal != null) {
+            // Not interrupted: an interrupt closes the journal's files under a checkpoint mid-write
+            checkpoints.shutdown();
+            interrupted = !awaitTermination(checkpoints);
+        }
+        executor.shutdownNow();
+        interrupted |= !awaitTermination(executor);
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Waits for an executor's threads to finish.
+     * @return false if interrupted while waiting
+     */
+    private static boolean awaitTermination(ExecutorService threads) {
+        try {
+            if (!threads.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warning("Threads still running " + CLOSE_TIMEOUT_SECONDS + " seconds after close");
+            }
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+}
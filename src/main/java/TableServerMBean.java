@@ -0,0 +1,10 @@
+/**
+ * The management interface through which a TableServer is published over JMX.
+ */
+public interface TableServerMBean {
+    int getTableCount();
+
+    int getConsecutiveCheckpointFailures();
+
+    long getCheckpointFailures();
+}
@@ -0,0 +1,86 @@
+/**
+ * An immutable snapshot of a table, sent back to players after each action.
+ */
+public final class TableState {
+    private final int tableId;
+    private final Game.GameState gameState;
+    private final String currentPlayer;
+    private final int currentValue;
+    private final boolean currentSoft;
+    private final int dealerUpValue;
+
+    private TableState(int tableId, Game.GameState gameState, String currentPlayer,
+                       int currentValue, boolean currentSoft, int dealerUpValue) {
+        this.tableId = tableId;
+        this.gameState = gameState;
+        this.currentPlayer = currentPlayer;
+        this.currentValue = currentValue;
+        this.currentSoft = currentSoft;
+        this.dealerUpValue = dealerUpValue;
+    }
+
+    /**
+     * Takes a snapshot of a game.
+     * @param tableId The id of the table the game is played at
+     * @param game The game to take a snapshot of
+     * @return The snapshot
+     */
+    static TableState of(int tableId, Game game) {
+        Player player = game.getCurrentPlayer();
+        if (player == null) {
+            return new TableState(tableId, game.getGameState(), null, 0, false, 0);
+        }
+        Hand hand = player.getActiveHand();
+        Card upCard = game.getDealer().getHand().getCards().get(0);
+        return new TableState(tableId, game.getGameState(), player.getName(),
+                hand.calculateValue(), hand.isSoft(), upCard.getValue());
+    }
+
+    /**
+     * Gets the id of the table.
+     * @return The table id
+     */
+    public int getTableId() {
+        return tableId;
+    }
+
+    /**
+     * Gets the state of the game at the table.
+     * @return The game state
+     */
+    public Game.GameState getGameState() {
+        return gameState;
+    }
+
+    /**
+     * Gets the player whose turn it is.
+     * @return The player's name, or null before the first round
+     */
+    public String getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Gets the value of the current player's hand.
+     * @return The hand value, or 0 before the first round
+     */
+    public int getCurrentValue() {
+        return currentValue;
+    }
+
+    /**
+     * Checks if the current player's hand is soft.
+     * @return true if an ace in the hand is counted as 11, false otherwise
+     */
+    public boolean isCurrentSoft() {
+        return currentSoft;
+    }
+
+    /**
+     * Gets the value of the dealer's face-up card.
+     * @return The up-card value, or 0 before the first round
+     */
+    public int getDealerUpValue() {
+        return dealerUpValue;
+    }
+}
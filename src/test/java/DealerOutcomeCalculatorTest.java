@@ -0,0 +1,90 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the calculator's values against dealing out every hole card and player card
+ * of a short shoe, one at a time.
+ */
+class DealerOutcomeCalculatorTest {
+    private static final int ACE = 0;
+    private static final int TEN = PackedCard.VALUE_RANKS - 1;
+    // A short shoe, so every deal can be followed to the end
+    private static final int[] COUNTS = {2, 1, 1, 1, 1, 1, 1, 1, 2, 4};
+
+    @Test
+    void hitOnceValueKnowsTheDealerHasNoBlackjack() {
+        DealerOutcomeCalculator calculator = new DealerOutcomeCalculator(4096);
+        for (int upRank : new int[] {ACE, TEN}) {
+            for (int playerValue = 12; playerValue <= 20; playerValue++) {
+                String name = "up " + upRank + ", player " + playerValue;
+                assertEquals(dealOut(upRank, playerValue, false, true),
+                        calculator.hitOnceValue(COUNTS, upRank, playerValue, false, true), 1e-12, name);
+                assertEquals(dealOut(upRank, playerValue, false, false),
+                        calculator.hitOnceValue(COUNTS, upRank, playerValue, false, false), 1e-12, name);
+            }
+            assertEquals(dealOut(upRank, 17, true, true),
+                    calculator.hitOnceValue(COUNTS, upRank, 17, true, true), 1e-12, "soft 17");
+        }
+        assertNotEquals(calculator.hitOnceValue(COUNTS, TEN, 16, false, true),
+                calculator.hitOnceValue(COUNTS, TEN, 16, false), 1e-6, "the peek changes the value");
+    }
+
+    /**
+     * Deals every hole card, except a blackjack one if excluded, then every player card,
+     * then plays out the dealer, weighting each deal by how many ways it can happen.
+     */
+    private static double dealOut(int upRank, int playerValue, boolean soft, boolean noBlackjack) {
+        int[] counts = COUNTS.clone();
+        int excluded = !noBlackjack ? -1 : upRank == ACE ? TEN : upRank == TEN ? ACE : -1;
+        double ways = 0;
+        double total = 0;
+        for (int hole = 0; hole < counts.length; hole++) {
+            if (hole == excluded || counts[hole] == 0) continue;
+            int holeWays = counts[hole]--;
+            for (int card = 0; card < counts.length; card++) {
+                if (counts[card] == 0) continue;
+                int cardWays = counts[card]--;
+                int hard = (soft ? playerValue - 10 : playerValue) + value(card);
+                int player = (soft || card == ACE) && hard <= 11 ? hard + 10 : hard;
+                double result = player > 21 ? -1
+                        : dealer(counts, value(upRank) + value(hole), upRank == ACE || hole == ACE, player);
+                ways += (double) holeWays * cardWays;
+                total += (double) holeWays * cardWays * result;
+                counts[card]++;
+            }
+            counts[hole]++;
+        }
+        return total / ways;
+    }
+
+    /**
+     * Plays out the dealer standing on all 17s and gives the player's expected result.
+     */
+    private static double dealer(int[] counts, int hard, boolean ace, int player) {
+        int value = ace && hard <= 11 ? hard + 10 : hard;
+        if (value > 21) {
+            return 1;
+        }
+        if (value >= 17) {
+            return Integer.signum(player - value);
+        }
+        int cards = 0;
+        for (int count : counts) {
+            cards += count;
+        }
+        double result = 0;
+        for (int card = 0; card < counts.length; card++) {
+            if (counts[card] == 0) continue;
+            double p = (double) counts[card] / cards;
+            counts[card]--;
+            result += p * dealer(counts, hard + value(card), ace || card == ACE, player);
+            counts[card]++;
+        }
+        return result;
+    }
+
+    private static int value(int rank) {
+        return Math.min(rank + 1, 10);
+    }
+}
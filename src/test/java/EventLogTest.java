@@ -0,0 +1,112 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Records seeded play with EventLogWriter and replays it through EventLogReader and Replayer,
+ * from the start and from an indexed round, to the same totals.
+ */
+class EventLogTest {
+    private static final long SEED = 42;
+    private static final int ROUNDS = 5_000;
+    private static final int INDEX_INTERVAL = 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysASimulatorRunToTheSameTotals() throws Exception {
+        Simulator simulator = new Simulator(new BasicStrategy(), 1);
+        simulator.setLogDirectory(directory);
+        StatisticsSnapshot recorded = simulator.run(ROUNDS, SEED);
+
+        try (EventLogReader reader = new EventLogReader(directory.resolve("worker-0.bjlog"))) {
+            Replayer replayer = new Replayer(reader);
+            assertEquals(ROUNDS, replayer.replayAll());
+            assertSameTotals(recorded, replayer.getGame().getStatistics().snapshot());
+        }
+    }
+
+    @Test
+    void replaysFromAnIndexedRound() throws Exception {
+        Path log = directory.resolve("game.bjlog");
+        Game game = new Game(RuleSet.DEFAULT, new SplittableRandom(SEED));
+        game.addPlayer("Player");
+        long seekRound = ROUNDS / 2 + 7;
+        StatisticsSnapshot beforeSeek = null;
+        try (EventLogWriter writer = new EventLogWriter(log, game, INDEX_INTERVAL, 0)) {
+            game.setRecorder(writer);
+            for (int i = 0; i < ROUNDS; i++) {
+                if (game.getRoundNumber() + 1 == seekRound) {
+                    beforeSeek = game.getStatistics().snapshot();
+                }
+                game.startNewRound();
+                game.playTurn(new BasicStrategy());
+            }
+        }
+        StatisticsSnapshot recorded = game.getStatistics().snapshot();
+        assertNotNull(beforeSeek);
+
+        try (EventLogReader reader = new EventLogReader(log)) {
+            Replayer replayer = new Replayer(reader);
+            assertTrue(replayer.seekToRound(seekRound));
+            assertEquals(ROUNDS - seekRound + 1, replayer.replayAll());
+            StatisticsSnapshot replayed = replayer.getGame().getStatistics().snapshot();
+            assertEquals(recorded.getHands() - beforeSeek.getHands(), replayed.getHands());
+            assertEquals(recorded.getWins() - beforeSeek.getWins(), replayed.getWins());
+            assertEquals(recorded.getLosses() - beforeSeek.getLosses(), replayed.getLosses());
+            assertEquals(recorded.getNetMilliUnits() - beforeSeek.getNetMilliUnits(), replayed.getNetMilliUnits());
+        }
+        try (EventLogReader reader = new EventLogReader(log)) {
+            assertFalse(reader.seekToRound(ROUNDS + 1));
+        }
+    }
+
+    @Test
+    void indexNeverPointsPastTheLog() throws Exception {
+        Path log = directory.resolve("unsynced.bjlog");
+        Game game = new Game(RuleSet.DEFAULT, new SplittableRandom(SEED));
+        game.addPlayer("Player");
+        // Never synced on its own, so the log is only written as its buffer fills
+        try (EventLogWriter writer = new EventLogWriter(log, game, 1, Long.MAX_VALUE)) {
+            game.setRecorder(writer);
+            for (int i = 0; i < ROUNDS; i++) {
+                game.startNewRound();
+                game.playTurn(new BasicStrategy());
+                if (i % 500 == 0) {
+                    assertIndexWithinLog(log);
+                }
+            }
+            assertTrue(Files.size(log) > 0, "the log was written before the sync");
+            writer.sync();
+            assertIndexWithinLog(log);
+            assertEquals(ROUNDS * 16L, Files.size(EventLog.indexPath(log)));
+        }
+    }
+
+    private static void assertIndexWithinLog(Path log) throws Exception {
+        long logSize = Files.size(log);
+        ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(EventLog.indexPath(log)));
+        while (index.remaining() >= 16) {
+            long round = index.getLong();
+            long offset = index.getLong();
+            assertTrue(offset < logSize, "round " + round + " is indexed at " + offset + " past the log's " + logSize);
+        }
+    }
+
+    private static void assertSameTotals(StatisticsSnapshot expected, StatisticsSnapshot actual) {
+        assertEquals(expected.getHands(), actual.getHands());
+        assertEquals(expected.getWins(), actual.getWins());
+        assertEquals(expected.getLosses(), actual.getLosses());
+        assertEquals(expected.getPushes(), actual.getPushes());
+        assertEquals(expected.getBlackjacks(), actual.getBlackjacks());
+        assertEquals(expected.getBusts(), actual.getBusts());
+        assertEquals(expected.getNetMilliUnits(), actual.getNetMilliUnits());
+    }
+}
@@ -0,0 +1,165 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks HandBatch against Hand's calculateValue, isSoft, isBust and isBlackjack
+ * over every single-deck hand of up to 11 cards, each also split and with a hole card.
+ */
+class HandBatchTest {
+    private static final int MAX_CARDS = 11;
+
+    // One rank for each card value, ace first; tens take their rank from TENS
+    private static final Card.Rank[] RANKS = {
+            Card.Rank.ACE, Card.Rank.TWO, Card.Rank.THREE, Card.Rank.FOUR, Card.Rank.FIVE,
+            Card.Rank.SIX, Card.Rank.SEVEN, Card.Rank.EIGHT, Card.Rank.NINE, Card.Rank.TEN
+    };
+    private static final Card.Rank[] TENS = {Card.Rank.TEN, Card.Rank.JACK, Card.Rank.QUEEN, Card.Rank.KING};
+    // Cards of each value in one deck
+    private static final int[] LIMITS = {4, 4, 4, 4, 4, 4, 4, 4, 4, 16};
+
+    private final List<Hand> hands = new ArrayList<>();
+
+    @Test
+    void matchesHandOnEveryHand() {
+        enumerate(new int[RANKS.length], 0, 0);
+        assertTrue(hands.size() > 300_000, "too few hands enumerated: " + hands.size());
+
+        // Start small so the batch has to grow
+        HandBatch fromHands = new HandBatch(1, 1);
+        HandBatch fromCodes = new HandBatch(1, 1);
+        for (Hand hand : hands) {
+            fromHands.add(hand);
+            byte[] codes = codes(hand);
+            fromCodes.add(codes, 0, codes.length, hand.isSplit());
+        }
+        fromHands.evaluate();
+        fromCodes.evaluate();
+
+        assertEquals(hands.size(), fromHands.size());
+        assertEquals(hands.size(), fromCodes.size());
+        int soft = 0;
+        int bust = 0;
+        int blackjack = 0;
+        for (int i = 0; i < hands.size(); i++) {
+            assertMatches(hands.get(i), fromHands, i);
+            assertMatches(hands.get(i), fromCodes, i);
+            soft += fromHands.isSoft(i) ? 1 : 0;
+            bust += fromHands.isBust(i) ? 1 : 0;
+            blackjack += fromHands.isBlackjack(i) ? 1 : 0;
+        }
+        assertTrue(soft > 0 && bust > 0 && blackjack > 0, "every flag was exercised");
+    }
+
+    @Test
+    void valuesHandsAgainAfterClear() {
+        HandBatch batch = new HandBatch(2, 2);
+        batch.add(hand(Card.Rank.ACE, Card.Rank.KING));
+        batch.evaluate();
+        assertTrue(batch.isBlackjack(0));
+
+        batch.clear();
+        assertEquals(0, batch.size());
+        batch.add(hand(Card.Rank.TEN, Card.Rank.ACE, Card.Rank.ACE));
+        batch.evaluate();
+        assertEquals(1, batch.size());
+        assertEquals(12, batch.getValue(0));
+        assertFalse(batch.isSoft(0));
+        assertFalse(batch.isBlackjack(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.getValue(1));
+    }
+
+    @Test
+    void evaluatesHandsThatStartPartWayIntoTheArrays() {
+        Hand soft = hand(Card.Rank.ACE, Card.Rank.SIX);
+        Hand bust = hand(Card.Rank.KING, Card.Rank.QUEEN, Card.Rank.TWO);
+        byte[] cards = new byte[8];
+        System.arraycopy(codes(soft), 0, cards, 3, 2);
+        System.arraycopy(codes(bust), 0, cards, 5, 3);
+        int[] offsets = {3, 5, 8};
+        byte[] values = new byte[2];
+        byte[] flags = new byte[2];
+        HandBatch.evaluate(cards, offsets, null, 2, new int[cards.length + 1], values, flags);
+
+        assertEquals(17, values[0]);
+        assertEquals(HandBatch.SOFT, flags[0]);
+        assertEquals(22, values[1]);
+        assertEquals(HandBatch.BUST, flags[1]);
+    }
+
+    private static void assertMatches(Hand hand, HandBatch batch, int index) {
+        Supplier<String> name = () -> hand.getCards() + (hand.isSplit() ? " split" : "");
+        assertEquals(hand.calculateValue(), batch.getValue(index), name);
+        assertEquals(hand.isSoft(), batch.isSoft(index), name);
+        assertEquals(hand.isBust(), batch.isBust(index), name);
+        assertEquals(hand.isBlackjack(), batch.isBlackjack(index), name);
+    }
+
+    /**
+     * Visits every multiset of card values, from the value rank given on.
+     */
+    private void enumerate(int[] counts, int rank, int size) {
+        if (rank == RANKS.length) {
+            if (size > 0) {
+                add(counts, size);
+            }
+            return;
+        }
+        for (int n = 0; n <= LIMITS[rank] && size + n <= MAX_CARDS; n++) {
+            counts[rank] = n;
+            enumerate(counts, rank + 1, size + n);
+        }
+        counts[rank] = 0;
+    }
+
+    /**
+     * Adds the hand of the given card values, the same hand split,
+     * and the same hand with its second card face down as the dealer's hole card.
+     */
+    private void add(int[] counts, int size) {
+        List<Card> cards = new ArrayList<>(size);
+        for (int rank = 0; rank < RANKS.length; rank++) {
+            for (int i = 0; i < counts[rank]; i++) {
+                Card.Rank cardRank = RANKS[rank] == Card.Rank.TEN ? TENS[i % TENS.length] : RANKS[rank];
+                cards.add(new Card(Card.Suit.values()[i % 4], cardRank));
+            }
+        }
+
+        Hand hand = new Hand();
+        Hand split = new Hand();
+        Hand holeCard = new Hand();
+        for (int i = 0; i < size; i++) {
+            hand.addCard(cards.get(i));
+            split.addCard(new Card(cards.get(i).getSuit(), cards.get(i).getRank()));
+            Card card = new Card(cards.get(i).getSuit(), cards.get(i).getRank());
+            card.setFaceUp(i != 1);
+            holeCard.addCard(card);
+        }
+        split.setSplit();
+        hands.add(hand);
+        hands.add(split);
+        if (size > 1) {
+            hands.add(holeCard);
+        }
+    }
+
+    private static byte[] codes(Hand hand) {
+        byte[] codes = new byte[hand.getCards().size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = hand.getCards().get(i).getCode();
+        }
+        return codes;
+    }
+
+    private static Hand hand(Card.Rank... ranks) {
+        Hand hand = new Hand();
+        for (Card.Rank rank : ranks) {
+            hand.addCard(new Card(Card.Suit.SPADES, rank));
+        }
+        return hand;
+    }
+}
@@ -0,0 +1,178 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks Hand's running value against the two-pass algorithm it replaced,
+ * over every single-deck hand of up to 11 cards.
+ */
+class HandTest {
+    private static final int MAX_CARDS = 11;
+
+    // One rank for each card value, ace first
+    private static final Card.Rank[] RANKS = {
+            Card.Rank.ACE, Card.Rank.TWO, Card.Rank.THREE, Card.Rank.FOUR, Card.Rank.FIVE,
+            Card.Rank.SIX, Card.Rank.SEVEN, Card.Rank.EIGHT, Card.Rank.NINE, Card.Rank.TEN
+    };
+    // Cards of each value in one deck
+    private static final int[] LIMITS = {4, 4, 4, 4, 4, 4, 4, 4, 4, 16};
+
+    private int hands;
+    private int multiAceFixes;
+
+    @Test
+    void matchesOldAlgorithmOnEveryHand() {
+        enumerate(new int[RANKS.length], 0, 0);
+        assertTrue(hands > 100_000, "too few hands enumerated: " + hands);
+        assertTrue(multiAceFixes > 0, "the multi-ace fix was never exercised");
+    }
+
+    @Test
+    void countsOnlyOneAceAsEleven() {
+        Hand hand = hand(Card.Rank.TEN, Card.Rank.ACE, Card.Rank.ACE);
+        assertEquals(12, hand.calculateValue());
+        assertFalse(hand.isSoft());
+        assertFalse(hand.isBust());
+        assertEquals(22, oldValue(hand.getCards()));
+    }
+
+    @Test
+    void splitHandIsNotBlackjack() {
+        Hand hand = hand(Card.Rank.ACE, Card.Rank.KING);
+        assertTrue(hand.isBlackjack());
+        hand.setSplit();
+        assertEquals(21, hand.calculateValue());
+        assertFalse(hand.isBlackjack());
+    }
+
+    /**
+     * Visits every multiset of card values, from the value rank given on.
+     */
+    private void enumerate(int[] counts, int rank, int size) {
+        if (rank == RANKS.length) {
+            if (size > 0) {
+                check(counts, size);
+            }
+            return;
+        }
+        for (int n = 0; n <= LIMITS[rank] && size + n <= MAX_CARDS; n++) {
+            counts[rank] = n;
+            enumerate(counts, rank + 1, size + n);
+        }
+        counts[rank] = 0;
+    }
+
+    private void check(int[] counts, int size) {
+        hands++;
+        List<Card> cards = new ArrayList<>(size);
+        for (int rank = 0; rank < RANKS.length; rank++) {
+            for (int i = 0; i < counts[rank]; i++) {
+                cards.add(new Card(Card.Suit.values()[i % 4], RANKS[rank]));
+            }
+        }
+        String name = cards.toString();
+
+        Hand hand = new Hand();
+        cards.forEach(hand::addCard);
+        int expected = bestValue(cards);
+        int old = oldValue(cards);
+        assertEquals(expected, hand.calculateValue(), name);
+        assertEquals(expected > 21, hand.isBust(), name);
+        assertEquals(size == 2 && expected == 21, hand.isBlackjack(), name);
+        assertEquals(counts[0] > 0 && expected == hardValue(cards) + 10, hand.isSoft(), name);
+        if (old != expected) {
+            // The old algorithm gave the first ace 11 even when a later ace then busted the hand
+            assertTrue(counts[0] > 1 && old > 21 && expected <= 21, name + " differs from the old value " + old);
+            multiAceFixes++;
+        }
+
+        if (size > 1) {
+            // Deal the second card face down, as the dealer's hole card, then turn it over
+            Hand holeCard = new Hand();
+            for (int i = 0; i < size; i++) {
+                Card card = new Card(cards.get(i).getSuit(), cards.get(i).getRank());
+                card.setFaceUp(i != 1);
+                holeCard.addCard(card);
+            }
+            assertEquals(oldOrBest(holeCard.getCards()), holeCard.calculateValue(), name + " with a hole card");
+            holeCard.revealAllCards();
+            assertEquals(expected, holeCard.calculateValue(), name + " after the reveal");
+            assertEquals(hand.isSoft(), holeCard.isSoft(), name + " after the reveal");
+        }
+    }
+
+    private static Hand hand(Card.Rank... ranks) {
+        Hand hand = new Hand();
+        for (Card.Rank rank : ranks) {
+            hand.addCard(new Card(Card.Suit.SPADES, rank));
+        }
+        return hand;
+    }
+
+    /**
+     * The value the old two-pass algorithm gave, where it was right, and the best value otherwise.
+     */
+    private static int oldOrBest(List<Card> cards) {
+        int old = oldValue(cards);
+        return old <= 21 ? old : bestValue(cards);
+    }
+
+    /**
+     * Values face-up cards the way Hand did before it kept a running value.
+     */
+    private static int oldValue(List<Card> cards) {
+        int value = 0;
+        int aces = 0;
+        for (Card card : cards) {
+            if (card.isFaceUp()) {
+                if (card.getRank() == Card.Rank.ACE) {
+                    aces++;
+                } else {
+                    value += card.getValue();
+                }
+            }
+        }
+        for (int i = 0; i < aces; i++) {
+            if (value + 11 <= 21) {
+                value += 11;
+            } else {
+                value += 1;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Values face-up cards by trying every way of counting the aces as 1 or 11.
+     */
+    private static int bestValue(List<Card> cards) {
+        int hard = hardValue(cards);
+        int aces = 0;
+        for (Card card : cards) {
+            if (card.isFaceUp() && card.getRank() == Card.Rank.ACE) {
+                aces++;
+            }
+        }
+        int best = hard;
+        for (int elevens = 1; elevens <= aces; elevens++) {
+            int value = hard + 10 * elevens;
+            if (value <= 21) {
+                best = value;
+            }
+        }
+        return best;
+    }
+
+    private static int hardValue(List<Card> cards) {
+        int value = 0;
+        for (Card card : cards) {
+            if (card.isFaceUp()) {
+                value += card.getRank() == Card.Rank.ACE ? 1 : card.getValue();
+            }
+        }
+        return value;
+    }
+}
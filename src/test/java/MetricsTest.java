@@ -0,0 +1,34 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the labels Metrics writes in its exposition dump.
+ */
+class MetricsTest {
+    @Test
+    void escapesNamesTheExpositionWay() {
+        Metrics metrics = new Metrics();
+        String name = "Ann \"the Shark\" C:\\cards\n*?";
+        metrics.register("player", name, new Statistics());
+        try {
+            assertTrue(metrics.exposition().contains(
+                    "blackjack_hands_total{scope=\"player\",name=\"Ann \\\"the Shark\\\" C:\\\\cards\\n*?\"} 0\n"),
+                    metrics::exposition);
+        } finally {
+            metrics.unregister("player", name);
+        }
+    }
+
+    @Test
+    void quotesPlainNames() {
+        Metrics metrics = new Metrics();
+        metrics.register("table", "7", new Statistics());
+        try {
+            assertTrue(metrics.exposition().contains("blackjack_busts_total{scope=\"table\",name=\"7\"} 0\n"),
+                    metrics::exposition);
+        } finally {
+            metrics.unregister("table", "7");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks how the default decide replaces actions the table doesn't allow.
+ */
+class PlayerPolicyTest {
+    // Doubles every soft hand, surrenders every hard 16 and hits the rest
+    private static final PlayerPolicy AGGRESSIVE = (hand, dealerUpCard) -> {
+        if (hand.isSoft()) {
+            return PlayerPolicy.Action.DOUBLE;
+        }
+        if (hand.calculateValue() == 16) {
+            return PlayerPolicy.Action.SURRENDER;
+        }
+        return PlayerPolicy.Action.HIT;
+    };
+
+    @Test
+    void softDoubleThatIsNotAllowedStands() {
+        Hand softEighteen = hand(Card.Rank.ACE, Card.Rank.SEVEN);
+        assertEquals(PlayerPolicy.Action.DOUBLE, AGGRESSIVE.decide(softEighteen, card(Card.Rank.FIVE), true, false, true));
+        assertEquals(PlayerPolicy.Action.STAY, AGGRESSIVE.decide(softEighteen, card(Card.Rank.FIVE), false, false, true));
+        assertEquals(PlayerPolicy.Action.HIT, AGGRESSIVE.decide(softEighteen, card(Card.Rank.TEN), false, false, true));
+    }
+
+    @Test
+    void surrenderThatIsNotAllowedFallsBackToHitOrStay() {
+        Hand sixteen = hand(Card.Rank.TEN, Card.Rank.SIX);
+        assertEquals(PlayerPolicy.Action.SURRENDER, AGGRESSIVE.decide(sixteen, card(Card.Rank.SIX), false, false, true));
+        assertEquals(PlayerPolicy.Action.STAY, AGGRESSIVE.decide(sixteen, card(Card.Rank.SIX), false, false, false));
+        assertEquals(PlayerPolicy.Action.HIT, AGGRESSIVE.decide(sixteen, card(Card.Rank.TEN), false, false, false));
+    }
+
+    @Test
+    void policyCanChooseItsOwnFallback() {
+        PlayerPolicy alwaysHits = new PlayerPolicy() {
+            @Override
+            public Action decide(Hand hand, Card dealerUpCard) {
+                return Action.DOUBLE;
+            }
+
+            @Override
+            public Action hitOrStay(Hand hand, Card dealerUpCard) {
+                return Action.HIT;
+            }
+        };
+        Hand softEighteen = hand(Card.Rank.ACE, Card.Rank.SEVEN);
+        assertEquals(PlayerPolicy.Action.HIT, alwaysHits.decide(softEighteen, card(Card.Rank.FIVE), false, false, false));
+    }
+
+    private static Card card(Card.Rank rank) {
+        return new Card(Card.Suit.HEARTS, rank);
+    }
+
+    private static Hand hand(Card.Rank... ranks) {
+        Hand hand = new Hand();
+        for (Card.Rank rank : ranks) {
+            hand.addCard(card(rank));
+        }
+        return hand;
+    }
+}
@@ -0,0 +1,137 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the effect of each rule variant on hands set up in advance.
+ * A shoe's order depends only on its seed, so each test searches for a seed
+ * that deals the cards it needs and restores the game's shoe to it.
+ * Cards are dealt to the player first, then the dealer's up-card and hole card, then hits.
+ */
+class RuleSetTest {
+    private static final int TEN = 10;
+    private static final int ACE = 11;
+    private static final int MAX_SEEDS = 50_000_000;
+
+    @Test
+    void dealerHitsSoft17OnlyUnderH17() {
+        // Player stands on 20, dealer shows an ace with a six underneath
+        long seed = seedDealing(TEN, TEN, ACE, 6);
+
+        Game s17 = stackedGame(RuleSet.DEFAULT.withDealerHitsSoft17(false), seed);
+        s17.stay();
+        assertEquals(2, s17.getDealer().getHand().getCards().size());
+        assertEquals(17, s17.getDealer().getHand().calculateValue());
+
+        Game h17 = stackedGame(RuleSet.DEFAULT.withDealerHitsSoft17(true), seed);
+        h17.stay();
+        assertTrue(h17.getDealer().getHand().getCards().size() > 2);
+    }
+
+    @Test
+    void blackjackPaysTheTablePayout() {
+        // Player has blackjack, dealer has 17 without one
+        long seed = seedDealing(ACE, TEN, TEN, 7);
+        assertBlackjackPays(RuleSet.DEFAULT.withBlackjackPayout(3, 2), seed, 1500);
+        assertBlackjackPays(RuleSet.DEFAULT.withBlackjackPayout(6, 5), seed, 1200);
+        assertBlackjackPays(RuleSet.DEFAULT.withBlackjackPayout(1, 1), seed, 1000);
+    }
+
+    private static void assertBlackjackPays(RuleSet rules, long seed, long milliUnits) {
+        Game game = stackedGame(rules, seed);
+        game.stay();
+        assertEquals(Game.GameState.ROUND_OVER, game.getGameState());
+        Player player = game.getPlayers().get(0);
+        assertEquals(milliUnits, player.getStatistics().snapshot().getNetMilliUnits(), rules.toString());
+        assertEquals(player.getBet() * milliUnits / Statistics.UNIT, player.getBankroll().getLastResult(), rules.toString());
+    }
+
+    @Test
+    void doubleAfterSplitOnlyUnderDas() {
+        // Player splits eights against a six, and the first eight draws a three
+        long seed = seedDealing(8, 8, 6, TEN, 3, TEN);
+
+        Game das = stackedGame(RuleSet.DEFAULT.withDoubleAfterSplit(true), seed);
+        assertTrue(das.canDouble());
+        das.split();
+        assertEquals(11, das.getCurrentPlayer().getActiveHand().calculateValue());
+        assertTrue(das.canDouble());
+
+        Game noDas = stackedGame(RuleSet.DEFAULT.withDoubleAfterSplit(false), seed);
+        assertTrue(noDas.canDouble());
+        noDas.split();
+        assertEquals(11, noDas.getCurrentPlayer().getActiveHand().calculateValue());
+        assertFalse(noDas.canDouble());
+        noDas.doubleDown();
+        assertFalse(noDas.getCurrentPlayer().getActiveHand().isDoubled());
+    }
+
+    @Test
+    void surrenderOnlyWhenTheRulesAllowIt() {
+        // Player has 16 against a ten, dealer has 17 without blackjack
+        long seed = seedDealing(TEN, 6, TEN, 7);
+
+        Game surrender = stackedGame(RuleSet.DEFAULT.withSurrender(true), seed);
+        assertTrue(surrender.canSurrender());
+        surrender.surrender();
+        assertEquals(Game.GameState.ROUND_OVER, surrender.getGameState());
+        assertEquals(-Statistics.UNIT / 2, surrender.getPlayers().get(0).getStatistics().snapshot().getNetMilliUnits());
+
+        Game noSurrender = stackedGame(RuleSet.DEFAULT.withSurrender(false), seed);
+        assertFalse(noSurrender.canSurrender());
+        noSurrender.surrender();
+        assertEquals(Game.GameState.PLAYING, noSurrender.getGameState());
+        assertFalse(noSurrender.getCurrentPlayer().getActiveHand().isSurrendered());
+    }
+
+    @Test
+    void peekEndsTheRoundOnDealerBlackjack() {
+        // Player has 19, dealer has blackjack with the ace showing
+        long seed = seedDealing(TEN, 9, ACE, TEN);
+
+        Game peek = stackedGame(RuleSet.DEFAULT.withDealerPeek(true), seed);
+        assertEquals(Game.GameState.ROUND_OVER, peek.getGameState());
+        assertTrue(peek.getDealer().getHand().isBlackjack());
+        assertEquals(-Statistics.UNIT, peek.getPlayers().get(0).getStatistics().snapshot().getNetMilliUnits());
+
+        Game noPeek = stackedGame(RuleSet.DEFAULT.withDealerPeek(false), seed);
+        assertEquals(Game.GameState.PLAYING, noPeek.getGameState());
+        assertEquals(11, noPeek.getDealer().getHand().calculateValue(), "the hole card stays down");
+        noPeek.stay();
+        assertEquals(Game.GameState.ROUND_OVER, noPeek.getGameState());
+        assertEquals(-Statistics.UNIT, noPeek.getPlayers().get(0).getStatistics().snapshot().getNetMilliUnits());
+    }
+
+    /**
+     * Starts a round for one player on a shoe shuffled with the given seed.
+     */
+    private static Game stackedGame(RuleSet rules, long seed) {
+        Game game = new Game(rules, new SplittableRandom(seed));
+        game.addPlayer("Player");
+        game.getDeck().restore(seed, 0);
+        game.startNewRound();
+        return game;
+    }
+
+    /**
+     * Finds the first seed whose single-deck shoe starts with cards of the given values, aces as 11.
+     */
+    private static long seedDealing(int... values) {
+        assertEquals(1, RuleSet.DEFAULT.getNumberOfDecks());
+        PackedDeck deck = new PackedDeck(1);
+        for (long seed = 0; seed < MAX_SEEDS; seed++) {
+            deck.reset();
+            deck.shuffle(seed);
+            int i = 0;
+            while (i < values.length && PackedCard.value(deck.draw()) == values[i]) {
+                i++;
+            }
+            if (i == values.length) {
+                return seed;
+            }
+        }
+        throw new AssertionError("No shoe starts with the cards asked for");
+    }
+}
@@ -0,0 +1,91 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that a seeded Simulator run always comes out the same, and the same as
+ * games with the same random streams played one action at a time.
+ */
+class SimulatorTest {
+    private static final long SEED = 2024;
+    private static final int ROUNDS = 20_001;
+
+    @Test
+    void sameSeedAndThreadsGiveTheSameTotals() {
+        for (int threads : new int[] {1, 3}) {
+            Simulator first = new Simulator(new BasicStrategy(), threads);
+            Simulator second = new Simulator(new BasicStrategy(), threads);
+            assertSameTotals(first.run(ROUNDS, SEED), second.run(ROUNDS, SEED));
+            assertEquals(first.getBankrollResult(), second.getBankrollResult());
+        }
+    }
+
+    @Test
+    void matchesGamesPlayedByHand() {
+        for (int threads : new int[] {1, 3}) {
+            Simulator simulator = new Simulator(new BasicStrategy(), threads);
+            StatisticsSnapshot simulated = simulator.run(ROUNDS, SEED);
+
+            // Each worker's game, in the order the workers split their streams from the seed
+            Statistics statistics = new Statistics();
+            SplittableRandom seeds = new SplittableRandom(SEED);
+            long bankrollResult = 0;
+            for (int i = 0; i < threads; i++) {
+                long share = ROUNDS / threads + (i < ROUNDS % threads ? 1 : 0);
+                Game game = new Game(RuleSet.DEFAULT, seeds.split(), statistics);
+                game.addPlayer("Simulated Player");
+                for (long round = 0; round < share; round++) {
+                    playRound(game, new BasicStrategy());
+                }
+                Player player = game.getPlayers().get(0);
+                bankrollResult += player.getBankroll().getBalance() - Bankroll.DEFAULT_BALANCE;
+            }
+
+            assertTrue(simulated.getHands() >= ROUNDS, "every round was played");
+            assertSameTotals(statistics.snapshot(), simulated);
+            assertEquals(bankrollResult, simulator.getBankrollResult());
+        }
+    }
+
+    /**
+     * Deals a round and plays the player's hands one action at a time, leaving the game
+     * to settle the round.
+     */
+    private static void playRound(Game game, PlayerPolicy policy) {
+        game.startNewRound();
+        Card dealerUpCard = game.getDealer().getHand().getCards().get(0);
+        while (game.getGameState() == Game.GameState.PLAYING) {
+            Hand hand = game.getCurrentPlayer().getActiveHand();
+            switch (policy.decide(hand, dealerUpCard, game.canDouble(), game.canSplit(), game.canSurrender())) {
+                case HIT:
+                    game.hit();
+                    break;
+                case DOUBLE:
+                    game.doubleDown();
+                    break;
+                case SPLIT:
+                    game.split();
+                    break;
+                case SURRENDER:
+                    game.surrender();
+                    break;
+                default:
+                    game.stay();
+                    break;
+            }
+        }
+        assertEquals(Game.GameState.ROUND_OVER, game.getGameState());
+    }
+
+    private static void assertSameTotals(StatisticsSnapshot expected, StatisticsSnapshot actual) {
+        assertEquals(expected.getHands(), actual.getHands());
+        assertEquals(expected.getWins(), actual.getWins());
+        assertEquals(expected.getLosses(), actual.getLosses());
+        assertEquals(expected.getPushes(), actual.getPushes());
+        assertEquals(expected.getBlackjacks(), actual.getBlackjacks());
+        assertEquals(expected.getBusts(), actual.getBusts());
+        assertEquals(expected.getNetMilliUnits(), actual.getNetMilliUnits());
+    }
+}
@@ -0,0 +1,122 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives many simulated tables on a local TableServer at once.
+ * Every table is played by an asynchronous driver that sends each player's
+ * actions in turn, so thousands of commands are in flight across the server's threads.
+ * Tables are opened, played and closed in waves, so later waves must reuse the games of earlier ones.
+ * Scale it up with -Dload.tables, -Dload.players, -Dload.rounds and -Dload.waves.
+ */
+class TableLoadTest {
+    private static final int TABLES = Integer.getInteger("load.tables", 500);
+    private static final int PLAYERS_PER_TABLE = Integer.getInteger("load.players", 3);
+    private static final int ROUNDS = Integer.getInteger("load.rounds", 20);
+    private static final int WAVES = Integer.getInteger("load.waves", 3);
+
+    @Test
+    void playsEveryRoundAndReusesGames() throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        try (TableServer server = new TableServer(threads, 6, Deck.DEFAULT_PENETRATION)) {
+            for (int wave = 1; wave <= WAVES; wave++) {
+                List<Driver> drivers = new ArrayList<>();
+                for (int i = 0; i < TABLES; i++) {
+                    drivers.add(new Driver(server.openTable(), PLAYERS_PER_TABLE, ROUNDS));
+                }
+
+                List<CompletableFuture<Void>> runs = new ArrayList<>();
+                for (Driver driver : drivers) {
+                    runs.add(driver.run());
+                }
+                CompletableFuture.allOf(runs.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.MINUTES);
+
+                for (Driver driver : drivers) {
+                    assertEquals(ROUNDS, driver.roundsPlayed, "rounds played on table " + driver.table.getId());
+                    server.closeTable(driver.table.getId());
+                }
+                assertEquals(0, server.getTableCount());
+                awaitReleased(server.getGamePool());
+            }
+
+            // Only HIT and STAY are sent, so every player has exactly one hand a round
+            StatisticsSnapshot statistics = server.getStatistics().snapshot();
+            long hands = (long) TABLES * PLAYERS_PER_TABLE * ROUNDS * WAVES;
+            assertEquals(hands, statistics.getHands());
+            assertEquals(hands, statistics.getWins() + statistics.getLosses() + statistics.getPushes());
+
+            GamePool pool = server.getGamePool();
+            assertEquals(TABLES, pool.getMisses(), "only the first wave creates games");
+            assertEquals((long) TABLES * (WAVES - 1), pool.getHits());
+        }
+    }
+
+    /**
+     * Waits for closed tables to hand their games back, which they do on their own threads.
+     */
+    private static void awaitReleased(GamePool pool) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (pool.getOutstanding() > 0) {
+            assertTrue(System.nanoTime() < deadline, "games still outstanding: " + pool);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Plays one table: seats the players, then plays rounds, hitting below 17.
+     * Only touched from the table's actor, one action at a time.
+     */
+    private static final class Driver {
+        private final TableActor table;
+        private final int players;
+        private final int rounds;
+        private final CompletableFuture<Void> done;
+        private int roundsPlayed;
+
+        Driver(TableActor table, int players, int rounds) {
+            this.table = table;
+            this.players = players;
+            this.rounds = rounds;
+            this.done = new CompletableFuture<>();
+        }
+
+        CompletableFuture<Void> run() {
+            CompletableFuture<TableState> seated = null;
+            for (int i = 0; i < players; i++) {
+                seated = send(TableCommand.Type.JOIN, "Player " + i);
+            }
+            seated.thenAccept(state -> startRound());
+            return done;
+        }
+
+        private void startRound() {
+            if (roundsPlayed == rounds) {
+                done.complete(null);
+                return;
+            }
+            roundsPlayed++;
+            send(TableCommand.Type.START_ROUND, null).thenAccept(this::act);
+        }
+
+        private void act(TableState state) {
+            if (state.getGameState() != Game.GameState.PLAYING) {
+                startRound();
+                return;
+            }
+            TableCommand.Type action = state.getCurrentValue() < 17 ? TableCommand.Type.HIT : TableCommand.Type.STAY;
+            send(action, state.getCurrentPlayer()).thenAccept(this::act);
+        }
+
+        private CompletableFuture<TableState> send(TableCommand.Type type, String playerName) {
+            return table.submit(type, playerName)
+                    .whenComplete((state, error) -> {
+                        if (error != null) {
+                            done.completeExceptionally(error);
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,326 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plays many remote players against a TableProtocolServer over loopback.
+ * The server runs in the same JVM; the players are driven by one selector thread of their own,
+ * so they cost no threads either. Each player keeps track of their hand from the deltas alone
+ * and hits below 17. The first player of each table opens it and deals its rounds.
+ * Every player must play every round with every request answered and none refused.
+ * Scale it up with -Dload.connections, -Dload.players and -Dload.rounds. Every connection takes
+ * a file descriptor at each end, so raise the open file limit (ulimit -n) to a little over twice
+ * the number of connections. Connections are spread over several loopback addresses,
+ * so they don't run out of ephemeral ports.
+ */
+class TableProtocolLoadTest {
+    private static final int CONNECTIONS = Integer.getInteger("load.connections", 300);
+    private static final int PLAYERS_PER_TABLE = Integer.getInteger("load.players", 3);
+    private static final int ROUNDS = Integer.getInteger("load.rounds", 10);
+    // Connections per loopback source address, well within the ephemeral port range
+    private static final int CONNECTIONS_PER_ADDRESS = 20_000;
+    private static final long STALL_NANOS = 30_000_000_000L;
+
+    @Test
+    void everyPlayerPlaysEveryRound() throws Exception {
+        int connections = CONNECTIONS;
+        int playersPerTable = PLAYERS_PER_TABLE;
+        int rounds = ROUNDS;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        try (TableServer tables = new TableServer(threads, 6, Deck.DEFAULT_PENETRATION);
+             TableProtocolServer server = new TableProtocolServer(tables, new InetSocketAddress("127.0.0.1", 0));
+             Selector selector = Selector.open()) {
+            server.start();
+            InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.getPort());
+
+            Client[] clients = new Client[connections];
+            for (int i = 0; i < connections; i++) {
+                int first = i - i % playersPerTable;
+                clients[i] = new Client(i, i == first ? null : clients[first],
+                        Math.min(playersPerTable, connections - first), rounds);
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.bind(new InetSocketAddress("127.0.0." + (1 + i / CONNECTIONS_PER_ADDRESS), 0));
+                channel.connect(address);
+                clients[i].key = channel.register(selector, SelectionKey.OP_CONNECT, clients[i]);
+            }
+
+            for (int i = 0; i < connections; i += playersPerTable) {
+                clients[i].followers = Arrays.copyOfRange(clients, i + 1, i + clients[i].tableSize);
+            }
+
+            Results results = new Results();
+            long lastProgress = System.nanoTime();
+            long lastFrames = 0;
+            // A request's OK follows its deltas, so the last answers may come after the last SETTLED
+            while (results.done < connections || unanswered(clients) > 0) {
+                selector.select(key -> ((Client) key.attachment()).handle(key, results), 1000);
+                if (results.frames != lastFrames) {
+                    lastFrames = results.frames;
+                    lastProgress = System.nanoTime();
+                } else {
+                    assertTrue(System.nanoTime() - lastProgress < STALL_NANOS,
+                            "stalled with " + results.done + " of " + connections + " players done and "
+                                    + unanswered(clients) + " requests unanswered");
+                }
+            }
+
+            assertEquals(0, results.errors, "first error: " + results.firstError);
+            assertEquals((long) connections * rounds, results.rounds);
+            assertEquals(connections, results.peakConnections);
+            assertEquals(connections, server.getConnectionCount());
+            for (Client client : clients) {
+                client.key.channel().close();
+            }
+
+            // Every table closes once its last connection has gone
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (server.getConnectionCount() > 0 || tables.getTableCount() > 0) {
+                assertTrue(System.nanoTime() < deadline, server.getConnectionCount() + " connections and "
+                        + tables.getTableCount() + " tables still open");
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static long unanswered(Client[] clients) {
+        long unanswered = 0;
+        for (Client client : clients) {
+            unanswered += client.requests - client.answers;
+        }
+        return unanswered;
+    }
+
+    /**
+     * Totals of every player, only touched from the selector thread.
+     */
+    private static final class Results {
+        private long frames;
+        private long rounds;
+        private long errors;
+        private String firstError;
+        private int connected;
+        private int peakConnections;
+        private int done;
+    }
+
+    /**
+     * One remote player, with their view of the table built from deltas.
+     */
+    private static final class Client {
+        private final int index;
+        private final Client leader;
+        private final int tableSize;
+        private final ByteBuffer in;
+        private final ByteBuffer out;
+        private final int[] values;
+        private Client[] followers = new Client[0];
+        private SelectionKey key;
+        private long answers;
+        private long requests;
+        private int seat = -1;
+        private int tableId = -1;
+        private int seatedPlayers;
+        private int turnHand = -1;
+        private int roundsLeft;
+        private boolean connected;
+        private boolean joinWhenConnected;
+
+        Client(int index, Client leader, int tableSize, int rounds) {
+            this.index = index;
+            this.leader = leader;
+            this.tableSize = tableSize;
+            this.roundsLeft = rounds;
+            this.in = ByteBuffer.allocate(TableProtocol.MAX_FRAME + 2);
+            this.out = ByteBuffer.allocate(1024);
+            this.values = new int[Player.MAX_HANDS];
+        }
+
+        void handle(SelectionKey key, Results results) {
+            try {
+                if (key.isConnectable()) {
+                    ((SocketChannel) key.channel()).finishConnect();
+                    key.interestOps(SelectionKey.OP_READ);
+                    connected = true;
+                    results.peakConnections = Math.max(results.peakConnections, ++results.connected);
+                    if (leader == null) {
+                        join(TableProtocol.NEW_TABLE);
+                    } else if (joinWhenConnected) {
+                        join(leader.tableId);
+                    }
+                    return;
+                }
+                if (key.isReadable()) {
+                    read(results);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    flush();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Player " + index + " lost their connection", e);
+            }
+        }
+
+        private void read(Results results) throws IOException {
+            int read = ((SocketChannel) key.channel()).read(in);
+            if (read < 0) {
+                throw new IOException("Closed by the server");
+            }
+            in.flip();
+            while (in.remaining() >= 2) {
+                int length = in.getShort(in.position()) & 0xFFFF;
+                if (in.remaining() < 2 + length) {
+                    break;
+                }
+                int end = in.position() + 2 + length;
+                in.position(in.position() + 2);
+                results.frames++;
+                frame(in.get(), results);
+                in.position(end);
+            }
+            in.compact();
+            flush();
+        }
+
+        private void frame(byte type, Results results) throws IOException {
+            switch (type) {
+                case TableProtocol.JOINED:
+                    tableId = in.getInt();
+                    seat = in.get() & 0xFF;
+                    answered();
+                    request(TableProtocol.BET, ThreadLocalRandom.current().nextInt(1, 11) * 100L);
+                    if (leader == null && seatedPlayers == tableSize) {
+                        deal();
+                    }
+                    // The other players wait for the table to open before joining it
+                    for (Client follower : followers) {
+                        if (follower.connected) {
+                            follower.join(tableId);
+                        } else {
+                            follower.joinWhenConnected = true;
+                        }
+                    }
+                    break;
+                case TableProtocol.OK:
+                    answered();
+                    // A hit that leaves the turn unchanged sends no TURN, so play on from here
+                    if (in.get() == TableProtocol.HIT && turnHand >= 0) {
+                        play();
+                    }
+                    break;
+                case TableProtocol.ERROR:
+                    answered();
+                    in.get();
+                    results.errors++;
+                    if (results.firstError == null) {
+                        results.firstError = TableProtocol.getString(in);
+                    }
+                    break;
+                case TableProtocol.SEATED:
+                    if (leader == null && ++seatedPlayers == tableSize && seat >= 0) {
+                        deal();
+                    }
+                    break;
+                case TableProtocol.VALUE: {
+                    int valueSeat = in.get() & 0xFF;
+                    int hand = in.get();
+                    if (valueSeat == seat) {
+                        values[hand] = in.get();
+                    }
+                    break;
+                }
+                case TableProtocol.CLEARED: {
+                    int clearedSeat = in.get() & 0xFF;
+                    if (clearedSeat == seat) {
+                        values[in.get()] = 0;
+                    }
+                    break;
+                }
+                case TableProtocol.TURN: {
+                    in.getLong();
+                    int state = in.get();
+                    int turnSeat = in.get() & 0xFF;
+                    int hand = in.get();
+                    turnHand = state == Game.GameState.PLAYING.ordinal() && turnSeat == seat ? hand : -1;
+                    if (turnHand >= 0) {
+                        play();
+                    }
+                    break;
+                }
+                case TableProtocol.SETTLED:
+                    if ((in.get() & 0xFF) == seat) {
+                        results.rounds++;
+                        if (--roundsLeft == 0) {
+                            results.done++;
+                        } else if (leader == null) {
+                            deal();
+                        }
+                    }
+                    break;
+                default:
+                    // SNAPSHOT, CARD, FLIP and REMOVED don't change how this player plays
+                    break;
+            }
+        }
+
+        private void join(int table) throws IOException {
+            int start = TableProtocol.beginFrame(out, TableProtocol.JOIN);
+            out.putInt(table);
+            TableProtocol.putString(out, "Player " + index);
+            TableProtocol.endFrame(out, start);
+            sent();
+            flush();
+        }
+
+        private void play() throws IOException {
+            request(values[turnHand] < 17 ? TableProtocol.HIT : TableProtocol.STAY);
+        }
+
+        private void deal() throws IOException {
+            request(TableProtocol.DEAL);
+        }
+
+        private void request(byte type) throws IOException {
+            TableProtocol.endFrame(out, TableProtocol.beginFrame(out, type));
+            sent();
+            flush();
+        }
+
+        private void request(byte type, long value) throws IOException {
+            int start = TableProtocol.beginFrame(out, type);
+            out.putLong(value);
+            TableProtocol.endFrame(out, start);
+            sent();
+            flush();
+        }
+
+        private void sent() {
+            requests++;
+        }
+
+        private void answered() {
+            answers++;
+        }
+
+        private void flush() throws IOException {
+            if (out.position() == 0) {
+                return;
+            }
+            out.flip();
+            ((SocketChannel) key.channel()).write(out);
+            out.compact();
+            key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+}
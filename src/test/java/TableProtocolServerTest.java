@@ -0,0 +1,144 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plays a TableProtocolServer over loopback sockets.
+ */
+@Timeout(30)
+class TableProtocolServerTest {
+    private TableServer tables;
+    private TableProtocolServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tables = new TableServer(1, 1, Deck.DEFAULT_PENETRATION);
+        server = new TableProtocolServer(tables, new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        tables.close();
+    }
+
+    @Test
+    void requestsBehindARejectedJoinCannotActForTheSeatedPlayer() throws Exception {
+        try (SocketChannel bob = connect(); SocketChannel impostor = connect()) {
+            send(bob, join(TableProtocol.NEW_TABLE, "bob"));
+            ByteBuffer joined = readReply(bob);
+            assertEquals(TableProtocol.JOINED, joined.get());
+            int tableId = joined.getInt();
+            long[] bobsBet = new long[1];
+            tables.getTable(tableId).execute(game -> {
+                Player player = game.getPlayer("bob");
+                bobsBet[0] = player.getBettingPolicy().nextBet(player.getBankroll());
+            }).get(10, TimeUnit.SECONDS);
+
+            // The JOIN fails, and every request sent with it must fail rather than act as bob
+            ByteBuffer burst = ByteBuffer.allocate(256);
+            burst.put(join(tableId, "bob")).put(request(TableProtocol.DEAL)).put(request(TableProtocol.HIT));
+            burst.put(bet(1_000_000)).flip();
+            send(impostor, burst);
+            for (byte type : new byte[] {TableProtocol.JOIN, TableProtocol.DEAL, TableProtocol.HIT, TableProtocol.BET}) {
+                ByteBuffer reply = readReply(impostor);
+                assertEquals(TableProtocol.ERROR, reply.get(0), "reply to request " + type);
+                assertEquals(type, reply.get(1));
+            }
+
+            tables.getTable(tableId).execute(game -> {
+                Player player = game.getPlayer("bob");
+                assertEquals(1, game.getPlayers().size());
+                assertEquals(0, game.getRoundNumber(), "no round was dealt for bob");
+                assertEquals(bobsBet[0], player.getBettingPolicy().nextBet(player.getBankroll()), "bob's bet is unchanged");
+            }).get(10, TimeUnit.SECONDS);
+
+            // Bob can still play his own seat
+            send(bob, request(TableProtocol.DEAL));
+            ByteBuffer ok = readReply(bob);
+            assertEquals(TableProtocol.OK, ok.get(0));
+            assertEquals(TableProtocol.DEAL, ok.get(1));
+        }
+    }
+
+    @Test
+    void longStringsAreCutOnACharacterBoundary() {
+        // 2-byte characters, so the 255th byte would start a character
+        String name = "é".repeat(200);
+        ByteBuffer buffer = ByteBuffer.allocate(1 + TableProtocol.MAX_STRING);
+        TableProtocol.putString(buffer, name);
+        buffer.flip();
+        assertEquals(254, buffer.get(0) & 0xFF);
+        assertEquals("é".repeat(127), TableProtocol.getString(buffer));
+    }
+
+    private SocketChannel connect() throws IOException {
+        return SocketChannel.open(new InetSocketAddress("127.0.0.1", server.getPort()));
+    }
+
+    private static ByteBuffer join(int tableId, String name) {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + TableProtocol.MAX_STRING);
+        int start = TableProtocol.beginFrame(buffer, TableProtocol.JOIN);
+        buffer.putInt(tableId);
+        TableProtocol.putString(buffer, name);
+        TableProtocol.endFrame(buffer, start);
+        return buffer.flip();
+    }
+
+    private static ByteBuffer bet(long minorUnits) {
+        ByteBuffer buffer = ByteBuffer.allocate(11);
+        int start = TableProtocol.beginFrame(buffer, TableProtocol.BET);
+        buffer.putLong(minorUnits);
+        TableProtocol.endFrame(buffer, start);
+        return buffer.flip();
+    }
+
+    private static ByteBuffer request(byte type) {
+        ByteBuffer buffer = ByteBuffer.allocate(3);
+        int start = TableProtocol.beginFrame(buffer, type);
+        TableProtocol.endFrame(buffer, start);
+        return buffer.flip();
+    }
+
+    private static void send(SocketChannel channel, ByteBuffer frames) throws IOException {
+        while (frames.hasRemaining()) {
+            channel.write(frames);
+        }
+    }
+
+    /**
+     * Reads frames until the answer to a request arrives, skipping deltas and snapshots.
+     * @return The JOINED, OK or ERROR frame, positioned at its type
+     */
+    private static ByteBuffer readReply(SocketChannel channel) throws IOException {
+        while (true) {
+            ByteBuffer length = ByteBuffer.allocate(2);
+            readFully(channel, length);
+            ByteBuffer frame = ByteBuffer.allocate(length.getShort(0) & 0xFFFF);
+            readFully(channel, frame);
+            frame.flip();
+            byte type = frame.get(0);
+            if (type == TableProtocol.JOINED || type == TableProtocol.OK || type == TableProtocol.ERROR) {
+                return frame;
+            }
+        }
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Closed by the server");
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that a journaled TableServer comes back exactly as it was.
+ * Plays rounds on many tables, checkpoints halfway, plays on and leaves every table
+ * in the middle of a round, then stops the server as a crash would and starts a new one
+ * from the journal. Every restored table must match the original card for card,
+ * and must then be able to finish its round. The same must hold after a crash,
+ * with the server dropped rather than closed, and for tables opened while checkpoints run.
+ * Scale it up with -Dload.tables, -Dload.players and -Dload.rounds.
+ */
+class TableRecoveryTest {
+    private static final int TABLES = Integer.getInteger("load.tables", 200);
+    private static final int PLAYERS_PER_TABLE = Integer.getInteger("load.players", 3);
+    private static final int ROUNDS = Integer.getInteger("load.rounds", 10);
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresEveryTableAsItWas() throws Exception {
+        Map<Integer, String> before;
+        try (TableServer server = new TableServer(THREADS, 6, Deck.DEFAULT_PENETRATION, journal(Long.MAX_VALUE / 2))) {
+            before = playAndLeaveMidRound(server);
+        }
+        assertRestored(before);
+    }
+
+    @Test
+    void restoresWhatWasWrittenBeforeACrash() throws Exception {
+        TableJournal journal = journal(Long.MAX_VALUE / 2);
+        TableServer crashed = new TableServer(THREADS, 6, Deck.DEFAULT_PENETRATION, journal);
+        try {
+            Map<Integer, String> before = playAndLeaveMidRound(crashed);
+            // The process dies here: what the last flush wrote is all there is
+            journal.flush();
+            assertRestored(before);
+        } finally {
+            crashed.close();
+        }
+    }
+
+    @Test
+    void keepsTablesOpenedWhileCheckpointing() throws Exception {
+        Map<Integer, String> before;
+        try (TableServer server = new TableServer(THREADS, 6, Deck.DEFAULT_PENETRATION, journal(Long.MAX_VALUE / 2))) {
+            List<TableActor> tables = Collections.synchronizedList(new ArrayList<>());
+            for (int i = 0; i < TABLES; i++) {
+                tables.add(openTable(server));
+            }
+            // Tables keep opening for as long as the last checkpoint runs, so none after it can cover them
+            CountDownLatch opening = new CountDownLatch(1);
+            AtomicBoolean checkpointed = new AtomicBoolean();
+            Thread opener = new Thread(() -> {
+                while (!checkpointed.get()) {
+                    tables.add(openTable(server));
+                    opening.countDown();
+                }
+            });
+            opener.start();
+            opening.await();
+            server.checkpoint();
+            checkpointed.set(true);
+            opener.join();
+
+            // A table's first shoe is only recorded once it is dealt
+            await(tables, game -> playRounds(game, 1));
+            before = fingerprints(tables);
+        }
+        assertRestored(before);
+    }
+
+    /**
+     * Plays rounds on new tables with a checkpoint halfway, then leaves every table mid-round.
+     * @return The tables' fingerprints by id
+     */
+    private static Map<Integer, String> playAndLeaveMidRound(TableServer server) throws Exception {
+        List<TableActor> tables = new ArrayList<>();
+        for (int i = 0; i < TABLES; i++) {
+            tables.add(openTable(server));
+        }
+        await(tables, game -> playRounds(game, ROUNDS / 2));
+        server.checkpoint();
+        await(tables, game -> {
+            playRounds(game, ROUNDS - ROUNDS / 2);
+            // Leave the table mid-round, with some players having acted
+            game.startNewRound();
+            if (game.getGameState() == Game.GameState.PLAYING) {
+                game.hit();
+            }
+        });
+        return fingerprints(tables);
+    }
+
+    private static TableActor openTable(TableServer server) {
+        TableActor table = server.openTable();
+        for (int p = 0; p < PLAYERS_PER_TABLE; p++) {
+            table.submit(TableCommand.Type.JOIN, "Player " + p);
+        }
+        return table;
+    }
+
+    /**
+     * Starts a server from the journal and checks that it holds exactly the given tables,
+     * each as it was and able to finish its round.
+     */
+    private void assertRestored(Map<Integer, String> before) throws Exception {
+        try (TableServer server = new TableServer(THREADS, 6, Deck.DEFAULT_PENETRATION, new TableJournal(directory))) {
+            assertEquals(before.size(), server.getTableCount());
+            List<TableActor> tables = new ArrayList<>();
+            for (int id : before.keySet()) {
+                TableActor table = server.getTable(id);
+                assertNotNull(table, "table " + id + " was not restored");
+                tables.add(table);
+            }
+            Map<Integer, String> after = fingerprints(tables);
+            for (Map.Entry<Integer, String> entry : before.entrySet()) {
+                assertEquals(entry.getValue(), after.get(entry.getKey()), "table " + entry.getKey());
+            }
+
+            await(tables, game -> playRounds(game, 1));
+            for (TableActor table : tables) {
+                assertEquals(Game.GameState.ROUND_OVER, table.execute(game -> { }).get().getGameState(),
+                        "table " + table.getId() + " finished its round");
+            }
+            TableActor opened = server.openTable();
+            assertFalse(before.containsKey(opened.getId()), "new tables do not reuse restored ids");
+        }
+    }
+
+    @Test
+    void countsFailedCheckpointsUntilOneSucceeds() throws Exception {
+        try (TableServer server = new TableServer(1, 1, Deck.DEFAULT_PENETRATION, journal(20))) {
+            server.openTable().submit(TableCommand.Type.JOIN, "Player");
+            // A directory where the checkpoint is written first makes every checkpoint fail
+            Path blocker = Files.createDirectory(directory.resolve("checkpoint.tmp"));
+            awaitUntil(() -> server.getConsecutiveCheckpointFailures() >= 2);
+            assertTrue(server.getCheckpointFailures() >= 2);
+
+            Files.delete(blocker);
+            awaitUntil(() -> server.getConsecutiveCheckpointFailures() == 0);
+            assertTrue(server.getCheckpointFailures() >= 2, "the total is kept");
+
+            Metrics metrics = new Metrics();
+            metrics.register("server", "recovery", server);
+            try {
+                assertTrue(metrics.exposition().contains("blackjack_checkpoint_consecutive_failures"
+                        + "{scope=\"server\",name=\"recovery\"} 0\n"));
+            } finally {
+                metrics.unregister("server", "recovery");
+            }
+        }
+    }
+
+    private TableJournal journal(long checkpointIntervalMillis) throws Exception {
+        return new TableJournal(directory, TableJournal.DEFAULT_FLUSH_INTERVAL_MILLIS,
+                TableJournal.DEFAULT_SYNC_INTERVAL_MILLIS, checkpointIntervalMillis);
+    }
+
+    private interface Condition {
+        boolean holds();
+    }
+
+    private static void awaitUntil(Condition condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.holds()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    private interface Play {
+        void play(Game game);
+    }
+
+    private static void await(List<TableActor> tables, Play play) throws InterruptedException, ExecutionException {
+        List<CompletableFuture<TableState>> done = new ArrayList<>();
+        for (TableActor table : tables) {
+            done.add(table.execute(play::play));
+        }
+        CompletableFuture.allOf(done.toArray(new CompletableFuture<?>[0])).get();
+    }
+
+    /**
+     * Finishes the round in progress, if any, then plays whole rounds, hitting below 17.
+     */
+    private static void playRounds(Game game, int rounds) {
+        for (int i = 0; i <= rounds; i++) {
+            if (i > 0) {
+                game.startNewRound();
+            }
+            while (game.getGameState() == Game.GameState.PLAYING && game.getCurrentPlayer() != null) {
+                if (game.getCurrentPlayer().getActiveHand().calculateValue() < 17) {
+                    game.hit();
+                } else {
+                    game.stay();
+                }
+            }
+        }
+    }
+
+    private static Map<Integer, String> fingerprints(List<TableActor> tables) throws InterruptedException, ExecutionException {
+        Map<Integer, String> fingerprints = new ConcurrentHashMap<>();
+        List<CompletableFuture<TableState>> done = new ArrayList<>();
+        for (TableActor table : tables) {
+            done.add(table.execute(game -> fingerprints.put(table.getId(), fingerprint(game))));
+        }
+        CompletableFuture.allOf(done.toArray(new CompletableFuture<?>[0])).get();
+        return fingerprints;
+    }
+
+    /**
+     * Describes everything about a game that a restore must bring back.
+     */
+    private static String fingerprint(Game game) {
+        StringBuilder text = new StringBuilder();
+        Player current = game.getCurrentPlayer();
+        text.append("round ").append(game.getRoundNumber()).append(' ').append(game.getGameState())
+                .append(", turn ").append(current == null ? "-" : current.getName() + "/" + current.getActiveHandIndex())
+                .append(", shoe ").append(game.getDeck().getShoeSeed()).append('@').append(game.getDeck().getPosition());
+        for (Player player : game.getPlayers()) {
+            text.append(" | ").append(player.getName()).append(' ').append(player.getBankroll().getBalance())
+                    .append('/').append(player.getBet());
+            for (int i = 0; i < player.getHandCount(); i++) {
+                text.append(' ').append(cards(player.getHand(i)));
+            }
+        }
+        return text.append(" | dealer ").append(cards(game.getDealer().getHand())).toString();
+    }
+
+    private static String cards(Hand hand) {
+        StringBuilder text = new StringBuilder("[");
+        for (Card card : hand.getCards()) {
+            text.append(card.isFaceUp() ? Integer.toHexString(card.getCode() & 0xFF) : "??").append(' ');
+        }
+        return text.append(hand.calculateValue()).append(']').toString();
+    }
+}